@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Prepares the keys of a lookup with an Oracle array before they are bound.
+ *
+ * @see OracleNamedParameterJdbcTemplate#queryByKeys(String, java.util.Map, String, String, Collection, org.springframework.jdbc.core.RowMapper)
+ */
+final class ArrayLookup {
+
+  private static final Object[] NO_KEYS = new Object[0];
+
+  private ArrayLookup() {
+    throw new AssertionError("Not instantiable");
+  }
+
+  /**
+   * Removes {@code null} and duplicate keys.
+   *
+   * <p>When sorting duplicates are removed after sorting by comparing
+   * neighbours instead of hashing.</p>
+   *
+   * @param keys the keys, not {@code null}
+   * @param sort whether to sort the keys in their natural order
+   * @return the distinct, non-{@code null} keys, sorted if requested,
+   *         in encounter order otherwise
+   * @throws ClassCastException if {@code sort} is {@code true} and the
+   *         keys are not mutually comparable
+   */
+  static Object[] prepareKeys(Collection<?> keys, boolean sort) {
+    if (keys.isEmpty()) {
+      return NO_KEYS;
+    }
+    if (!sort) {
+      Set<Object> distinct = new LinkedHashSet<>(keys);
+      distinct.remove(null);
+      return distinct.toArray();
+    }
+    Object[] sorted = new Object[keys.size()];
+    int length = 0;
+    for (Object key : keys) {
+      if (key != null) {
+        sorted[length++] = key;
+      }
+    }
+    Arrays.sort(sorted, 0, length);
+    int distinct = 0;
+    for (int i = 0; i < length; i++) {
+      if (distinct == 0 || !sorted[i].equals(sorted[distinct - 1])) {
+        sorted[distinct++] = sorted[i];
+      }
+    }
+    return distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+  }
+
+  /**
+   * Splits keys into chunks.
+   *
+   * @param keys the keys, not {@code null}
+   * @param chunkSize the maximum number of keys per chunk, {@code 0} for a single chunk
+   * @return the chunks in key order, no chunk is empty
+   */
+  static Object[][] chunk(Object[] keys, int chunkSize) {
+    if (keys.length == 0) {
+      return new Object[0][];
+    }
+    if (chunkSize == 0 || keys.length <= chunkSize) {
+      return new Object[][] {keys};
+    }
+    int chunkCount = (keys.length + chunkSize - 1) / chunkSize;
+    Object[][] chunks = new Object[chunkCount][];
+    for (int i = 0; i < chunkCount; i++) {
+      int from = i * chunkSize;
+      chunks[i] = Arrays.copyOfRange(keys, from, Math.min(from + chunkSize, keys.length));
+    }
+    return chunks;
+  }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the default executor of {@link AsyncOracleNamedParameterJdbcTemplate}.
+ *
+ * <p>Replaced by a version using virtual threads on Java 21 and later.</p>
+ */
+final class AsyncExecutors {
+
+  private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+  private AsyncExecutors() {
+    throw new AssertionError("Not instantiable");
+  }
+
+  /**
+   * Creates an executor that runs every call on its own thread.
+   *
+   * @return an unbounded pool of daemon threads
+   */
+  static ExecutorService newDefaultExecutor() {
+    return Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "oracle-jdbc-async-" + THREAD_NUMBER.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+}
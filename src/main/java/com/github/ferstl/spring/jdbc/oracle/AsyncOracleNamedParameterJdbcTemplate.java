@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.lang.Nullable;
+
+/**
+ * Runs the calls of an {@link OracleNamedParameterJdbcTemplate} on an
+ * executor and returns {@link CompletableFuture}s.
+ *
+ * <p>By default every call runs on its own virtual thread on Java 21 and
+ * later, on its own platform thread on earlier versions.</p>
+ *
+ * <h2>Cancellation</h2>
+ * <p>Cancelling a returned future cancels the statement with
+ * {@link PreparedStatement#cancel()} so that the database stops working
+ * on it, a call that has not started yet is not executed at all.
+ * {@link #await(CompletableFuture)} cancels the future if the waiting
+ * thread is interrupted.</p>
+ *
+ * <h2>Example</h2>
+ * <pre><code> try (AsyncOracleNamedParameterJdbcTemplate asyncTemplate = new AsyncOracleNamedParameterJdbcTemplate(template)) {
+ *   CompletableFuture&lt;List&lt;String&gt;&gt; values = asyncTemplate.query(sql, parameters, (rs, i) -&gt; rs.getString(1));
+ *   return AsyncOracleNamedParameterJdbcTemplate.await(values);
+ * }
+ * </code></pre>
+ *
+ * <p>As every call runs on a different thread calls do not take part in
+ * Spring managed transactions of the calling thread.</p>
+ */
+public final class AsyncOracleNamedParameterJdbcTemplate implements AutoCloseable {
+
+  private final OracleNamedParameterJdbcTemplate template;
+
+  private final Executor executor;
+
+  /**
+   * The executor created by this instance, {@code null} if the executor
+   * was passed in.
+   */
+  @Nullable
+  private final ExecutorService ownedExecutor;
+
+  /**
+   * Creates a new async template using virtual threads on Java 21 and later.
+   *
+   * @param template the template executing the calls, not {@code null}
+   */
+  public AsyncOracleNamedParameterJdbcTemplate(OracleNamedParameterJdbcTemplate template) {
+    Objects.requireNonNull(template, "template");
+    this.template = template;
+    this.ownedExecutor = AsyncExecutors.newDefaultExecutor();
+    this.executor = this.ownedExecutor;
+  }
+
+  /**
+   * Creates a new async template using the given executor.
+   *
+   * @param template the template executing the calls, not {@code null}
+   * @param executor runs the calls, not shut down by {@link #close()}, not {@code null}
+   */
+  public AsyncOracleNamedParameterJdbcTemplate(OracleNamedParameterJdbcTemplate template, Executor executor) {
+    Objects.requireNonNull(template, "template");
+    Objects.requireNonNull(executor, "executor");
+    this.template = template;
+    this.executor = executor;
+    this.ownedExecutor = null;
+  }
+
+  /**
+   * Executes a query and maps every row.
+   *
+   * @param <T> the type of the mapped rows
+   * @param sql the SQL query to execute
+   * @param paramSource the values of the bind variables
+   * @param rowMapper maps every row, not {@code null}
+   * @return completes with the mapped rows
+   */
+  public <T> CompletableFuture<List<T>> query(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper) {
+    Objects.requireNonNull(rowMapper, "rowMapper");
+    return this.submit(this.template.getPreparedStatementCreator(sql, paramSource),
+        // same path as the template so that the fetch size policy records the row count
+        statementCreator -> this.template.query(statementCreator, sql, rowMapper));
+  }
+
+  /**
+   * Executes a query and maps every row.
+   *
+   * @param <T> the type of the mapped rows
+   * @param sql the SQL query to execute
+   * @param paramMap the values of the bind variables
+   * @param rowMapper maps every row, not {@code null}
+   * @return completes with the mapped rows
+   */
+  public <T> CompletableFuture<List<T>> query(String sql, Map<String, ?> paramMap, RowMapper<T> rowMapper) {
+    return this.query(sql, new MapSqlParameterSource(paramMap), rowMapper);
+  }
+
+  /**
+   * Executes a DML statement.
+   *
+   * @param sql the SQL statement to execute
+   * @param paramSource the values of the bind variables
+   * @return completes with the number of rows affected
+   */
+  public CompletableFuture<Integer> update(String sql, SqlParameterSource paramSource) {
+    return this.submit(this.template.getPreparedStatementCreator(sql, paramSource),
+        statementCreator -> this.getJdbcOperations().update(statementCreator));
+  }
+
+  /**
+   * Executes a DML statement.
+   *
+   * @param sql the SQL statement to execute
+   * @param paramMap the values of the bind variables
+   * @return completes with the number of rows affected
+   */
+  public CompletableFuture<Integer> update(String sql, Map<String, ?> paramMap) {
+    return this.update(sql, new MapSqlParameterSource(paramMap));
+  }
+
+  /**
+   * Executes a DML statement for a batch of parameter sources.
+   *
+   * @param sql the SQL statement to execute
+   * @param batchArgs the values of the bind variables of all rows
+   * @return completes with the number of rows affected by every row of the batch
+   */
+  public CompletableFuture<int[]> batchUpdate(String sql, SqlParameterSource[] batchArgs) {
+    Objects.requireNonNull(batchArgs, "batchArgs");
+    return this.submit(this.template.getBatchPreparedStatementCreator(sql, batchArgs),
+        statementCreator -> this.getJdbcOperations().execute(statementCreator, PreparedStatement::executeBatch));
+  }
+
+  private JdbcOperations getJdbcOperations() {
+    return this.template.getJdbcOperations();
+  }
+
+  private <T> CompletableFuture<T> submit(PreparedStatementCreator statementCreator,
+          Function<PreparedStatementCreator, T> call) {
+    CancellableStatementCreator cancellable = new CancellableStatementCreator(statementCreator);
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.whenComplete((result, failure) -> {
+      if (future.isCancelled()) {
+        try {
+          cancellable.cancel();
+        } catch (SQLException e) {
+          // the statement may already have completed
+        }
+      }
+    });
+    try {
+      this.executor.execute(() -> {
+        if (future.isDone()) {
+          // cancelled before it started
+          return;
+        }
+        try {
+          future.complete(call.apply(cancellable));
+        } catch (RuntimeException | Error e) {
+          future.completeExceptionally(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  /**
+   * Waits for a call to complete. Cancels the call if the waiting thread
+   * is interrupted.
+   *
+   * @param <T> the type of the result
+   * @param future the future returned by any method of this class, not {@code null}
+   * @return the result of the call
+   * @throws InterruptedException if the current thread is interrupted
+   *         while waiting, the call has been cancelled
+   * @throws java.util.concurrent.CancellationException if the call has been cancelled
+   * @throws org.springframework.dao.DataAccessException if the call failed
+   */
+  public static <T> T await(CompletableFuture<T> future) throws InterruptedException {
+    Objects.requireNonNull(future, "future");
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      throw e;
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException("call failed", cause);
+    }
+  }
+
+  /**
+   * Shuts down the default executor, does nothing if an executor was
+   * passed to the constructor.
+   */
+  @Override
+  public void close() {
+    if (this.ownedExecutor != null) {
+      this.ownedExecutor.shutdown();
+    }
+  }
+
+}
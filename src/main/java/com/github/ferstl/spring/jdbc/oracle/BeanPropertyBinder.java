@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2013 by Stefan Ferstl <st.ferstl@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.SqlValue;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import com.github.ferstl.spring.jdbc.oracle.OracleNamedParameterJdbcTemplate.NamedPreparedStatementCreator;
+
+import oracle.jdbc.OraclePreparedStatement;
+
+/**
+ * Binds the properties of a bean to the bind variables of one SQL statement.
+ *
+ * <p>The bind variables of the statement and the matching bean properties
+ * are resolved only once. The properties are then read through generated
+ * accessors instead of reflection or a {@link org.springframework.beans.BeanWrapper}.</p>
+ *
+ * @see CompiledBeanPropertySqlParameterSource
+ */
+final class BeanPropertyBinder {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private final Class<?> beanClass;
+
+  private final BoundProperty[] properties;
+
+  private BeanPropertyBinder(Class<?> beanClass, BoundProperty[] properties) {
+    this.beanClass = beanClass;
+    this.properties = properties;
+  }
+
+  /**
+   * Creates a binder for a statement and a bean class.
+   *
+   * @param key the statement and bean class, not {@code null}
+   * @return the binder, never {@code null}
+   * @throws InvalidDataAccessApiUsageException if a bind variable does not match
+   *                                            a readable bean property
+   */
+  static BeanPropertyBinder compile(Key key) {
+    Class<?> beanClass = key.beanClass;
+    String[] bindNames = BindVariableParser.parseBindNames(key.sql);
+    PropertyDescriptor[] descriptors = BeanUtils.getPropertyDescriptors(beanClass);
+    BoundProperty[] properties = new BoundProperty[bindNames.length];
+    for (int i = 0; i < bindNames.length; i++) {
+      String bindName = bindNames[i];
+      PropertyDescriptor descriptor = findReadableProperty(descriptors, bindName);
+      if (descriptor == null) {
+        throw new InvalidDataAccessApiUsageException("No readable property found for bind variable '"
+                + bindName + "' in " + beanClass.getName());
+      }
+      Function<Object, Object> getter = compileGetter(descriptor.getReadMethod());
+      Class<?> propertyType = descriptor.getPropertyType();
+      int sqlType = StatementCreatorUtils.javaTypeToSqlParameterType(propertyType);
+      properties[i] = new BoundProperty(bindName, descriptor.getName(), getter, sqlType, getStaticBindType(propertyType, sqlType));
+    }
+    return new BeanPropertyBinder(beanClass, properties);
+  }
+
+  /**
+   * Returns the bind type of a property if it does not depend on the value.
+   */
+  @Nullable
+  private static BindType getStaticBindType(Class<?> propertyType, int sqlType) {
+    Class<?> valueClass = ClassUtils.resolvePrimitiveIfNecessary(propertyType);
+    if (Modifier.isFinal(valueClass.getModifiers())) {
+      // all values are of the property type
+      return BindType.of(valueClass, sqlType);
+    } else {
+      // subclasses may have a different bind type
+      return null;
+    }
+  }
+
+  private static PropertyDescriptor findReadableProperty(PropertyDescriptor[] descriptors, String bindName) {
+    PropertyDescriptor caseInsensitiveMatch = null;
+    for (PropertyDescriptor descriptor : descriptors) {
+      if (descriptor.getReadMethod() == null) {
+        continue;
+      }
+      if (descriptor.getName().equals(bindName)) {
+        return descriptor;
+      }
+      if (caseInsensitiveMatch == null && descriptor.getName().equalsIgnoreCase(bindName)) {
+        // Oracle bind variables are case insensitive
+        caseInsensitiveMatch = descriptor;
+      }
+    }
+    return caseInsensitiveMatch;
+  }
+
+  /**
+   * Generates an accessor for a getter. If possible a lambda is spun with
+   * {@link LambdaMetafactory} so that the getter can be inlined, otherwise a
+   * {@link MethodHandle} is used.
+   */
+  @SuppressWarnings("unchecked")
+  private static Function<Object, Object> compileGetter(Method readMethod) {
+    MethodHandle getter;
+    try {
+      ReflectionUtils.makeAccessible(readMethod);
+      getter = LOOKUP.unreflect(readMethod);
+    } catch (IllegalAccessException e) {
+      throw new InvalidDataAccessApiUsageException("could not access " + readMethod, e);
+    }
+    if (isLambdaCompatible(readMethod)) {
+      try {
+        CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "apply",
+                MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class),
+                getter,
+                getter.type().wrap());
+        return (Function<Object, Object>) callSite.getTarget().invokeExact();
+      } catch (Throwable e) {
+        // fall back to the method handle
+      }
+    }
+    MethodHandle genericGetter = getter.asType(MethodType.methodType(Object.class, Object.class));
+    return bean -> {
+      try {
+        return genericGetter.invokeExact(bean);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new InvalidDataAccessApiUsageException("could not invoke " + readMethod, e);
+      }
+    };
+  }
+
+  private static boolean isLambdaCompatible(Method readMethod) {
+    // the generated class lives in this package and has to be able to
+    // link against the getter
+    Class<?> declaringClass = readMethod.getDeclaringClass();
+    return Modifier.isPublic(declaringClass.getModifiers())
+            && Modifier.isPublic(readMethod.getModifiers())
+            && ClassUtils.isVisible(declaringClass, BeanPropertyBinder.class.getClassLoader());
+  }
+
+  /**
+   * Binds the properties of the bean of a parameter source.
+   *
+   * @param statement the statement to bind to
+   * @param parameterSource the parameter source wrapping a bean of the class of this binder
+   * @param nullBindTypes the SQL types for binding {@code null} values of the statement
+   * @param collectionTypes the SQL collection types for binding {@link java.util.Collection} values, possibly {@code null}
+   * @param arrays the arrays of the statement, freed when the statement is cleaned up
+   * @param sqlValues the {@link SqlValue}s bound so far, possibly {@code null}
+   * @return the {@link SqlValue}s bound so far including the ones of the bean,
+   *         to be cleaned up after execution, possibly {@code null}
+   * @throws SQLException if binding fails
+   */
+  @Nullable
+  List<SqlValue> setValues(OraclePreparedStatement statement, CompiledBeanPropertySqlParameterSource parameterSource,
+          NullBindTypes nullBindTypes, @Nullable CollectionTypeRegistry collectionTypes, StatementArrays arrays,
+          @Nullable List<SqlValue> sqlValues) throws SQLException {
+    List<SqlValue> boundSqlValues = sqlValues;
+    Object bean = parameterSource.getBean();
+    for (int i = 0; i < this.properties.length; i++) {
+      BoundProperty property = this.properties[i];
+      Object value = property.getter.apply(bean);
+      if (value instanceof SqlValue && !NamedPreparedStatementCreator.isArrayValue(value)) {
+        // remembered so the getter is not called again for cleaning up
+        if (boundSqlValues == null) {
+          boundSqlValues = new ArrayList<>();
+        }
+        boundSqlValues.add((SqlValue) value);
+      }
+      int sqlType = parameterSource.getRegisteredSqlType(property.propertyName);
+      BindType bindType;
+      if (sqlType == SqlParameterSource.TYPE_UNKNOWN) {
+        sqlType = property.sqlType;
+        bindType = property.bindType;
+      } else {
+        bindType = null;
+      }
+      NamedPreparedStatementCreator.setParameter(statement, parameterSource, property.bindName, property.propertyName, value, sqlType, bindType, nullBindTypes,
+              collectionTypes, arrays);
+    }
+    return boundSqlValues;
+  }
+
+  /**
+   * Cleans up the {@link SqlValue}s returned by
+   * {@link #setValues(OraclePreparedStatement, CompiledBeanPropertySqlParameterSource, NullBindTypes, CollectionTypeRegistry, StatementArrays, List)}.
+   *
+   * @param sqlValues the bound {@link SqlValue}s, possibly {@code null}
+   */
+  static void cleanupParameters(@Nullable List<SqlValue> sqlValues) {
+    if (sqlValues != null) {
+      for (SqlValue sqlValue : sqlValues) {
+        sqlValue.cleanup();
+      }
+    }
+  }
+
+  /**
+   * Checks whether this binder can bind the bean of a parameter source.
+   *
+   * @param parameterSource the parameter source
+   * @return {@code true} if the bean has exactly the class this binder was compiled for
+   */
+  boolean canBind(CompiledBeanPropertySqlParameterSource parameterSource) {
+    return parameterSource.getBean().getClass() == this.beanClass;
+  }
+
+  static final class BoundProperty {
+
+    final String bindName;
+
+    final String propertyName;
+
+    final Function<Object, Object> getter;
+
+    final int sqlType;
+
+    /**
+     * The bind type of all values of this property, {@code null} if it depends on the value.
+     */
+    @Nullable
+    final BindType bindType;
+
+    BoundProperty(String bindName, String propertyName, Function<Object, Object> getter, int sqlType, @Nullable BindType bindType) {
+      this.bindName = bindName;
+      this.propertyName = propertyName;
+      this.getter = getter;
+      this.sqlType = sqlType;
+      this.bindType = bindType;
+    }
+
+  }
+
+  /**
+   * Cache key of a {@link BeanPropertyBinder}.
+   */
+  static final class Key {
+
+    final String sql;
+
+    final Class<?> beanClass;
+
+    Key(String sql, Class<?> beanClass) {
+      Objects.requireNonNull(sql, "sql");
+      Objects.requireNonNull(beanClass, "beanClass");
+      this.sql = sql;
+      this.beanClass = beanClass;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return this.beanClass == other.beanClass
+              && this.sql.equals(other.sql);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.sql.hashCode() * 31 + this.beanClass.hashCode();
+    }
+
+  }
+
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2013 by Stefan Ferstl <st.ferstl@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import oracle.jdbc.OraclePreparedStatement;
+
+/**
+ * Selects the type specific {@code setXxxAtName} method used to bind a value.
+ *
+ * <p>Binding everything through {@link OraclePreparedStatement#setObjectAtName(String, Object)}
+ * forces ojdbc to find the type of every value again. Instead the type is
+ * resolved from the Java type of the value and the declared SQL type and can
+ * be cached as long as the Java type of a parameter does not change. The
+ * dispatch is done through a {@code switch} so that each {@code setXxxAtName}
+ * call site only ever sees values of one type.</p>
+ *
+ * <p>A type specific method is only used if it is equivalent to binding with
+ * {@code setObjectAtName}, otherwise {@link #OBJECT} is used.</p>
+ */
+enum BindType {
+
+  STRING(Types.VARCHAR),
+  INT(Types.NUMERIC),
+  LONG(Types.NUMERIC),
+  SHORT(Types.NUMERIC),
+  BYTE(Types.NUMERIC),
+  BOOLEAN(Types.BOOLEAN),
+  FLOAT(Types.REAL),
+  DOUBLE(Types.DOUBLE),
+  BIG_DECIMAL(Types.NUMERIC),
+  BYTES(Types.VARBINARY),
+  DATE(Types.DATE),
+  TIME(Types.TIME),
+  TIMESTAMP(Types.TIMESTAMP),
+
+  /**
+   * A {@link java.util.Date} that is not a {@code java.sql} type, bound as {@link Timestamp}.
+   */
+  UTIL_DATE(Types.TIMESTAMP),
+
+  ARRAY(SqlParameterSource.TYPE_UNKNOWN),
+
+  NAMED_SQL_VALUE(SqlParameterSource.TYPE_UNKNOWN),
+
+  /**
+   * Bound with {@code setObjectAtName}.
+   */
+  OBJECT(SqlParameterSource.TYPE_UNKNOWN);
+
+  private final int nullType;
+
+  BindType(int nullType) {
+    this.nullType = nullType;
+  }
+
+  /**
+   * Returns the SQL type to use for binding {@code null} in place of a value
+   * of this bind type.
+   *
+   * @return the SQL type, {@link SqlParameterSource#TYPE_UNKNOWN} if it
+   *         depends on the value or needs a type name
+   */
+  int getNullType() {
+    return this.nullType;
+  }
+
+  /**
+   * Resolves the bind type of a value.
+   *
+   * @param valueClass the class of the value to bind, not {@code null}
+   * @param sqlType the declared SQL type, possibly {@link SqlParameterSource#TYPE_UNKNOWN}
+   * @return the bind type, never {@code null}
+   */
+  static BindType of(Class<?> valueClass, int sqlType) {
+    BindType javaType = ofJavaType(valueClass);
+    if (sqlType == SqlParameterSource.TYPE_UNKNOWN || javaType == NAMED_SQL_VALUE) {
+      return javaType;
+    }
+    return javaType.isCompatibleWith(sqlType) ? javaType : OBJECT;
+  }
+
+  private static BindType ofJavaType(Class<?> valueClass) {
+    // most common types first
+    if (valueClass == String.class) {
+      return STRING;
+    } else if (valueClass == Integer.class) {
+      return INT;
+    } else if (valueClass == Long.class) {
+      return LONG;
+    } else if (valueClass == BigDecimal.class) {
+      return BIG_DECIMAL;
+    } else if (valueClass == byte[].class) {
+      return BYTES;
+    } else if (Timestamp.class.isAssignableFrom(valueClass)) {
+      return TIMESTAMP;
+    } else if (java.sql.Date.class.isAssignableFrom(valueClass)) {
+      return DATE;
+    } else if (Time.class.isAssignableFrom(valueClass)) {
+      return TIME;
+    } else if (java.util.Date.class.isAssignableFrom(valueClass)) {
+      return UTIL_DATE;
+    } else if (valueClass == Short.class) {
+      return SHORT;
+    } else if (valueClass == Byte.class) {
+      return BYTE;
+    } else if (valueClass == Boolean.class) {
+      return BOOLEAN;
+    } else if (valueClass == Double.class) {
+      return DOUBLE;
+    } else if (valueClass == Float.class) {
+      return FLOAT;
+    } else if (NamedSqlValue.class.isAssignableFrom(valueClass)) {
+      return NAMED_SQL_VALUE;
+    } else if (Array.class.isAssignableFrom(valueClass)) {
+      return ARRAY;
+    } else {
+      return OBJECT;
+    }
+  }
+
+  private boolean isCompatibleWith(int sqlType) {
+    switch (this) {
+      case STRING:
+        // no national character types, they have a different character set form
+        return sqlType == Types.VARCHAR || sqlType == Types.CHAR || sqlType == Types.LONGVARCHAR;
+      case INT:
+      case LONG:
+      case SHORT:
+      case BYTE:
+        return sqlType == Types.INTEGER || sqlType == Types.BIGINT || sqlType == Types.SMALLINT
+                || sqlType == Types.TINYINT || sqlType == Types.NUMERIC || sqlType == Types.DECIMAL;
+      case BIG_DECIMAL:
+        return sqlType == Types.NUMERIC || sqlType == Types.DECIMAL;
+      case BOOLEAN:
+        return sqlType == Types.BOOLEAN || sqlType == Types.BIT;
+      case FLOAT:
+        return sqlType == Types.REAL;
+      case DOUBLE:
+        return sqlType == Types.DOUBLE || sqlType == Types.FLOAT;
+      case BYTES:
+        return sqlType == Types.BINARY || sqlType == Types.VARBINARY || sqlType == Types.LONGVARBINARY;
+      case DATE:
+        return sqlType == Types.DATE;
+      case TIME:
+        return sqlType == Types.TIME;
+      case TIMESTAMP:
+      case UTIL_DATE:
+        return sqlType == Types.TIMESTAMP;
+      case ARRAY:
+        return sqlType == Types.ARRAY;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Binds a non-{@code null} value.
+   *
+   * @param statement the statement to bind to
+   * @param parameterName the name of the bind variable
+   * @param value the value to bind, has to be of this bind type, not {@code null}
+   * @param sqlType the declared SQL type, possibly {@link SqlParameterSource#TYPE_UNKNOWN}
+   * @throws SQLException if binding fails
+   */
+  void setValue(OraclePreparedStatement statement, String parameterName, Object value, int sqlType) throws SQLException {
+    switch (this) {
+      case STRING:
+        statement.setStringAtName(parameterName, (String) value);
+        break;
+      case INT:
+        statement.setIntAtName(parameterName, (Integer) value);
+        break;
+      case LONG:
+        statement.setLongAtName(parameterName, (Long) value);
+        break;
+      case SHORT:
+        statement.setShortAtName(parameterName, (Short) value);
+        break;
+      case BYTE:
+        statement.setByteAtName(parameterName, (Byte) value);
+        break;
+      case BOOLEAN:
+        statement.setBooleanAtName(parameterName, (Boolean) value);
+        break;
+      case FLOAT:
+        statement.setFloatAtName(parameterName, (Float) value);
+        break;
+      case DOUBLE:
+        statement.setDoubleAtName(parameterName, (Double) value);
+        break;
+      case BIG_DECIMAL:
+        statement.setBigDecimalAtName(parameterName, (BigDecimal) value);
+        break;
+      case BYTES:
+        statement.setBytesAtName(parameterName, (byte[]) value);
+        break;
+      case DATE:
+        statement.setDateAtName(parameterName, (java.sql.Date) value);
+        break;
+      case TIME:
+        statement.setTimeAtName(parameterName, (Time) value);
+        break;
+      case TIMESTAMP:
+        statement.setTimestampAtName(parameterName, (Timestamp) value);
+        break;
+      case UTIL_DATE:
+        statement.setTimestampAtName(parameterName, toTimestamp((java.util.Date) value));
+        break;
+      case ARRAY:
+        statement.setArrayAtName(parameterName, (Array) value);
+        break;
+      case NAMED_SQL_VALUE:
+        ((NamedSqlValue) value).setValue(statement, parameterName);
+        break;
+      default:
+        setObject(statement, parameterName, value, sqlType);
+        break;
+    }
+  }
+
+  private static void setObject(OraclePreparedStatement statement, String parameterName, Object value, int sqlType) throws SQLException {
+    Object bindParameter = convertToBindable(value);
+    if (sqlType != SqlParameterSource.TYPE_UNKNOWN) {
+      statement.setObjectAtName(parameterName, bindParameter, sqlType);
+    } else {
+      statement.setObjectAtName(parameterName, bindParameter);
+    }
+  }
+
+  /**
+   * OJDBC does not support binding common Java types most notably
+   * {@link java.util.Date} this method converts some of the to
+   * bindable types.
+   *
+   * @param object the object to bind with may need conversion
+   * @return an equivalent value that hopefully ojdbc support
+   * @see org.springframework.jdbc.core.StatementCreatorUtils#setValue(java.sql.PreparedStatement, int, int, String, Integer, Object)
+   */
+  static Object convertToBindable(Object object) {
+    if (object instanceof java.util.Date) {
+      return convertToSqlTemporal((java.util.Date) object);
+    } else {
+      return object;
+    }
+  }
+
+  /**
+   * Converts a {@link java.util.Date} that is not a java.sql type
+   * to a {@link java.sql.Timestamp}.
+   *
+   * @param date the date to convert, not null
+   * @return The SQL Timestamp.
+   * @see org.springframework.jdbc.core.StatementCreatorUtils#isDateValue(Class)
+   */
+  private static Object convertToSqlTemporal(java.util.Date date) {
+    if (date instanceof java.sql.Date) {
+      return date;
+    } else if (date instanceof java.sql.Timestamp) {
+      return date;
+    } else if (date instanceof java.sql.Time) {
+      return date;
+    } else {
+      return toTimestamp(date);
+    }
+  }
+
+  private static Timestamp toTimestamp(java.util.Date date) {
+    return new Timestamp(date.getTime());
+  }
+
+  /**
+   * Caches the resolved bind types of the parameters of a statement, the
+   * bind type is only resolved again when the Java type or the SQL type of
+   * a parameter change.
+   */
+  static final class Cache {
+
+    private final Class<?>[] valueClasses;
+
+    private final int[] sqlTypes;
+
+    private final BindType[] bindTypes;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param parameterCount the number of parameters of the statement
+     */
+    Cache(int parameterCount) {
+      this.valueClasses = new Class<?>[parameterCount];
+      this.sqlTypes = new int[parameterCount];
+      this.bindTypes = new BindType[parameterCount];
+    }
+
+    /**
+     * Returns the bind type of a parameter.
+     *
+     * @param parameterIndex the index of the parameter
+     * @param valueClass the class of the value to bind
+     * @param sqlType the declared SQL type
+     * @return the bind type, never {@code null}
+     */
+    BindType get(int parameterIndex, Class<?> valueClass, int sqlType) {
+      if (this.valueClasses[parameterIndex] == valueClass && this.sqlTypes[parameterIndex] == sqlType) {
+        return this.bindTypes[parameterIndex];
+      }
+      BindType bindType = of(valueClass, sqlType);
+      this.valueClasses[parameterIndex] = valueClass;
+      this.sqlTypes[parameterIndex] = sqlType;
+      this.bindTypes[parameterIndex] = bindType;
+      return bindType;
+    }
+
+  }
+
+}
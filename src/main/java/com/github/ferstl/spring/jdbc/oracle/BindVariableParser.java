@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2013 by Stefan Ferstl <st.ferstl@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Finds the names of the bind variables in an Oracle SQL statement.
+ *
+ * <p>Unlike {@link org.springframework.jdbc.core.namedparam.NamedParameterUtils}
+ * this does not rewrite the statement for binding, it only extracts the names
+ * of the {@code :name} bind variables so that the result can be cached and
+ * used to determine which values have to be bound. Statements are only
+ * rewritten to embed them in generated PL/SQL.</p>
+ *
+ * <p>String literals, quoted identifiers and comments are skipped. Numbered
+ * bind variables ({@code :1}) and PL/SQL assignments ({@code :=}) are
+ * ignored.</p>
+ */
+final class BindVariableParser {
+
+  private BindVariableParser() {
+    throw new AssertionError("Not instantiable");
+  }
+
+  /**
+   * Returns the distinct names of the bind variables in order of first occurrence.
+   *
+   * @param sql the SQL statement, not {@code null}
+   * @return the names of the bind variables, never {@code null}
+   */
+  static String[] parseBindNames(String sql) {
+    Set<String> names = new LinkedHashSet<>();
+    forEachBindVariable(sql, (start, end) -> names.add(sql.substring(start + 1, end)));
+    return names.toArray(new String[0]);
+  }
+
+  /**
+   * Replaces every {@code :name} bind variable.
+   *
+   * @param sql the SQL statement, not {@code null}
+   * @param replacement returns the replacement of a bind variable given its name
+   * @return the SQL statement with the bind variables replaced
+   */
+  static String replaceBindVariables(String sql, UnaryOperator<String> replacement) {
+    StringBuilder buffer = new StringBuilder(sql.length() + 32);
+    int[] copied = new int[1];
+    forEachBindVariable(sql, (start, end) -> {
+      buffer.append(sql, copied[0], start);
+      buffer.append(replacement.apply(sql.substring(start + 1, end)));
+      copied[0] = end;
+    });
+    buffer.append(sql, copied[0], sql.length());
+    return buffer.toString();
+  }
+
+  private static void forEachBindVariable(String sql, BindVariableConsumer consumer) {
+    int length = sql.length();
+    int i = 0;
+    while (i < length) {
+      char c = sql.charAt(i);
+      if (c == '\'') {
+        i = skipQuoted(sql, i + 1, '\'');
+      } else if (c == '"') {
+        i = skipQuoted(sql, i + 1, '"');
+      } else if ((c == 'q' || c == 'Q') && isQuoteLiteralStart(sql, i)) {
+        i = skipQuoteLiteral(sql, i + 2);
+      } else if (c == '-' && startsWith(sql, i, "--")) {
+        i = skipLineComment(sql, i + 2);
+      } else if (c == '/' && startsWith(sql, i, "/*")) {
+        i = skipBlockComment(sql, i + 2);
+      } else if (c == ':' && i + 1 < length && isIdentifierStart(sql.charAt(i + 1))) {
+        int end = i + 2;
+        while (end < length && isIdentifierPart(sql.charAt(end))) {
+          end += 1;
+        }
+        consumer.accept(i, end);
+        i = end;
+      } else {
+        i += 1;
+      }
+    }
+  }
+
+  private static boolean startsWith(String sql, int index, String prefix) {
+    return sql.startsWith(prefix, index);
+  }
+
+  private static boolean isQuoteLiteralStart(String sql, int index) {
+    // q'[...]' or nq'[...]' but not part of an identifier like "seq'"
+    int start = index;
+    if (start > 0 && isNationalPrefix(sql.charAt(start - 1))) {
+      start -= 1;
+    }
+    if (start > 0 && isIdentifierPart(sql.charAt(start - 1))) {
+      return false;
+    }
+    return index + 2 < sql.length() && sql.charAt(index + 1) == '\'';
+  }
+
+  private static boolean isNationalPrefix(char c) {
+    return c == 'n' || c == 'N';
+  }
+
+  private static int skipQuoted(String sql, int start, char quote) {
+    // doubled quotes are escapes, skipping them as two separate literals is equivalent
+    int end = sql.indexOf(quote, start);
+    return end == -1 ? sql.length() : end + 1;
+  }
+
+  private static int skipQuoteLiteral(String sql, int delimiterIndex) {
+    char delimiter = sql.charAt(delimiterIndex);
+    char closing = closingDelimiter(delimiter);
+    int index = delimiterIndex + 1;
+    while (index < sql.length()) {
+      int end = sql.indexOf(closing, index);
+      if (end == -1) {
+        return sql.length();
+      }
+      if (end + 1 < sql.length() && sql.charAt(end + 1) == '\'') {
+        return end + 2;
+      }
+      index = end + 1;
+    }
+    return sql.length();
+  }
+
+  private static char closingDelimiter(char delimiter) {
+    switch (delimiter) {
+      case '[':
+        return ']';
+      case '{':
+        return '}';
+      case '<':
+        return '>';
+      case '(':
+        return ')';
+      default:
+        return delimiter;
+    }
+  }
+
+  private static int skipLineComment(String sql, int start) {
+    int end = sql.indexOf('\n', start);
+    return end == -1 ? sql.length() : end + 1;
+  }
+
+  private static int skipBlockComment(String sql, int start) {
+    int end = sql.indexOf("*/", start);
+    return end == -1 ? sql.length() : end + 2;
+  }
+
+  private static boolean isIdentifierStart(char c) {
+    return Character.isLetter(c);
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#';
+  }
+
+  @FunctionalInterface
+  private interface BindVariableConsumer {
+
+    /**
+     * Called for every bind variable.
+     *
+     * @param start the index of the colon
+     * @param end the index after the last character of the name
+     */
+    void accept(int start, int end);
+
+  }
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2013 by Stefan Ferstl <st.ferstl@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * A size bounded cache that can be accessed concurrently.
+ *
+ * <p>Reads never lock, they are a simple {@link ConcurrentHashMap#get(Object)}
+ * and mark the entry as used. In contrast to Spring's
+ * {@link org.springframework.util.ConcurrentLruCache} no exact access order
+ * is maintained, once the cache is full the entries are evicted in
+ * insertion order, but an entry that has been read since it was last
+ * considered for eviction is given a second chance and moved to the end
+ * of the queue. The entry being inserted is never evicted. This is
+ * intended for caches with a limit that is never reached in normal
+ * operation and only exists to protect against a leak, eg. for dynamically
+ * generated SQL.</p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class BoundedConcurrentCache<K, V> {
+
+  private final ConcurrentMap<K, Node<K, V>> map;
+
+  /**
+   * The entries in insertion order, an entry whose key has been removed
+   * or inserted again since is no longer the current mapping and skipped.
+   */
+  private final Queue<Node<K, V>> insertionOrder;
+
+  private volatile int limit;
+
+  /**
+   * Creates a new cache.
+   *
+   * @param limit the maximum number of entries, {@code 0} to disable caching
+   */
+  BoundedConcurrentCache(int limit) {
+    this.map = new ConcurrentHashMap<>();
+    this.insertionOrder = new ConcurrentLinkedQueue<>();
+    this.setLimit(limit);
+  }
+
+  /**
+   * Sets the maximum number of entries.
+   *
+   * @param limit the maximum number of entries, {@code 0} to disable caching
+   */
+  void setLimit(int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("limit must not be negative");
+    }
+    this.limit = limit;
+    this.evictIfNecessary(null);
+  }
+
+  int getLimit() {
+    return this.limit;
+  }
+
+  /**
+   * Returns the value for a key, loading it if necessary.
+   *
+   * <p>The loader is invoked without holding a lock, it may be invoked
+   * concurrently for the same key. In this case only one value is retained.</p>
+   *
+   * @param key the key, not {@code null}
+   * @param loader the function to compute the value if not present, must not return {@code null}
+   * @return the cached or loaded value, never {@code null}
+   */
+  V get(K key, Function<? super K, ? extends V> loader) {
+    V value = this.getIfPresent(key);
+    if (value != null) {
+      return value;
+    }
+    value = Objects.requireNonNull(loader.apply(key), "value");
+    this.putIfAbsent(key, value);
+    Node<K, V> cached = this.map.get(key);
+    return cached != null ? cached.value : value;
+  }
+
+  /**
+   * Returns the value for a key if present.
+   *
+   * @param key the key, not {@code null}
+   * @return the value, {@code null} if not present
+   */
+  @Nullable
+  V getIfPresent(K key) {
+    Node<K, V> node = this.map.get(key);
+    if (node == null) {
+      return null;
+    }
+    node.markUsed();
+    return node.value;
+  }
+
+  /**
+   * Associates a value with a key if the key is not already present.
+   *
+   * @param key the key, not {@code null}
+   * @param value the value, not {@code null}
+   */
+  void putIfAbsent(K key, V value) {
+    if (this.limit == 0) {
+      return;
+    }
+    Node<K, V> node = new Node<>(key, value);
+    if (this.map.putIfAbsent(key, node) == null) {
+      this.insertionOrder.offer(node);
+      this.evictIfNecessary(node);
+    }
+  }
+
+  /**
+   * Associates a value with a key replacing any previous value, replacing
+   * a value does not change the position of the entry.
+   *
+   * @param key the key, not {@code null}
+   * @param value the value, not {@code null}
+   */
+  void put(K key, V value) {
+    if (this.limit == 0) {
+      return;
+    }
+    Node<K, V> node = new Node<>(key, value);
+    Node<K, V> previous = this.map.putIfAbsent(key, node);
+    if (previous == null) {
+      this.insertionOrder.offer(node);
+      this.evictIfNecessary(node);
+    } else {
+      previous.value = value;
+    }
+  }
+
+  int size() {
+    return this.map.size();
+  }
+
+  void clear() {
+    this.map.clear();
+    this.insertionOrder.clear();
+  }
+
+  private void evictIfNecessary(@Nullable Node<K, V> inserted) {
+    int currentLimit = this.limit;
+    if (this.map.size() <= currentLimit) {
+      return;
+    }
+    boolean insertedPolled = false;
+    // bounded so that concurrent reads can not keep the loop going
+    int secondChances = this.map.size();
+    while (this.map.size() > currentLimit) {
+      Node<K, V> eldest = this.insertionOrder.poll();
+      if (eldest == null) {
+        break;
+      }
+      if (eldest == inserted) {
+        insertedPolled = true;
+      } else if (this.map.get(eldest.key) != eldest) {
+        // stale, the key has been evicted or inserted again since
+        continue;
+      } else if (eldest.used && secondChances > 0) {
+        eldest.used = false;
+        secondChances -= 1;
+        this.insertionOrder.offer(eldest);
+      } else {
+        this.map.remove(eldest.key, eldest);
+      }
+    }
+    if (insertedPolled) {
+      this.insertionOrder.offer(inserted);
+    }
+    if (this.map.size() > currentLimit) {
+      // keys inserted concurrently with clear() may be missing from the queue
+      Iterator<Node<K, V>> iterator = this.map.values().iterator();
+      while (this.map.size() > currentLimit && iterator.hasNext()) {
+        if (iterator.next() != inserted) {
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * A cache entry, the position in the queue belongs to the entry and not
+   * to the key.
+   */
+  static final class Node<K, V> {
+
+    final K key;
+
+    volatile V value;
+
+    volatile boolean used;
+
+    Node(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    void markUsed() {
+      // avoid writing the shared field on every read
+      if (!this.used) {
+        this.used = true;
+      }
+    }
+
+  }
+
+}
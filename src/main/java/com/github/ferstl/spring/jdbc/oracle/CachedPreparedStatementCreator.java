@@ -44,9 +44,12 @@ import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
 
 import oracle.jdbc.OracleConnection;
 import oracle.jdbc.OraclePreparedStatement;
+import oracle.jdbc.OracleStatement;
 
 /**
  * A {@link PreparedStatementCreator} that causes OJDBC explicit
@@ -67,6 +70,9 @@ public final class CachedPreparedStatementCreator implements PreparedStatementCr
 
   private final String key;
   private final String sql;
+  private final StatementCacheMetrics metrics;
+  @Nullable
+  private final ColumnDefineCache columnDefines;
 
   /**
    * Creates a CachedPreparedStatementCreator.
@@ -77,10 +83,43 @@ public final class CachedPreparedStatementCreator implements PreparedStatementCr
    *        not {@code null}
    */
   public CachedPreparedStatementCreator(String key, String sql) {
+    this(key, sql, StatementCacheMetrics.NONE);
+  }
+
+  /**
+   * Creates a CachedPreparedStatementCreator that records cache hits,
+   * misses and closes.
+   * 
+   * @param key the cache key for the created prepared statement,
+   *        has to be unique, not {@code null}
+   * @param sql SQL query string for the cached prepared statement,
+   *        not {@code null}
+   * @param metrics the metrics to record to, not {@code null}
+   */
+  public CachedPreparedStatementCreator(String key, String sql, StatementCacheMetrics metrics) {
+    this(key, sql, metrics, null);
+  }
+
+  /**
+   * Creates a CachedPreparedStatementCreator that records cache hits,
+   * misses and closes and defines the result columns of the query.
+   * 
+   * @param key the cache key for the created prepared statement,
+   *        has to be unique, not {@code null}
+   * @param sql SQL query string for the cached prepared statement,
+   *        not {@code null}
+   * @param metrics the metrics to record to, not {@code null}
+   * @param columnDefines the cache of the result columns,
+   *        {@code null} to not define the result columns
+   */
+  public CachedPreparedStatementCreator(String key, String sql, StatementCacheMetrics metrics, @Nullable ColumnDefineCache columnDefines) {
     Objects.requireNonNull(key, "key");
     Objects.requireNonNull(sql, "sql");
+    Objects.requireNonNull(metrics, "metrics");
     this.key = key;
     this.sql = sql;
+    this.metrics = metrics;
+    this.columnDefines = columnDefines;
   }
 
   @Override
@@ -88,33 +127,142 @@ public final class CachedPreparedStatementCreator implements PreparedStatementCr
     return this.sql;
   }
 
+  String getKey() {
+    return this.key;
+  }
+
   @Override
   public PreparedStatement createPreparedStatement(Connection connection) throws SQLException {
-    OracleConnection oracleConnection = connection.unwrap(OracleConnection.class);
-    PreparedStatement statement = oracleConnection.getStatementWithKey(this.key);
+    PreparedStatement statement = getStatementWithKey(connection, this.key, this.metrics);
     if (statement == null) {
       statement = connection.prepareStatement(this.sql);
     }
-    return new CachedPreparedStatement(this.key, statement);
+    CachedPreparedStatement cachedStatement = new CachedPreparedStatement(this.key, statement, this.metrics);
+    if (this.columnDefines != null) {
+      try {
+        this.columnDefines.defineColumns(this.sql, cachedStatement);
+      } catch (SQLException | RuntimeException e) {
+        JdbcUtils.closeStatement(cachedStatement);
+        throw e;
+      }
+    }
+    return cachedStatement;
+  }
+
+  /**
+   * Looks up a statement in the explicit statement cache.
+   *
+   * @param connection the connection to look up the statement in
+   * @param key the cache key of the statement
+   * @param metrics the metrics to record the hit or miss to
+   * @return the cached statement, {@code null} if it is not cached and has to be prepared
+   * @throws SQLException if the lookup fails
+   */
+  @Nullable
+  static PreparedStatement getStatementWithKey(Connection connection, String key, StatementCacheMetrics metrics) throws SQLException {
+    PreparedStatement statement = connection.unwrap(OracleConnection.class).getStatementWithKey(key);
+    if (statement != null) {
+      metrics.hit(key);
+    } else {
+      metrics.miss(key);
+    }
+    return statement;
   }
 
   /**
    * Ensures that instead of being closed the statement is instead returned to the pool.
+   *
+   * <p>The fetch size, max rows, query timeout and max field size are
+   * restored before the statement is returned to the pool so that the next
+   * user does not inherit them, eg. from
+   * {@link JdbcTemplate#setFetchSize(int)}. Column defines of a
+   * {@link ColumnDefineCache} are cleared as they may truncate values.
+   * Only settings changed through this wrapper are restored, if none were
+   * changed no additional calls to the driver are made.</p>
    */
   static final class CachedPreparedStatement implements PreparedStatement {
 
+    /**
+     * Marker for a setting that has not been changed, all the settings are non-negative.
+     */
+    private static final int UNCHANGED = -1;
+
     private final String key;
     private final PreparedStatement delegate;
+    private final StatementCacheMetrics metrics;
+
+    private int originalFetchSize;
+    private long originalMaxRows;
+    private int originalQueryTimeout;
+    private int originalMaxFieldSize;
+
+    /**
+     * Whether columns were defined on the unwrapped statement.
+     */
+    private boolean columnsDefined;
 
-    CachedPreparedStatement(String key, PreparedStatement delegate) {
+    CachedPreparedStatement(String key, PreparedStatement delegate, StatementCacheMetrics metrics) {
       Objects.requireNonNull(key, "key");
       Objects.requireNonNull(delegate, "delegate");
+      Objects.requireNonNull(metrics, "metrics");
       this.key = key;
       this.delegate = delegate;
+      this.metrics = metrics;
+      this.originalFetchSize = UNCHANGED;
+      this.originalMaxRows = UNCHANGED;
+      this.originalQueryTimeout = UNCHANGED;
+      this.originalMaxFieldSize = UNCHANGED;
     }
 
     public void close() throws SQLException {
+      try {
+        this.restoreSettings();
+      } catch (SQLException | RuntimeException e) {
+        // don't return a statement with unknown settings to the pool
+        try {
+          this.delegate.close();
+        } catch (SQLException | RuntimeException closeException) {
+          e.addSuppressed(closeException);
+        }
+        throw e;
+      }
       this.delegate.unwrap(OraclePreparedStatement.class).closeWithKey(this.key);
+      this.metrics.close(this.key);
+    }
+
+    private void restoreSettings() throws SQLException {
+      if (this.originalFetchSize != UNCHANGED) {
+        this.delegate.setFetchSize(this.originalFetchSize);
+        this.originalFetchSize = UNCHANGED;
+      }
+      if (this.originalMaxRows != UNCHANGED) {
+        if (this.originalMaxRows > Integer.MAX_VALUE) {
+          this.delegate.setLargeMaxRows(this.originalMaxRows);
+        } else {
+          this.delegate.setMaxRows((int) this.originalMaxRows);
+        }
+        this.originalMaxRows = UNCHANGED;
+      }
+      if (this.originalQueryTimeout != UNCHANGED) {
+        this.delegate.setQueryTimeout(this.originalQueryTimeout);
+        this.originalQueryTimeout = UNCHANGED;
+      }
+      if (this.originalMaxFieldSize != UNCHANGED) {
+        this.delegate.setMaxFieldSize(this.originalMaxFieldSize);
+        this.originalMaxFieldSize = UNCHANGED;
+      }
+      if (this.columnsDefined) {
+        this.delegate.unwrap(OracleStatement.class).clearDefines();
+        this.columnsDefined = false;
+      }
+    }
+
+    /**
+     * Records that columns are defined on the unwrapped statement so that
+     * the defines are cleared before the statement is returned to the cache.
+     */
+    void columnsDefined() {
+      this.columnsDefined = true;
     }
 
     public <T> T unwrap(Class<T> iface) throws SQLException {
@@ -158,6 +306,9 @@ public final class CachedPreparedStatementCreator implements PreparedStatementCr
     }
 
     public void setMaxFieldSize(int max) throws SQLException {
+      if (this.originalMaxFieldSize == UNCHANGED) {
+        this.originalMaxFieldSize = this.delegate.getMaxFieldSize();
+      }
       this.delegate.setMaxFieldSize(max);
     }
 
@@ -174,6 +325,9 @@ public final class CachedPreparedStatementCreator implements PreparedStatementCr
     }
 
     public void setMaxRows(int max) throws SQLException {
+      if (this.originalMaxRows == UNCHANGED) {
+        this.originalMaxRows = this.delegate.getMaxRows();
+      }
       this.delegate.setMaxRows(max);
     }
 
@@ -203,6 +357,9 @@ public final class CachedPreparedStatementCreator implements PreparedStatementCr
     }
 
     public void setQueryTimeout(int seconds) throws SQLException {
+      if (this.originalQueryTimeout == UNCHANGED) {
+        this.originalQueryTimeout = this.delegate.getQueryTimeout();
+      }
       this.delegate.setQueryTimeout(seconds);
     }
 
@@ -292,6 +449,9 @@ public final class CachedPreparedStatementCreator implements PreparedStatementCr
     }
 
     public void setFetchSize(int rows) throws SQLException {
+      if (this.originalFetchSize == UNCHANGED) {
+        this.originalFetchSize = this.delegate.getFetchSize();
+      }
       this.delegate.setFetchSize(rows);
     }
 
@@ -488,6 +648,9 @@ public final class CachedPreparedStatementCreator implements PreparedStatementCr
     }
 
     public void setLargeMaxRows(long max) throws SQLException {
+      if (this.originalMaxRows == UNCHANGED) {
+        this.originalMaxRows = this.delegate.getLargeMaxRows();
+      }
       this.delegate.setLargeMaxRows(max);
     }
 
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hands out {@link CachedPreparedStatementCreator}s with keys derived from
+ * the SQL so that callers do not have to keep keys unique by hand.
+ *
+ * <p>The key of a SQL statement is a hash of the SQL, the same statement
+ * always has the same key independent of the order of registration or the
+ * JVM. Should two different statements have the same hash registering the
+ * second one fails, it has to be registered with an explicit key instead.
+ * Creators are interned, retrieving the creator of an already registered
+ * statement does not allocate.</p>
+ *
+ * <p>Registering the same key for two different statements fails with an
+ * exception instead of silently returning the wrong statement from the
+ * cache.</p>
+ *
+ * <p>Entries are never removed, a registry is intended for a fixed set of
+ * statements, not for dynamically generated SQL. Instances are thread safe
+ * and should be shared by all code using the same connections.</p>
+ *
+ * <pre><code>
+ * this.jdbcOperations.query(registry.getCreator(SQL), rowMapper);
+ * namedParameterJdbcTemplate.setStatementCacheKeyFunction(registry::getKey);
+ * </code></pre>
+ */
+public final class CachedPreparedStatementCreatorRegistry {
+
+  private static final String KEY_PREFIX = "sql-";
+
+  private final ConcurrentMap<String, CachedPreparedStatementCreator> creatorsBySql;
+
+  private final ConcurrentMap<String, String> sqlByKey;
+
+  private final StatementCacheMetrics metrics;
+
+  /**
+   * Creates a new, empty registry.
+   */
+  public CachedPreparedStatementCreatorRegistry() {
+    this(StatementCacheMetrics.NONE);
+  }
+
+  /**
+   * Creates a new, empty registry whose creators record cache hits, misses
+   * and closes.
+   *
+   * @param metrics the metrics to record to, not {@code null}
+   */
+  public CachedPreparedStatementCreatorRegistry(StatementCacheMetrics metrics) {
+    Objects.requireNonNull(metrics, "metrics");
+    this.creatorsBySql = new ConcurrentHashMap<>();
+    this.sqlByKey = new ConcurrentHashMap<>();
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the creator for a SQL statement, registering it with a key
+   * derived from the SQL if necessary.
+   *
+   * @param sql SQL query string for the cached prepared statement,
+   *        not {@code null}
+   * @return the creator, never {@code null}
+   * @throws IllegalArgumentException if the derived key is already used for
+   *         a different statement
+   */
+  public CachedPreparedStatementCreator getCreator(String sql) {
+    Objects.requireNonNull(sql, "sql");
+    CachedPreparedStatementCreator creator = this.creatorsBySql.get(sql);
+    if (creator != null) {
+      return creator;
+    }
+    return this.registerDerivedKey(sql);
+  }
+
+  /**
+   * Returns the creator for a SQL statement, registering it with an
+   * explicit key if necessary.
+   *
+   * @param key the cache key for the created prepared statement, not {@code null}
+   * @param sql SQL query string for the cached prepared statement,
+   *        not {@code null}
+   * @return the creator, never {@code null}
+   * @throws IllegalArgumentException if the key is already used for a
+   *         different statement or the statement is already registered
+   *         with a different key
+   */
+  public CachedPreparedStatementCreator getCreator(String key, String sql) {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(sql, "sql");
+    CachedPreparedStatementCreator creator = this.creatorsBySql.get(sql);
+    if (creator == null) {
+      String previousSql = this.sqlByKey.putIfAbsent(key, sql);
+      if (previousSql != null && !previousSql.equals(sql)) {
+        throw new IllegalArgumentException("key: " + key + " already used for statement: " + previousSql
+                + " can not be used for statement: " + sql);
+      }
+      creator = this.intern(new CachedPreparedStatementCreator(key, sql, this.metrics));
+    }
+    if (!creator.getKey().equals(key)) {
+      throw new IllegalArgumentException("statement: " + sql + " already registered with key: " + creator.getKey()
+              + " can not be registered with key: " + key);
+    }
+    return creator;
+  }
+
+  /**
+   * Returns the cache key of a SQL statement, registering it with a key
+   * derived from the SQL if necessary.
+   *
+   * <p>Can be used as a function for
+   * {@link OracleNamedParameterJdbcTemplate#setStatementCacheKeyFunction(java.util.function.Function)}.</p>
+   *
+   * @param sql SQL query string for the cached prepared statement,
+   *        not {@code null}
+   * @return the cache key, never {@code null}
+   * @throws IllegalArgumentException if the derived key is already used for
+   *         a different statement
+   */
+  public String getKey(String sql) {
+    return this.getCreator(sql).getKey();
+  }
+
+  private CachedPreparedStatementCreator registerDerivedKey(String sql) {
+    String key = KEY_PREFIX + Long.toHexString(hash(sql));
+    String previousSql = this.sqlByKey.putIfAbsent(key, sql);
+    if (previousSql != null && !previousSql.equals(sql)) {
+      // hash collision, or a key explicitly registered for a different statement
+      // a suffix would make the key depend on the order of registration
+      throw new IllegalArgumentException("derived key: " + key + " already used for statement: " + previousSql
+              + " can not be used for statement: " + sql + ", register it with an explicit key");
+    }
+    return this.intern(new CachedPreparedStatementCreator(key, sql, this.metrics));
+  }
+
+  private CachedPreparedStatementCreator intern(CachedPreparedStatementCreator creator) {
+    CachedPreparedStatementCreator previous = this.creatorsBySql.putIfAbsent(creator.getSql(), creator);
+    return previous != null ? previous : creator;
+  }
+
+  /**
+   * 64 bit FNV-1a hash of the characters of a string, less likely to collide
+   * than {@link String#hashCode()}.
+   */
+  static long hash(String s) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < s.length(); i++) {
+      hash ^= s.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    return hash;
+  }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Objects;
+
+import org.springframework.jdbc.core.ParameterDisposer;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.lang.Nullable;
+
+/**
+ * Remembers the statement created by another creator so that it can be
+ * cancelled from a different thread with {@link PreparedStatement#cancel()}.
+ *
+ * <p>The statement is forgotten in {@link #cleanupParameters()} which
+ * {@link org.springframework.jdbc.core.JdbcTemplate} calls before closing
+ * the statement. This avoids cancelling a statement that has been returned
+ * to the explicit statement cache and is being used by somebody else.</p>
+ */
+final class CancellableStatementCreator implements PreparedStatementCreator, SqlProvider, ParameterDisposer {
+
+  /**
+   * ORA-01013: user requested cancel of current operation
+   */
+  private static final int USER_REQUESTED_CANCEL = 1013;
+
+  private final PreparedStatementCreator delegate;
+
+  @Nullable
+  private PreparedStatement statement;
+
+  private boolean cancelled;
+
+  CancellableStatementCreator(PreparedStatementCreator delegate) {
+    Objects.requireNonNull(delegate);
+    this.delegate = delegate;
+  }
+
+  @Override
+  public PreparedStatement createPreparedStatement(Connection connection) throws SQLException {
+    PreparedStatement created = this.delegate.createPreparedStatement(connection);
+    synchronized (this) {
+      if (!this.cancelled) {
+        this.statement = created;
+        return created;
+      }
+    }
+    created.close();
+    throw new SQLException("ORA-01013: user requested cancel of current operation", "72000", USER_REQUESTED_CANCEL);
+  }
+
+  /**
+   * Cancels the statement if it is currently executing, or prevents it
+   * from being executed if it has not been created yet.
+   *
+   * @throws SQLException if cancelling the statement fails
+   */
+  synchronized void cancel() throws SQLException {
+    this.cancelled = true;
+    // holding the lock prevents the statement from being closed concurrently
+    if (this.statement != null) {
+      this.statement.cancel();
+    }
+  }
+
+  @Override
+  @Nullable
+  public String getSql() {
+    if (this.delegate instanceof SqlProvider) {
+      return ((SqlProvider) this.delegate).getSql();
+    }
+    return null;
+  }
+
+  @Override
+  public void cleanupParameters() {
+    synchronized (this) {
+      this.statement = null;
+    }
+    if (this.delegate instanceof ParameterDisposer) {
+      ((ParameterDisposer) this.delegate).cleanupParameters();
+    }
+  }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+/**
+ * Maps Java element types to SQL collection types so that
+ * {@link OracleNamedParameterJdbcTemplate} can bind {@link Collection}
+ * values as Oracle arrays.
+ *
+ * <p>In contrast to the IN list expansion of Spring's
+ * {@link org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate}
+ * the SQL does not change with the number of elements so there is only
+ * one cursor. The SQL has to use the collection with {@code TABLE()}, see
+ * {@link SqlOracleArrayValue}.</p>
+ *
+ * <pre><code> CollectionTypeRegistry collectionTypes = new CollectionTypeRegistry()
+ *     .register(Long.class, "NUMBER_TABLE")
+ *     .registerUuid("RAW16_TABLE");
+ * namedParameterJdbcTemplate.setCollectionTypes(collectionTypes);
+ * </code></pre>
+ *
+ * <p>The element type of a collection is determined from its first
+ * non-{@code null} element, if no type is registered for its class the
+ * types of its superclasses and interfaces are used. Collections without
+ * non-{@code null} elements, eg. empty collections, are bound with the
+ * type set by {@link #setEmptyCollectionTypeName(String)} or, if none is
+ * set, with the only registered type.</p>
+ *
+ * <p>Registration is not intended to happen concurrently with binding.
+ * Created arrays are tracked by the statement they are bound to and freed
+ * when that statement is cleaned up.</p>
+ */
+public final class CollectionTypeRegistry {
+
+  private final ConcurrentMap<Class<?>, CollectionType> collectionTypes;
+
+  @Nullable
+  private CollectionType emptyCollectionType;
+
+  /**
+   * Creates a new registry without any types.
+   */
+  public CollectionTypeRegistry() {
+    this.collectionTypes = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Registers the SQL collection type for an element type whose values can
+   * be passed to the driver as they are.
+   *
+   * @param elementType the Java type of the elements, not {@code null}
+   * @param typeName the name of the SQL collection type, not {@code null}
+   * @return this registry
+   */
+  public CollectionTypeRegistry register(Class<?> elementType, String typeName) {
+    return this.register(elementType, typeName, null);
+  }
+
+  /**
+   * Registers the SQL collection type for an element type whose values
+   * have to be converted.
+   *
+   * @param <T> the Java type of the elements
+   * @param elementType the Java type of the elements, not {@code null}
+   * @param typeName the name of the SQL collection type, not {@code null}
+   * @param elementConverter converts a non-{@code null} element to a value
+   *        supported by the driver, {@code null} if no conversion is needed
+   * @return this registry
+   */
+  public <T> CollectionTypeRegistry register(Class<T> elementType, String typeName, @Nullable Function<? super T, ?> elementConverter) {
+    Objects.requireNonNull(elementType, "elementType");
+    Objects.requireNonNull(typeName, "typeName");
+    @SuppressWarnings("unchecked")
+    Function<Object, ?> converter = (Function<Object, ?>) elementConverter;
+    this.collectionTypes.put(ClassUtils.resolvePrimitiveIfNecessary(elementType), new CollectionType(typeName, converter));
+    return this;
+  }
+
+  /**
+   * Registers the SQL collection type for {@link UUID} elements stored
+   * as {@code RAW(16)}.
+   *
+   * @param typeName the name of the SQL collection type, eg. a
+   *        {@code TABLE OF RAW(16)}, not {@code null}
+   * @return this registry
+   * @see UuidOracleData
+   */
+  public CollectionTypeRegistry registerUuid(String typeName) {
+    return this.register(UUID.class, typeName, UuidUtils::toByteArray);
+  }
+
+  /**
+   * Sets the SQL collection type of collections without non-{@code null}
+   * elements, eg. empty collections. Needed only if more than one type
+   * is registered.
+   *
+   * @param typeName the name of the SQL collection type, {@code null} to
+   *        use the only registered type
+   * @return this registry
+   */
+  public CollectionTypeRegistry setEmptyCollectionTypeName(@Nullable String typeName) {
+    this.emptyCollectionType = typeName != null ? new CollectionType(typeName, null) : null;
+    return this;
+  }
+
+  /**
+   * Binds a collection as an Oracle array.
+   *
+   * @param statement the statement to bind to
+   * @param parameterName the name of the bind variable
+   * @param values the collection to bind
+   * @param arrays the arrays of the statement, the created array is added to them
+   * @throws SQLException if creating or binding the array fails
+   * @throws IllegalArgumentException if no collection type is registered for the element type
+   *         of the collection or, for a collection without non-{@code null} elements, the
+   *         collection type is ambiguous
+   */
+  void setValue(OraclePreparedStatement statement, String parameterName, Collection<?> values, StatementArrays arrays) throws SQLException {
+    CollectionType collectionType = this.getCollectionType(values);
+    Object[] elements = collectionType.toElements(values);
+    Array array = statement.getConnection().unwrap(OracleConnection.class).createOracleArray(collectionType.typeName, elements);
+    arrays.add(array);
+    statement.setArrayAtName(parameterName, array);
+  }
+
+  private CollectionType getCollectionType(Collection<?> values) {
+    Class<?> elementType = null;
+    for (Object value : values) {
+      if (value != null) {
+        elementType = value.getClass();
+        break;
+      }
+    }
+    if (elementType == null) {
+      return this.getEmptyCollectionType();
+    }
+    CollectionType collectionType = this.collectionTypes.get(elementType);
+    if (collectionType == null) {
+      collectionType = this.findCollectionType(elementType);
+      if (collectionType == null) {
+        throw new IllegalArgumentException("no collection type registered for: " + elementType.getName());
+      }
+      // avoid walking the type hierarchy again
+      this.collectionTypes.putIfAbsent(elementType, collectionType);
+    }
+    return collectionType;
+  }
+
+  private CollectionType getEmptyCollectionType() {
+    if (this.emptyCollectionType != null) {
+      return this.emptyCollectionType;
+    }
+    // subtypes are registered with the collection type of their supertype
+    CollectionType collectionType = null;
+    for (CollectionType registered : this.collectionTypes.values()) {
+      if (collectionType != null && !collectionType.typeName.equals(registered.typeName)) {
+        throw new IllegalArgumentException("can not determine element type of collection without non-null elements,"
+                + " set the type name for empty collections");
+      }
+      collectionType = registered;
+    }
+    if (collectionType == null) {
+      throw new IllegalArgumentException("no collection type registered");
+    }
+    return collectionType;
+  }
+
+  @Nullable
+  private CollectionType findCollectionType(Class<?> elementType) {
+    for (Class<?> superclass = elementType.getSuperclass(); superclass != null; superclass = superclass.getSuperclass()) {
+      CollectionType collectionType = this.collectionTypes.get(superclass);
+      if (collectionType != null) {
+        return collectionType;
+      }
+    }
+    for (Class<?> interfaceType : ClassUtils.getAllInterfacesForClassAsSet(elementType)) {
+      CollectionType collectionType = this.collectionTypes.get(interfaceType);
+      if (collectionType != null) {
+        return collectionType;
+      }
+    }
+    return null;
+  }
+
+  static final class CollectionType {
+
+    final String typeName;
+
+    @Nullable
+    final Function<Object, ?> elementConverter;
+
+    CollectionType(String typeName, @Nullable Function<Object, ?> elementConverter) {
+      this.typeName = typeName;
+      this.elementConverter = elementConverter;
+    }
+
+    Object[] toElements(Collection<?> values) {
+      Object[] elements = values.toArray();
+      if (this.elementConverter != null) {
+        for (int i = 0; i < elements.length; i++) {
+          Object element = elements[i];
+          if (element != null) {
+            elements[i] = this.elementConverter.apply(element);
+          }
+        }
+      }
+      return elements;
+    }
+
+  }
+
+}
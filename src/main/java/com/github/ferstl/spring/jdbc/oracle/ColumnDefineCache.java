@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import oracle.jdbc.OraclePreparedStatement;
+import oracle.jdbc.OracleStatement;
+import oracle.jdbc.OracleTypes;
+
+/**
+ * Caches the result columns of queries and defines them with
+ * {@link OracleStatement#defineColumnType(int, int)} before execution.
+ *
+ * <p>When the columns of a query are defined the driver does not have to
+ * describe them and sizes its fetch buffers for the defined lengths.
+ * Without a define a {@code VARCHAR2(4000)} column costs 4000 characters
+ * times the fetch size even if the values are much shorter. The columns of
+ * a query are described once with {@link PreparedStatement#getMetaData()}
+ * the first time it is executed and are defined from the cache afterwards.</p>
+ *
+ * <p>Character and binary columns are defined with their declared length
+ * unless a smaller maximum length is configured for the column label.
+ * <strong>The driver truncates values longer than the defined length</strong>,
+ * only configure maximum lengths for columns whose values are known to fit.
+ * Queries with columns of object, collection, {@code LONG} or cursor types
+ * are not defined. Only statements starting with {@code SELECT} or
+ * {@code WITH} are considered queries.</p>
+ *
+ * <p>Call {@link #clear()} after changing the definition of a table,
+ * otherwise values of widened columns are truncated.</p>
+ *
+ * <h2>Example</h2>
+ * <pre><code> Map&lt;String, Integer&gt; maxLengths = new HashMap&lt;&gt;();
+ * maxLengths.put("DESCRIPTION", 100);
+ * ColumnDefineCache columnDefines = new ColumnDefineCache(maxLengths);
+ * template.setColumnDefineCache(columnDefines);
+ * jdbcOperations.query(new CachedPreparedStatementCreator(key, sql, StatementCacheMetrics.NONE, columnDefines), rowMapper);
+ * </code></pre>
+ *
+ * @see OracleNamedParameterJdbcTemplate#setColumnDefineCache(ColumnDefineCache)
+ * @see CachedPreparedStatementCreator#CachedPreparedStatementCreator(String, String, StatementCacheMetrics, ColumnDefineCache)
+ */
+public final class ColumnDefineCache {
+
+  private final Map<String, Integer> maxLengths;
+
+  private final BoundedConcurrentCache<String, ColumnDefines> columnDefines;
+
+  /**
+   * Creates a new cache that defines all columns with their declared length.
+   */
+  public ColumnDefineCache() {
+    this(Collections.emptyMap());
+  }
+
+  /**
+   * Creates a new cache with maximum lengths for some columns.
+   *
+   * @param maxLengths the maximum length of the values of a column by
+   *        column label, case insensitive, not {@code null}
+   */
+  public ColumnDefineCache(Map<String, Integer> maxLengths) {
+    Objects.requireNonNull(maxLengths, "maxLengths");
+    Map<String, Integer> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    for (Map.Entry<String, Integer> entry : maxLengths.entrySet()) {
+      Objects.requireNonNull(entry.getKey(), "columnLabel");
+      if (entry.getValue() == null || entry.getValue() <= 0) {
+        throw new IllegalArgumentException("max length of " + entry.getKey() + " must be positive");
+      }
+      copy.put(entry.getKey(), entry.getValue());
+    }
+    this.maxLengths = copy;
+    this.columnDefines = new BoundedConcurrentCache<>(NamedParameterJdbcTemplate.DEFAULT_CACHE_LIMIT);
+  }
+
+  /**
+   * Sets the maximum number of queries whose columns are cached.
+   *
+   * @param cacheLimit the maximum number of queries, {@code 0} to disable caching
+   */
+  public void setCacheLimit(int cacheLimit) {
+    this.columnDefines.setLimit(cacheLimit);
+  }
+
+  /**
+   * Removes all cached columns, they will be described again.
+   */
+  public void clear() {
+    this.columnDefines.clear();
+  }
+
+  /**
+   * Defines the result columns of a statement before it is executed.
+   *
+   * @param sql the SQL of the statement
+   * @param statement the statement to define the columns of
+   * @throws SQLException if describing or defining the columns fails
+   */
+  void defineColumns(String sql, PreparedStatement statement) throws SQLException {
+    this.defineColumns(sql, statement, new StatementDescription(statement));
+  }
+
+  /**
+   * Defines the result columns of a statement before it is executed.
+   *
+   * @param sql the SQL of the statement
+   * @param statement the statement to define the columns of
+   * @param description the description of the statement, shared with
+   *        a {@link FetchSizePolicy}
+   * @throws SQLException if describing or defining the columns fails
+   */
+  void defineColumns(String sql, PreparedStatement statement, StatementDescription description) throws SQLException {
+    ColumnDefines defines = this.columnDefines.getIfPresent(sql);
+    if (defines == null) {
+      defines = this.describe(sql, description);
+      this.columnDefines.putIfAbsent(sql, defines);
+    }
+    defines.define(statement);
+  }
+
+  private ColumnDefines describe(String sql, StatementDescription description) throws SQLException {
+    if (!isQuery(sql)) {
+      return ColumnDefines.NONE;
+    }
+    ResultSetMetaData metaData = description.getMetaData();
+    if (metaData == null || metaData.getColumnCount() == 0) {
+      return ColumnDefines.NONE;
+    }
+    int columnCount = metaData.getColumnCount();
+    int[] types = new int[columnCount];
+    int[] maxSizes = new int[columnCount];
+    short[] formsOfUse = new short[columnCount];
+    for (int i = 0; i < columnCount; i++) {
+      int column = i + 1;
+      int type = metaData.getColumnType(column);
+      if (!isDefinable(type)) {
+        return ColumnDefines.NONE;
+      }
+      types[i] = type;
+      if (hasLength(type)) {
+        maxSizes[i] = this.getMaxSize(metaData.getColumnLabel(column), metaData.getPrecision(column));
+        formsOfUse[i] = type == Types.NCHAR || type == Types.NVARCHAR ? OraclePreparedStatement.FORM_NCHAR : OraclePreparedStatement.FORM_CHAR;
+      }
+    }
+    return new ColumnDefines(types, maxSizes, formsOfUse);
+  }
+
+  private int getMaxSize(String columnLabel, int precision) {
+    Integer maxLength = this.maxLengths.get(columnLabel);
+    if (maxLength == null) {
+      return precision;
+    }
+    // the length of expressions is not known
+    return precision > 0 ? Math.min(precision, maxLength) : maxLength;
+  }
+
+  static boolean isQuery(String sql) {
+    int start = 0;
+    while (start < sql.length() && (Character.isWhitespace(sql.charAt(start)) || sql.charAt(start) == '(')) {
+      start += 1;
+    }
+    return sql.regionMatches(true, start, "SELECT", 0, 6) || sql.regionMatches(true, start, "WITH", 0, 4);
+  }
+
+  private static boolean hasLength(int type) {
+    switch (type) {
+      case Types.CHAR:
+      case Types.VARCHAR:
+      case Types.NCHAR:
+      case Types.NVARCHAR:
+      case Types.BINARY:
+      case Types.VARBINARY:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isDefinable(int type) {
+    if (hasLength(type)) {
+      return true;
+    }
+    switch (type) {
+      case Types.NUMERIC:
+      case Types.DECIMAL:
+      case Types.INTEGER:
+      case Types.BIGINT:
+      case Types.SMALLINT:
+      case Types.TINYINT:
+      case Types.FLOAT:
+      case Types.REAL:
+      case Types.DOUBLE:
+      case Types.DATE:
+      case Types.TIMESTAMP:
+      case Types.TIMESTAMP_WITH_TIMEZONE:
+      case Types.ROWID:
+      case Types.CLOB:
+      case Types.NCLOB:
+      case Types.BLOB:
+      case OracleTypes.BINARY_FLOAT:
+      case OracleTypes.BINARY_DOUBLE:
+      case OracleTypes.TIMESTAMPTZ:
+      case OracleTypes.TIMESTAMPLTZ:
+      case OracleTypes.INTERVALYM:
+      case OracleTypes.INTERVALDS:
+        return true;
+      default:
+        // objects, collections, LONG, cursors
+        return false;
+    }
+  }
+
+  /**
+   * The column defines of a single query.
+   */
+  static final class ColumnDefines {
+
+    static final ColumnDefines NONE = new ColumnDefines(new int[0], new int[0], new short[0]);
+
+    private final int[] types;
+
+    /**
+     * The maximum size of every column, {@code 0} if the column has no length.
+     */
+    private final int[] maxSizes;
+
+    private final short[] formsOfUse;
+
+    ColumnDefines(int[] types, int[] maxSizes, short[] formsOfUse) {
+      this.types = types;
+      this.maxSizes = maxSizes;
+      this.formsOfUse = formsOfUse;
+    }
+
+    void define(PreparedStatement statement) throws SQLException {
+      if (this.types.length == 0) {
+        return;
+      }
+      if (statement instanceof CachedPreparedStatementCreator.CachedPreparedStatement) {
+        // the next user of the cached statement may use different or no defines
+        ((CachedPreparedStatementCreator.CachedPreparedStatement) statement).columnsDefined();
+      }
+      OracleStatement oracleStatement = statement.unwrap(OracleStatement.class);
+      for (int i = 0; i < this.types.length; i++) {
+        if (this.maxSizes[i] > 0) {
+          oracleStatement.defineColumnType(i + 1, this.types[i], this.maxSizes[i], this.formsOfUse[i]);
+        } else {
+          oracleStatement.defineColumnType(i + 1, this.types[i]);
+        }
+      }
+    }
+
+  }
+
+}
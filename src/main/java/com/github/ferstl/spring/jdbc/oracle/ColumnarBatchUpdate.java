@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.sql.Array;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.CallableStatementCreator;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.jdbc.support.SqlValue;
+import org.springframework.lang.Nullable;
+
+import oracle.jdbc.OracleConnection;
+
+/**
+ * Executes a DML statement for a batch of parameter sources with a single
+ * PL/SQL {@code FORALL} statement instead of a JDBC batch.
+ *
+ * <p>The values of every bind variable are collected into one Oracle array
+ * so that only one array per bind variable is bound instead of one value
+ * per bind variable and row. The statement</p>
+ * <pre><code> UPDATE t SET val = :val WHERE id = :id</code></pre>
+ * <p>is executed as</p>
+ * <pre><code> DECLARE
+ *   p$0 VARCHAR_TABLE := ?;
+ *   p$1 NUMBER_TABLE := ?;
+ *   row_counts$ NUMBER_TABLE := NUMBER_TABLE();
+ * BEGIN
+ *   FORALL i$ IN 1 .. p$0.COUNT
+ *     UPDATE t SET val = p$0(i$) WHERE id = p$1(i$);
+ *   ...
+ *   ? := row_counts$;
+ * END;</code></pre>
+ * <p>and the number of rows affected by every row of the batch is returned
+ * through {@code SQL%BULK_ROWCOUNT}.</p>
+ *
+ * <p>Optionally the values of key columns are returned for all rows with
+ * {@code RETURNING ... BULK COLLECT INTO}, one array per key column.</p>
+ *
+ * @see OracleNamedParameterJdbcTemplate#batchUpdateColumnar(String, SqlParameterSource[], Map, String)
+ * @see OracleNamedParameterJdbcTemplate#batchUpdateColumnar(String, SqlParameterSource[], Map, String, KeyHolder, Map)
+ */
+final class ColumnarBatchUpdate implements CallableStatementCreator, CallableStatementCallback<int[]>, SqlProvider {
+
+  /**
+   * Optionally schema qualified SQL names, either nonquoted or quoted
+   * identifiers, similar to {@code DBMS_ASSERT.QUALIFIED_SQL_NAME}. The
+   * names are embedded in the generated PL/SQL and can not be bound.
+   */
+  private static final Pattern QUALIFIED_SQL_NAME;
+
+  static {
+    String simpleName = "(?:[A-Za-z][A-Za-z0-9_$#]*|\"[^\"\\x00]+\")";
+    QUALIFIED_SQL_NAME = Pattern.compile(simpleName + "(?:\\." + simpleName + ")*");
+  }
+
+  private final String plsql;
+
+  private final SqlParameterSource[] batchArgs;
+
+  private final String[] parameterNames;
+
+  private final String[] arrayTypeNames;
+
+  private final String rowCountsTypeName;
+
+  private final String[] keyColumnNames;
+
+  private final String[] keyArrayTypeNames;
+
+  @Nullable
+  private final KeyHolder generatedKeyHolder;
+
+  ColumnarBatchUpdate(String sql, SqlParameterSource[] batchArgs, Map<String, String> arrayTypeNames, String rowCountsTypeName) {
+    this(sql, batchArgs, arrayTypeNames, rowCountsTypeName, null, Collections.emptyMap());
+  }
+
+  ColumnarBatchUpdate(String sql, SqlParameterSource[] batchArgs, Map<String, String> arrayTypeNames, String rowCountsTypeName,
+          @Nullable KeyHolder generatedKeyHolder, Map<String, String> keyColumns) {
+    Objects.requireNonNull(sql, "sql");
+    Objects.requireNonNull(batchArgs, "batchArgs");
+    Objects.requireNonNull(arrayTypeNames, "arrayTypeNames");
+    Objects.requireNonNull(rowCountsTypeName, "rowCountsTypeName");
+    Objects.requireNonNull(keyColumns, "keyColumns");
+    this.batchArgs = batchArgs;
+    this.parameterNames = BindVariableParser.parseBindNames(sql);
+    if (this.parameterNames.length == 0) {
+      throw new IllegalArgumentException("FORALL requires at least one bind variable in: " + sql);
+    }
+    this.arrayTypeNames = new String[this.parameterNames.length];
+    for (int i = 0; i < this.parameterNames.length; i++) {
+      String arrayTypeName = arrayTypeNames.get(this.parameterNames[i]);
+      if (arrayTypeName == null) {
+        throw new IllegalArgumentException("no array type for bind variable: " + this.parameterNames[i]);
+      }
+      this.arrayTypeNames[i] = requireSqlName(arrayTypeName);
+    }
+    this.rowCountsTypeName = requireSqlName(rowCountsTypeName);
+    if (generatedKeyHolder != null && keyColumns.isEmpty()) {
+      throw new IllegalArgumentException("at least one key column is required");
+    }
+    this.generatedKeyHolder = generatedKeyHolder;
+    this.keyColumnNames = keyColumns.keySet().toArray(new String[0]);
+    this.keyArrayTypeNames = keyColumns.values().toArray(new String[0]);
+    for (int i = 0; i < this.keyColumnNames.length; i++) {
+      requireSqlName(this.keyColumnNames[i]);
+      requireSqlName(this.keyArrayTypeNames[i]);
+    }
+    this.plsql = toForall(sql, this.parameterNames, this.arrayTypeNames, rowCountsTypeName, this.keyColumnNames, this.keyArrayTypeNames);
+  }
+
+  /**
+   * Generates the PL/SQL block executing a DML statement with {@code FORALL}.
+   *
+   * @param sql the DML statement with named bind variables
+   * @param parameterNames the distinct names of the bind variables in {@code sql}
+   * @param arrayTypeNames the SQL collection types of the bind variables
+   * @param rowCountsTypeName the SQL collection type of the row counts
+   * @param keyColumnNames the names of the key columns to return, possibly empty
+   * @param keyArrayTypeNames the SQL collection types of the key columns
+   * @return the PL/SQL block with one positional parameter per bind variable,
+   *         a positional parameter for the row counts and one positional
+   *         parameter per key column
+   */
+  static String toForall(String sql, String[] parameterNames, String[] arrayTypeNames, String rowCountsTypeName,
+          String[] keyColumnNames, String[] keyArrayTypeNames) {
+    Map<String, String> variables = new HashMap<>(parameterNames.length * 2);
+    StringBuilder buffer = new StringBuilder(sql.length() + 256 + parameterNames.length * 32);
+    buffer.append("DECLARE\n");
+    for (int i = 0; i < parameterNames.length; i++) {
+      String variable = "p$" + i;
+      variables.put(parameterNames[i], variable);
+      buffer.append("  ").append(variable).append(' ').append(arrayTypeNames[i]).append(" := ?;\n");
+    }
+    buffer.append("  row_counts$ ").append(rowCountsTypeName).append(" := ").append(rowCountsTypeName).append("();\n");
+    for (int i = 0; i < keyColumnNames.length; i++) {
+      buffer.append("  k$").append(i).append(' ').append(keyArrayTypeNames[i]).append(";\n");
+    }
+    buffer.append("BEGIN\n");
+    buffer.append("  FORALL i$ IN 1 .. p$0.COUNT\n");
+    buffer.append("    ").append(BindVariableParser.replaceBindVariables(stripSemicolon(sql), name -> variables.get(name) + "(i$)"));
+    if (keyColumnNames.length > 0) {
+      buffer.append("\n    RETURNING ").append(String.join(", ", keyColumnNames)).append(" BULK COLLECT INTO ");
+      for (int i = 0; i < keyColumnNames.length; i++) {
+        if (i > 0) {
+          buffer.append(", ");
+        }
+        buffer.append("k$").append(i);
+      }
+    }
+    buffer.append(";\n");
+    buffer.append("  row_counts$.EXTEND(p$0.COUNT);\n");
+    buffer.append("  FOR i$ IN 1 .. p$0.COUNT LOOP\n");
+    buffer.append("    row_counts$(i$) := SQL%BULK_ROWCOUNT(i$);\n");
+    buffer.append("  END LOOP;\n");
+    buffer.append("  ? := row_counts$;\n");
+    for (int i = 0; i < keyColumnNames.length; i++) {
+      buffer.append("  ? := k$").append(i).append(";\n");
+    }
+    buffer.append("END;");
+    return buffer.toString();
+  }
+
+  /**
+   * Checks that a name supplied by the caller is a SQL name and can not
+   * change the generated PL/SQL. The names of the bind variables are not
+   * checked, they are parsed from the statement and replaced.
+   *
+   * @param name the name of a type or column
+   * @return {@code name}
+   * @throws IllegalArgumentException if {@code name} is not a SQL name
+   */
+  static String requireSqlName(String name) {
+    Objects.requireNonNull(name, "name");
+    if (!QUALIFIED_SQL_NAME.matcher(name).matches()) {
+      throw new IllegalArgumentException("not a SQL name: " + name);
+    }
+    return name;
+  }
+
+  private static String stripSemicolon(String sql) {
+    String trimmed = sql.trim();
+    return trimmed.endsWith(";") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+  }
+
+  @Override
+  public String getSql() {
+    return this.plsql;
+  }
+
+  @Override
+  public CallableStatement createCallableStatement(Connection connection) throws SQLException {
+    return connection.prepareCall(this.plsql);
+  }
+
+  @Override
+  public int[] doInCallableStatement(CallableStatement cs) throws SQLException {
+    OracleConnection connection = cs.getConnection().unwrap(OracleConnection.class);
+    List<Array> arrays = new ArrayList<>(this.parameterNames.length + 1 + this.keyColumnNames.length);
+    try {
+      for (int i = 0; i < this.parameterNames.length; i++) {
+        Array array = connection.createOracleArray(this.arrayTypeNames[i], this.getColumn(this.parameterNames[i]));
+        arrays.add(array);
+        cs.setArray(i + 1, array);
+      }
+      int rowCountsIndex = this.parameterNames.length + 1;
+      cs.registerOutParameter(rowCountsIndex, Types.ARRAY, this.rowCountsTypeName);
+      for (int i = 0; i < this.keyColumnNames.length; i++) {
+        cs.registerOutParameter(rowCountsIndex + 1 + i, Types.ARRAY, this.keyArrayTypeNames[i]);
+      }
+      cs.execute();
+
+      Array rowCounts = cs.getArray(rowCountsIndex);
+      arrays.add(rowCounts);
+      Object[] counts = (Object[]) rowCounts.getArray();
+      int[] result = new int[counts.length];
+      for (int i = 0; i < counts.length; i++) {
+        result[i] = ((Number) counts[i]).intValue();
+      }
+      if (this.generatedKeyHolder != null) {
+        this.readKeys(cs, rowCountsIndex + 1, arrays);
+      }
+      return result;
+    } finally {
+      StatementArrays.freeAll(arrays);
+    }
+  }
+
+  private void readKeys(CallableStatement cs, int firstKeyIndex, List<Array> arrays) throws SQLException {
+    Object[][] keyColumns = new Object[this.keyColumnNames.length][];
+    for (int i = 0; i < this.keyColumnNames.length; i++) {
+      Array keys = cs.getArray(firstKeyIndex + i);
+      arrays.add(keys);
+      keyColumns[i] = (Object[]) keys.getArray();
+    }
+    // one row per row affected, may differ from the number of rows in the batch
+    List<Map<String, Object>> keyList = this.generatedKeyHolder.getKeyList();
+    int keyCount = keyColumns[0].length;
+    for (int row = 0; row < keyCount; row++) {
+      Map<String, Object> keys = new LinkedHashMap<>(this.keyColumnNames.length * 2);
+      for (int i = 0; i < this.keyColumnNames.length; i++) {
+        keys.put(this.keyColumnNames[i], keyColumns[i][row]);
+      }
+      keyList.add(keys);
+    }
+  }
+
+  private Object[] getColumn(String parameterName) {
+    Object[] column = new Object[this.batchArgs.length];
+    for (int i = 0; i < this.batchArgs.length; i++) {
+      Object value = this.batchArgs[i].getValue(parameterName);
+      if (value instanceof SqlParameterValue) {
+        value = ((SqlParameterValue) value).getValue();
+      }
+      if (value instanceof SqlValue || value instanceof SqlTypeValue || value instanceof Collection) {
+        throw new IllegalArgumentException("only scalar values are supported in columnar batches: " + parameterName);
+      }
+      // same conversions as for binding a single value, eg. java.util.Date
+      column[i] = value != null ? BindType.convertToBindable(value) : null;
+    }
+    return column;
+  }
+
+}
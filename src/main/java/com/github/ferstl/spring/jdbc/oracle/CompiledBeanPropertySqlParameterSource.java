@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2013 by Stefan Ferstl <st.ferstl@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.util.Collection;
+import java.util.Objects;
+
+import org.springframework.jdbc.core.namedparam.AbstractSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.lang.Nullable;
+
+/**
+ * A {@link SqlParameterSource} that obtains parameter values from bean
+ * properties, like Spring's {@link BeanPropertySqlParameterSource}.
+ *
+ * <p>When used with {@link OracleNamedParameterJdbcTemplate} the bean
+ * properties are not accessed through a {@link org.springframework.beans.BeanWrapper}.
+ * Instead direct accessors for the bind variables of the statement are
+ * generated once per SQL statement and bean class and reused for every
+ * following execution.</p>
+ *
+ * <p>When used with any other class the properties are accessed through
+ * a {@link BeanPropertySqlParameterSource}.</p>
+ *
+ * <h2>OracleNamedParameterJdbcTemplate Example</h2>
+ * <pre><code> namedParameterJdbcTemplate.batchUpdate("INSERT INTO test_table(id, val) VALUES(:id, :val)",
+ *          CompiledBeanPropertySqlParameterSource.createBatch(entities));</code></pre>
+ */
+public final class CompiledBeanPropertySqlParameterSource extends AbstractSqlParameterSource {
+
+  private final Object bean;
+
+  @Nullable
+  private BeanPropertySqlParameterSource delegate;
+
+  /**
+   * Creates a new {@link CompiledBeanPropertySqlParameterSource} for the given bean.
+   *
+   * @param bean the bean instance to wrap, not {@code null}
+   */
+  public CompiledBeanPropertySqlParameterSource(Object bean) {
+    Objects.requireNonNull(bean, "bean");
+    this.bean = bean;
+  }
+
+  /**
+   * Creates an array of {@link CompiledBeanPropertySqlParameterSource} for
+   * use with {@link OracleNamedParameterJdbcTemplate#batchUpdate(String, SqlParameterSource[])}.
+   *
+   * @param beans the beans to wrap, not {@code null}
+   * @return the parameter sources, never {@code null}
+   */
+  public static SqlParameterSource[] createBatch(Collection<?> beans) {
+    SqlParameterSource[] batch = new SqlParameterSource[beans.size()];
+    int i = 0;
+    for (Object bean : beans) {
+      batch[i++] = new CompiledBeanPropertySqlParameterSource(bean);
+    }
+    return batch;
+  }
+
+  /**
+   * Returns the wrapped bean.
+   *
+   * @return the wrapped bean, never {@code null}
+   */
+  Object getBean() {
+    return this.bean;
+  }
+
+  /**
+   * Returns the SQL type registered for a parameter without taking the
+   * bean property type into account.
+   *
+   * @param paramName the name of the parameter
+   * @return the registered SQL type, {@link #TYPE_UNKNOWN} if none is registered
+   */
+  int getRegisteredSqlType(String paramName) {
+    return super.getSqlType(paramName);
+  }
+
+  private BeanPropertySqlParameterSource getDelegate() {
+    BeanPropertySqlParameterSource source = this.delegate;
+    if (source == null) {
+      source = new BeanPropertySqlParameterSource(this.bean);
+      this.delegate = source;
+    }
+    return source;
+  }
+
+  @Override
+  public boolean hasValue(String paramName) {
+    return this.getDelegate().hasValue(paramName);
+  }
+
+  @Override
+  @Nullable
+  public Object getValue(String paramName) {
+    return this.getDelegate().getValue(paramName);
+  }
+
+  @Override
+  public int getSqlType(String paramName) {
+    int sqlType = super.getSqlType(paramName);
+    if (sqlType != TYPE_UNKNOWN) {
+      return sqlType;
+    }
+    return this.getDelegate().getSqlType(paramName);
+  }
+
+  @Override
+  @Nullable
+  public String[] getParameterNames() {
+    return this.getDelegate().getParameterNames();
+  }
+
+  @Override
+  public String toString() {
+    return "CompiledBeanPropertySqlParameterSource {" + this.bean + "}";
+  }
+
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.lang.Nullable;
+
+import oracle.jdbc.OracleTypes;
+
+/**
+ * Computes the fetch size of every query from the width of its rows and a
+ * memory budget per statement.
+ *
+ * <p>A single fetch size for all queries is either too small for large
+ * reports, which then need many round trips, or too large for queries
+ * with wide rows, for which the driver allocates fetch buffers of several
+ * megabytes. The driver sizes its buffers for the declared widths of the
+ * result columns, this policy therefore describes every query once with
+ * {@link PreparedStatement#getMetaData()}, estimates the width of a row
+ * from the types and precisions of the columns and uses as many rows as
+ * fit into the budget.</p>
+ *
+ * <p>The fetch size is further reduced to one more than the largest number
+ * of rows a query has returned so far, so that queries returning few wide
+ * rows do not allocate buffers for rows they never fetch. A query
+ * returning more rows than that increases the fetch size again up to the
+ * budget. Row counts are only known for queries mapping the rows to a
+ * list, eg. with
+ * {@link OracleNamedParameterJdbcTemplate#query(String, org.springframework.jdbc.core.namedparam.SqlParameterSource, org.springframework.jdbc.core.RowMapper)}
+ * or {@link OracleNamedParameterJdbcTemplate#queryByKeys(String, java.util.Map, String, String, java.util.Collection, org.springframework.jdbc.core.RowMapper)},
+ * which records the rows of every chunk.</p>
+ *
+ * <p>Only statements starting with {@code SELECT} or {@code WITH} are
+ * considered queries. Column defines of a {@link ColumnDefineCache} are
+ * not taken into account, the declared widths are used. A template using
+ * both describes a query only once for both of them.</p>
+ *
+ * <h2>Example</h2>
+ * <pre><code> // 1 MB per statement, at least 10 and at most 5000 rows
+ * template.setFetchSizePolicy(new FetchSizePolicy(1024 * 1024, 10, 5000));
+ * </code></pre>
+ *
+ * @see OracleNamedParameterJdbcTemplate#setFetchSizePolicy(FetchSizePolicy)
+ */
+public final class FetchSizePolicy {
+
+  /**
+   * The default fetch size of ojdbc.
+   */
+  static final int DEFAULT_MIN_FETCH_SIZE = 10;
+
+  static final int DEFAULT_MAX_FETCH_SIZE = 10_000;
+
+  /**
+   * The estimated width of number columns, the maximum length of an Oracle number.
+   */
+  private static final int NUMBER_WIDTH = 22;
+
+  /**
+   * The estimated width of date, timestamp and interval columns.
+   */
+  private static final int TEMPORAL_WIDTH = 13;
+
+  /**
+   * The estimated width of LOB columns, the default LOB prefetch size of ojdbc.
+   */
+  private static final int LOB_WIDTH = 32 * 1024;
+
+  /**
+   * The estimated width of columns without a known width.
+   */
+  private static final int UNKNOWN_WIDTH = 4000;
+
+  private final long bytesPerStatement;
+
+  private final int minFetchSize;
+
+  private final int maxFetchSize;
+
+  private final BoundedConcurrentCache<String, QueryFetchSize> fetchSizes;
+
+  /**
+   * Creates a new policy with a fetch size of at least 10, the default of
+   * ojdbc, and at most 10000 rows.
+   *
+   * @param bytesPerStatement the memory budget for the fetch buffers of a statement
+   */
+  public FetchSizePolicy(long bytesPerStatement) {
+    this(bytesPerStatement, DEFAULT_MIN_FETCH_SIZE, DEFAULT_MAX_FETCH_SIZE);
+  }
+
+  /**
+   * Creates a new policy.
+   *
+   * @param bytesPerStatement the memory budget for the fetch buffers of a statement
+   * @param minFetchSize the minimum fetch size, used even if the rows do
+   *        not fit into the budget
+   * @param maxFetchSize the maximum fetch size, used even if more rows fit
+   *        into the budget
+   */
+  public FetchSizePolicy(long bytesPerStatement, int minFetchSize, int maxFetchSize) {
+    if (bytesPerStatement <= 0L) {
+      throw new IllegalArgumentException("bytesPerStatement must be positive");
+    }
+    if (minFetchSize <= 0) {
+      throw new IllegalArgumentException("minFetchSize must be positive");
+    }
+    if (maxFetchSize < minFetchSize) {
+      throw new IllegalArgumentException("maxFetchSize must not be smaller than minFetchSize");
+    }
+    this.bytesPerStatement = bytesPerStatement;
+    this.minFetchSize = minFetchSize;
+    this.maxFetchSize = maxFetchSize;
+    this.fetchSizes = new BoundedConcurrentCache<>(NamedParameterJdbcTemplate.DEFAULT_CACHE_LIMIT);
+  }
+
+  /**
+   * Sets the maximum number of queries whose fetch sizes are cached.
+   *
+   * @param cacheLimit the maximum number of queries, {@code 0} to disable caching
+   */
+  public void setCacheLimit(int cacheLimit) {
+    this.fetchSizes.setLimit(cacheLimit);
+  }
+
+  /**
+   * Removes all cached fetch sizes and row counts, queries will be
+   * described again.
+   */
+  public void clear() {
+    this.fetchSizes.clear();
+  }
+
+  /**
+   * Sets the fetch size of a statement before it is executed, does nothing
+   * if the statement is not a query.
+   *
+   * @param sql the SQL of the statement
+   * @param statement the statement to set the fetch size of
+   * @throws SQLException if describing the statement or setting the fetch size fails
+   */
+  void applyFetchSize(String sql, PreparedStatement statement) throws SQLException {
+    this.applyFetchSize(sql, statement, new StatementDescription(statement));
+  }
+
+  /**
+   * Sets the fetch size of a statement before it is executed, does nothing
+   * if the statement is not a query.
+   *
+   * @param sql the SQL of the statement
+   * @param statement the statement to set the fetch size of
+   * @param description the description of the statement, shared with
+   *        a {@link ColumnDefineCache}
+   * @throws SQLException if describing the statement or setting the fetch size fails
+   */
+  void applyFetchSize(String sql, PreparedStatement statement, StatementDescription description) throws SQLException {
+    if (!ColumnDefineCache.isQuery(sql)) {
+      return;
+    }
+    QueryFetchSize fetchSize = this.fetchSizes.getIfPresent(sql);
+    if (fetchSize == null) {
+      fetchSize = new QueryFetchSize(this.computeFetchSize(description.getMetaData()));
+      this.fetchSizes.putIfAbsent(sql, fetchSize);
+    }
+    statement.setFetchSize(fetchSize.getFetchSize(this.minFetchSize));
+  }
+
+  /**
+   * Records the number of rows a query returned.
+   *
+   * @param sql the SQL of the query
+   * @param rowCount the number of rows the query returned
+   */
+  void recordRowCount(String sql, int rowCount) {
+    QueryFetchSize fetchSize = this.fetchSizes.getIfPresent(sql);
+    if (fetchSize != null) {
+      fetchSize.recordRowCount(rowCount);
+    }
+  }
+
+  /**
+   * Computes the fetch size from the memory budget.
+   *
+   * @param metaData the result columns of the query, possibly {@code null}
+   * @return the number of rows that fit into the budget, between the
+   *         minimum and the maximum fetch size
+   * @throws SQLException if accessing the meta data fails
+   */
+  int computeFetchSize(@Nullable ResultSetMetaData metaData) throws SQLException {
+    if (metaData == null || metaData.getColumnCount() == 0) {
+      return this.minFetchSize;
+    }
+    long rowWidth = 0L;
+    for (int column = 1; column <= metaData.getColumnCount(); column++) {
+      rowWidth += getColumnWidth(metaData.getColumnType(column), metaData.getPrecision(column));
+    }
+    long rows = this.bytesPerStatement / Math.max(rowWidth, 1L);
+    return (int) Math.max(this.minFetchSize, Math.min(this.maxFetchSize, rows));
+  }
+
+  /**
+   * Estimates the width of the fetch buffer of a single value of a column.
+   *
+   * @param type the SQL type of the column
+   * @param precision the declared length of the column, {@code 0} if not known
+   * @return the estimated width in bytes
+   */
+  static int getColumnWidth(int type, int precision) {
+    switch (type) {
+      case Types.CHAR:
+      case Types.VARCHAR:
+      case Types.NCHAR:
+      case Types.NVARCHAR:
+        // Java characters
+        return (precision > 0 ? precision : UNKNOWN_WIDTH) * 2;
+      case Types.BINARY:
+      case Types.VARBINARY:
+        return precision > 0 ? precision : UNKNOWN_WIDTH;
+      case Types.NUMERIC:
+      case Types.DECIMAL:
+      case Types.INTEGER:
+      case Types.BIGINT:
+      case Types.SMALLINT:
+      case Types.TINYINT:
+      case Types.FLOAT:
+      case Types.REAL:
+      case Types.DOUBLE:
+        return NUMBER_WIDTH;
+      case OracleTypes.BINARY_FLOAT:
+        return Float.BYTES;
+      case OracleTypes.BINARY_DOUBLE:
+        return Double.BYTES;
+      case Types.DATE:
+      case Types.TIME:
+      case Types.TIMESTAMP:
+      case Types.TIMESTAMP_WITH_TIMEZONE:
+      case OracleTypes.TIMESTAMPTZ:
+      case OracleTypes.TIMESTAMPLTZ:
+      case OracleTypes.INTERVALYM:
+      case OracleTypes.INTERVALDS:
+        return TEMPORAL_WIDTH;
+      case Types.CLOB:
+      case Types.NCLOB:
+      case Types.BLOB:
+        return LOB_WIDTH;
+      default:
+        return UNKNOWN_WIDTH;
+    }
+  }
+
+  /**
+   * The fetch size of a single query.
+   */
+  static final class QueryFetchSize {
+
+    /**
+     * Marker for no row count having been recorded.
+     */
+    private static final int UNKNOWN = -1;
+
+    /**
+     * The fetch size computed from the memory budget.
+     */
+    private final int budgetFetchSize;
+
+    /**
+     * The largest number of rows the query has returned.
+     */
+    private final AtomicInteger maxRowCount;
+
+    QueryFetchSize(int budgetFetchSize) {
+      this.budgetFetchSize = budgetFetchSize;
+      this.maxRowCount = new AtomicInteger(UNKNOWN);
+    }
+
+    int getFetchSize(int minFetchSize) {
+      int rowCount = this.maxRowCount.get();
+      if (rowCount == UNKNOWN) {
+        return this.budgetFetchSize;
+      }
+      // one more row so that the end of the result is detected in the same round trip
+      long fetchSize = Math.min((long) rowCount + 1L, this.budgetFetchSize);
+      return (int) Math.max(minFetchSize, fetchSize);
+    }
+
+    void recordRowCount(int rowCount) {
+      this.maxRowCount.accumulateAndGet(rowCount, Math::max);
+    }
+
+  }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2013 by Stefan Ferstl <st.ferstl@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.sql.Types;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+/**
+ * Remembers the SQL types of the bind variables of a single SQL statement.
+ *
+ * <p>Binding {@code null} with {@link Types#NULL} and later the same bind
+ * variable with a {@code VARCHAR} or a {@code NUMBER} is a bind mismatch for
+ * Oracle and results in a new child cursor. To avoid this the SQL type of
+ * the last non-{@code null} value of a bind variable is remembered and used
+ * for binding {@code null} values without a declared SQL type.</p>
+ *
+ * <p>Lookups never lock and a type is only written when it changes. As the
+ * number of bind variables of a statement is fixed no bound is needed.</p>
+ */
+final class NullBindTypes {
+
+  private final ConcurrentMap<String, Integer> sqlTypes;
+
+  NullBindTypes() {
+    this.sqlTypes = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Creates a new instance with initial types.
+   *
+   * @param sqlTypes the SQL types of the bind variables, not {@code null}
+   */
+  NullBindTypes(Map<String, Integer> sqlTypes) {
+    this();
+    for (Map.Entry<String, Integer> entry : sqlTypes.entrySet()) {
+      this.setSqlType(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Returns the SQL type to use for binding {@code null}.
+   *
+   * @param bindName the name of the bind variable
+   * @return the SQL type, {@link Types#NULL} if not known
+   */
+  int getSqlType(String bindName) {
+    Integer sqlType = this.sqlTypes.get(bindName);
+    return sqlType != null ? sqlType : Types.NULL;
+  }
+
+  /**
+   * Remembers the SQL type of a non-{@code null} value.
+   *
+   * @param bindName the name of the bind variable
+   * @param value the bound value, not {@code null}
+   * @param sqlType the declared SQL type, possibly {@link SqlParameterSource#TYPE_UNKNOWN}
+   * @param bindType the bind type of the value
+   */
+  void learn(String bindName, Object value, int sqlType, BindType bindType) {
+    int nullType;
+    if (sqlType != SqlParameterSource.TYPE_UNKNOWN) {
+      nullType = needsTypeName(sqlType) ? SqlParameterSource.TYPE_UNKNOWN : sqlType;
+    } else {
+      nullType = bindType.getNullType();
+      if (nullType == SqlParameterSource.TYPE_UNKNOWN && bindType == BindType.OBJECT) {
+        nullType = StatementCreatorUtils.javaTypeToSqlParameterType(value.getClass());
+      }
+    }
+    if (nullType != SqlParameterSource.TYPE_UNKNOWN) {
+      Integer current = this.sqlTypes.get(bindName);
+      if (current == null || current != nullType) {
+        this.sqlTypes.put(bindName, nullType);
+      }
+    }
+  }
+
+  /**
+   * Sets the SQL type of a bind variable.
+   *
+   * @param bindName the name of the bind variable, not {@code null}
+   * @param sqlType the SQL type
+   */
+  void setSqlType(String bindName, int sqlType) {
+    Objects.requireNonNull(bindName, "bindName");
+    if (sqlType == SqlParameterSource.TYPE_UNKNOWN || needsTypeName(sqlType)) {
+      throw new IllegalArgumentException("unsupported SQL type for null: " + sqlType + " of: " + bindName);
+    }
+    this.sqlTypes.put(bindName, sqlType);
+  }
+
+  private static boolean needsTypeName(int sqlType) {
+    // binding null for these types needs the name of the user defined type
+    return sqlType == Types.ARRAY || sqlType == Types.STRUCT || sqlType == Types.REF
+            || sqlType == Types.DISTINCT || sqlType == Types.JAVA_OBJECT;
+  }
+
+}
@@ -15,26 +15,53 @@
  */
 package com.github.ferstl.spring.jdbc.oracle;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import javax.sql.DataSource;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.ParameterDisposer;
+import org.springframework.jdbc.core.PreparedStatementCallback;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SqlProvider;
 import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.ParsedSql;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.support.SqlValue;
 import org.springframework.lang.Nullable;
+import org.springframework.util.ReflectionUtils;
+
+import com.github.ferstl.spring.jdbc.oracle.BeanPropertyBinder.Key;
+import com.github.ferstl.spring.jdbc.oracle.CachedPreparedStatementCreator.CachedPreparedStatement;
+
 import oracle.jdbc.OraclePreparedStatement;
 
 /**
@@ -44,13 +71,72 @@ import oracle.jdbc.OraclePreparedStatement;
  * <ul>
  * <li>does not support {@link SqlValue}, instead {@link NamedSqlValue} has to be used</li>
  * <li>does not support collections, instead arrays with a {@link SqlOracleArrayValue}
- * or similar have to be used</li>
+ * or similar have to be used, unless their element types are registered with
+ * {@link #setCollectionTypes(CollectionTypeRegistry)}</li>
  * <li>does not support {@link SqlTypeValue}</li>
  * <li>does not support binding {@link java.util.Calendar}</li>
  * </ul>
+ * <h3>Bean Properties</h3>
+ * <p>Parameters from a {@link CompiledBeanPropertySqlParameterSource} are bound
+ * through accessors that are generated once per SQL statement and bean class.
+ * The number of cached accessors is limited by {@link #setCacheLimit(int)}.</p>
+ * <h3>Null Values</h3>
+ * <p>{@code null} values without a declared SQL type are bound with the SQL
+ * type of the last non-{@code null} value bound to the same bind variable of
+ * the same SQL statement. This avoids Oracle creating new child cursors
+ * because of bind mismatches. Types can be provided upfront with
+ * {@link #setNullTypes(Map)}, the number of remembered statements is limited
+ * by {@link #setCacheLimit(int)}.</p>
+ * <h3>Explicit Statement Caching</h3>
+ * <p>When a function mapping SQL statements to cache keys is set with
+ * {@link #setStatementCacheKeyFunction(Function)} statements are taken from and
+ * returned to the OJDBC explicit statement cache like with
+ * {@link CachedPreparedStatementCreator}.</p>
+ * <h3>Column Defines</h3>
+ * <p>When a {@link ColumnDefineCache} is set with
+ * {@link #setColumnDefineCache(ColumnDefineCache)} the result columns of
+ * queries are defined before execution.</p>
+ * <h3>Fetch Size</h3>
+ * <p>When a {@link FetchSizePolicy} is set with
+ * {@link #setFetchSizePolicy(FetchSizePolicy)} the fetch size of every
+ * query is computed from the width of its rows and adapted to the number
+ * of rows returned by {@link #query(String, SqlParameterSource, RowMapper)}
+ * and by every chunk of
+ * {@link #queryByKeys(String, Map, String, String, Collection, RowMapper)}.</p>
+ * <h3>Array Lookups</h3>
+ * <p>{@link #queryByKeys(String, Map, String, String, Collection, RowMapper)}
+ * removes duplicate keys, optionally sorts them and splits them into chunks
+ * of {@link #setArrayLookupChunkSize(int)} keys, each bound as one
+ * {@link SqlOracleArrayValue}. The chunks can be queried in parallel with
+ * {@link #setArrayLookupExecutor(Executor)}.</p>
  */
 public final class OracleNamedParameterJdbcTemplate extends NamedParameterJdbcTemplate {
 
+  private final BoundedConcurrentCache<Key, BeanPropertyBinder> beanPropertyBinders = new BoundedConcurrentCache<>(DEFAULT_CACHE_LIMIT);
+
+  private final BoundedConcurrentCache<String, NullBindTypes> nullBindTypes = new BoundedConcurrentCache<>(DEFAULT_CACHE_LIMIT);
+
+  @Nullable
+  private Function<String, String> statementCacheKeyFunction;
+
+  private StatementCacheMetrics statementCacheMetrics = StatementCacheMetrics.NONE;
+
+  @Nullable
+  private ColumnDefineCache columnDefineCache;
+
+  @Nullable
+  private FetchSizePolicy fetchSizePolicy;
+
+  @Nullable
+  private CollectionTypeRegistry collectionTypes;
+
+  private int arrayLookupChunkSize;
+
+  private boolean arrayLookupSortKeys;
+
+  @Nullable
+  private Executor arrayLookupExecutor;
+
   /**
    * Create a new NamedParameterJdbcTemplate for the given {@link DataSource}.
    * <p>Creates a classic Spring {@link org.springframework.jdbc.core.JdbcTemplate} and wraps it.
@@ -71,29 +157,434 @@ public final class OracleNamedParameterJdbcTemplate extends NamedParameterJdbcTe
     super(classicJdbcTemplate);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Also limits the number of cached bean property accessors and the
+   * number of statements for which the types of {@code null} values are
+   * remembered.</p>
+   */
+  @Override
+  public void setCacheLimit(int cacheLimit) {
+    super.setCacheLimit(cacheLimit);
+    this.beanPropertyBinders.setLimit(cacheLimit);
+    this.nullBindTypes.setLimit(cacheLimit);
+  }
+
+  /**
+   * Sets the SQL types to use for binding {@code null} values without a
+   * declared SQL type until a non-{@code null} value has been bound.
+   *
+   * <p>Types for statements that are evicted because of
+   * {@link #setCacheLimit(int)} are lost.</p>
+   *
+   * @param nullTypes the SQL types from {@link Types} by bind variable name by SQL statement
+   */
+  public void setNullTypes(Map<String, Map<String, Integer>> nullTypes) {
+    Objects.requireNonNull(nullTypes, "nullTypes");
+    for (Map.Entry<String, Map<String, Integer>> entry : nullTypes.entrySet()) {
+      this.nullBindTypes.put(entry.getKey(), new NullBindTypes(entry.getValue()));
+    }
+  }
+
+  private NullBindTypes getNullBindTypes(String sql) {
+    return this.nullBindTypes.get(sql, key -> new NullBindTypes());
+  }
+
+  /**
+   * Sets the SQL collection types used to bind {@link Collection} values as
+   * Oracle arrays.
+   *
+   * @param collectionTypes the collection types by element type,
+   *        {@code null} to reject {@link Collection} values
+   */
+  public void setCollectionTypes(@Nullable CollectionTypeRegistry collectionTypes) {
+    this.collectionTypes = collectionTypes;
+  }
+
+  /**
+   * Sets the maximum number of keys bound in a single array by
+   * {@link #queryByKeys(String, Map, String, String, Collection, RowMapper)}.
+   *
+   * <p>Very large arrays can make the optimizer choose a bad plan or the
+   * {@code TABLE()} join spill to disk.</p>
+   *
+   * @param arrayLookupChunkSize the maximum number of keys per query,
+   *        {@code 0} to bind all keys in a single array, the default
+   */
+  public void setArrayLookupChunkSize(int arrayLookupChunkSize) {
+    if (arrayLookupChunkSize < 0) {
+      throw new IllegalArgumentException("arrayLookupChunkSize must not be negative");
+    }
+    this.arrayLookupChunkSize = arrayLookupChunkSize;
+  }
+
+  /**
+   * Sets whether {@link #queryByKeys(String, Map, String, String, Collection, RowMapper)}
+   * sorts the keys in their natural order before binding them.
+   *
+   * <p>Sorted keys improve the locality of index range scans and, if the
+   * query orders by the key, the merged result is ordered as well. The keys
+   * have to be {@link Comparable}.</p>
+   *
+   * @param arrayLookupSortKeys whether to sort the keys, {@code false} by default
+   */
+  public void setArrayLookupSortKeys(boolean arrayLookupSortKeys) {
+    this.arrayLookupSortKeys = arrayLookupSortKeys;
+  }
+
+  /**
+   * Sets the executor on which {@link #queryByKeys(String, Map, String, String, Collection, RowMapper)}
+   * queries the chunks of keys in parallel.
+   *
+   * <p>Every chunk is queried on its own connection so the chunks do not
+   * take part in the transaction of the calling thread.</p>
+   *
+   * @param arrayLookupExecutor the executor,
+   *        {@code null} to query the chunks one after the other on the calling thread, the default
+   */
+  public void setArrayLookupExecutor(@Nullable Executor arrayLookupExecutor) {
+    this.arrayLookupExecutor = arrayLookupExecutor;
+  }
+
+  /**
+   * Queries the rows for a collection of keys bound as Oracle arrays.
+   *
+   * <p>{@code null} and duplicate keys are removed. The keys are split into
+   * chunks of at most {@link #setArrayLookupChunkSize(int)} keys, one query
+   * is executed for every chunk and the results are appended in chunk order.</p>
+   *
+   * <pre><code> List&lt;String&gt; values = template.queryByKeys(
+   *     "SELECT val FROM some_table WHERE id IN (SELECT column_value FROM TABLE(:ids)) ORDER BY id",
+   *     Collections.emptyMap(), "ids", "NUMBER_TABLE", ids, (rs, i) -&gt; rs.getString(1));
+   * </code></pre>
+   *
+   * @param <T> the result type
+   * @param sql the SQL query selecting the rows for the keys in the array bind variable
+   * @param paramMap the values of the other bind variables
+   * @param keysParameterName the name of the bind variable of the keys
+   * @param typeName the name of the SQL collection type of the keys
+   * @param keys the keys to look up
+   * @param rowMapper the object that will map one object per row
+   * @return the merged result of all chunks, empty without querying if there are no keys
+   * @throws org.springframework.dao.DataAccessException if the query fails
+   * @see #setArrayLookupChunkSize(int)
+   * @see #setArrayLookupSortKeys(boolean)
+   * @see #setArrayLookupExecutor(Executor)
+   */
+  public <T> List<T> queryByKeys(String sql, Map<String, ?> paramMap, String keysParameterName, String typeName,
+          Collection<?> keys, RowMapper<T> rowMapper) {
+    Objects.requireNonNull(paramMap, "paramMap");
+    Objects.requireNonNull(keysParameterName, "keysParameterName");
+    Objects.requireNonNull(typeName, "typeName");
+    Objects.requireNonNull(keys, "keys");
+    Objects.requireNonNull(rowMapper, "rowMapper");
+    Object[][] chunks = ArrayLookup.chunk(ArrayLookup.prepareKeys(keys, this.arrayLookupSortKeys), this.arrayLookupChunkSize);
+    Executor executor = this.arrayLookupExecutor;
+    if (executor == null || chunks.length < 2) {
+      List<T> result = new ArrayList<>();
+      for (Object[] chunk : chunks) {
+        // append to the result while reading instead of merging chunk results
+        Integer rowCount = this.query(sql, getArrayLookupParameters(paramMap, keysParameterName, typeName, chunk), (ResultSetExtractor<Integer>) rs -> {
+          int rowNum = 0;
+          while (rs.next()) {
+            result.add(rowMapper.mapRow(rs, rowNum++));
+          }
+          return rowNum;
+        });
+        this.recordRowCount(sql, rowCount != null ? rowCount : 0);
+      }
+      return result;
+    }
+
+    List<CompletableFuture<List<T>>> futures = new ArrayList<>(chunks.length);
+    for (Object[] chunk : chunks) {
+      SqlParameterSource chunkParameters = getArrayLookupParameters(paramMap, keysParameterName, typeName, chunk);
+      futures.add(CompletableFuture.supplyAsync(() -> this.query(sql, chunkParameters, rowMapper), executor));
+    }
+    List<List<T>> chunkResults = new ArrayList<>(chunks.length);
+    int size = 0;
+    for (CompletableFuture<List<T>> future : futures) {
+      List<T> chunkResult = join(future);
+      chunkResults.add(chunkResult);
+      size += chunkResult.size();
+    }
+    List<T> result = new ArrayList<>(size);
+    for (List<T> chunkResult : chunkResults) {
+      result.addAll(chunkResult);
+    }
+    return result;
+  }
+
+  private static SqlParameterSource getArrayLookupParameters(Map<String, ?> paramMap, String keysParameterName, String typeName, Object[] keys) {
+    return new MapSqlParameterSource(paramMap).addValue(keysParameterName, new SqlOracleArrayValue(typeName, keys));
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Records the number of rows with the {@link FetchSizePolicy}, if set.</p>
+   */
+  @Override
+  public <T> List<T> query(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper) {
+    return this.query(this.getPreparedStatementCreator(sql, paramSource), sql, rowMapper);
+  }
+
+  /**
+   * Executes a query with a statement creator of this template and records
+   * the number of rows with the {@link FetchSizePolicy}, if set.
+   *
+   * @param <T> the type of the mapped rows
+   * @param statementCreator the statement creator, created by this template for {@code sql}
+   * @param sql the SQL query the statement creator was created for
+   * @param rowMapper maps every row
+   * @return the mapped rows
+   */
+  <T> List<T> query(PreparedStatementCreator statementCreator, String sql, RowMapper<T> rowMapper) {
+    List<T> result = this.getJdbcOperations().query(statementCreator, rowMapper);
+    this.recordRowCount(sql, result.size());
+    return result;
+  }
+
+  private void recordRowCount(String sql, int rowCount) {
+    FetchSizePolicy policy = this.fetchSizePolicy;
+    if (policy != null) {
+      policy.recordRowCount(sql, rowCount);
+    }
+  }
+
+  /**
+   * Sets the function that determines the explicit statement cache key of a
+   * SQL statement.
+   *
+   * <p>Make sure you
+   * <a href="https://docs.oracle.com/en/database/oracle/oracle-database/18/jjdbc/statement-and-resultset-caching.html#GUID-3E425401-A7F0-49FA-A057-01DB6ECCFFC9">enable explicit statement caching</a>
+   * .</p>
+   *
+   * <p>Statements returning generated keys are cached under a key derived
+   * from the returned key and the generated key columns.</p>
+   *
+   * @param statementCacheKeyFunction the function returning the unique cache key of a SQL
+   *        statement or {@code null} if the statement should not be cached,
+   *        {@code null} to not use explicit statement caching
+   * @see CachedPreparedStatementCreator
+   */
+  public void setStatementCacheKeyFunction(@Nullable Function<String, String> statementCacheKeyFunction) {
+    this.statementCacheKeyFunction = statementCacheKeyFunction;
+  }
+
+  /**
+   * Sets the metrics to which explicit statement cache hits, misses and
+   * closes are recorded.
+   *
+   * @param statementCacheMetrics the metrics, not {@code null}
+   * @see StatementCacheStatistics
+   */
+  public void setStatementCacheMetrics(StatementCacheMetrics statementCacheMetrics) {
+    Objects.requireNonNull(statementCacheMetrics, "statementCacheMetrics");
+    this.statementCacheMetrics = statementCacheMetrics;
+  }
+
+  /**
+   * Sets the cache of the result columns of queries. Queries are described
+   * once and their result columns are defined before execution.
+   *
+   * @param columnDefineCache the cache of the result columns,
+   *        {@code null} to not define the result columns
+   * @see ColumnDefineCache
+   */
+  public void setColumnDefineCache(@Nullable ColumnDefineCache columnDefineCache) {
+    this.columnDefineCache = columnDefineCache;
+  }
+
+  /**
+   * Sets the policy computing the fetch size of every query from the
+   * width of its rows.
+   *
+   * <p>Only takes effect if no fetch size is set on the
+   * {@link org.springframework.jdbc.core.JdbcTemplate}, otherwise the fetch
+   * size of the {@link org.springframework.jdbc.core.JdbcTemplate} overrides
+   * it.</p>
+   *
+   * @param fetchSizePolicy the fetch size policy,
+   *        {@code null} to use the fetch size of the driver
+   * @see FetchSizePolicy
+   */
+  public void setFetchSizePolicy(@Nullable FetchSizePolicy fetchSizePolicy) {
+    this.fetchSizePolicy = fetchSizePolicy;
+  }
+
+  @Nullable
+  private String getStatementCacheKey(String sql) {
+    Function<String, String> keyFunction = this.statementCacheKeyFunction;
+    return keyFunction != null ? keyFunction.apply(sql) : null;
+  }
+
   @Override
   public int update(String sql, SqlParameterSource parameterSource, KeyHolder generatedKeyHolder, @Nullable String[] keyColumnNames) {
-    boolean returnGeneratedKeys = keyColumnNames != null;
-    return getJdbcOperations().update(new NamedPreparedStatementCreator(sql, parameterSource, returnGeneratedKeys, keyColumnNames), generatedKeyHolder);
+    // like NamedParameterJdbcTemplate generated keys are always returned, without column names the ROWID
+    return getJdbcOperations().update(new NamedPreparedStatementCreator(sql, parameterSource, this.beanPropertyBinders, this.getNullBindTypes(sql), this.collectionTypes,
+            this.getStatementCacheKey(sql), this.statementCacheMetrics, true, keyColumnNames), generatedKeyHolder);
   }
 
   @Override
   public int[] batchUpdate(String sql, SqlParameterSource[] batchArgs) {
+    NamedBatchPreparedStatementSetter setter = new NamedBatchPreparedStatementSetter(sql, batchArgs, this.beanPropertyBinders, this.getNullBindTypes(sql),
+            this.collectionTypes);
+    String cacheKey = this.getStatementCacheKey(sql);
+    if (cacheKey == null) {
+      return getJdbcOperations().batchUpdate(sql, setter);
+    }
+    // JdbcOperations has no batchUpdate method taking a PreparedStatementCreator
+    return getJdbcOperations().execute(new CachedBatchStatementCreator(cacheKey, sql, this.statementCacheMetrics), new BatchStatementCallback(setter));
+  }
+
+  /**
+   * Executes a batch of unbounded size in chunks.
+   *
+   * <p>Unlike {@link #batchUpdate(String, SqlParameterSource[])} only one
+   * chunk of parameter sources is held in memory at a time, each chunk is
+   * executed with {@link PreparedStatement#executeLargeBatch()} before the
+   * next one is read. All chunks are executed on the same statement.</p>
+   *
+   * @param sql the SQL statement to execute
+   * @param batchArgs the parameter sources of all rows, consumed while executing
+   * @param chunkSize the number of rows bound before the batch is executed
+   * @param chunkCallback called with the row counts of every executed chunk,
+   *        {@code null} if only the total is needed
+   * @return the total number of rows affected, rows reported as
+   *         {@link java.sql.Statement#SUCCESS_NO_INFO} are not included
+   * @throws org.springframework.dao.DataAccessException if there is any problem executing the batch
+   */
+  public long batchUpdate(String sql, Iterator<? extends SqlParameterSource> batchArgs, int chunkSize,
+          @Nullable Consumer<long[]> chunkCallback) {
+    Objects.requireNonNull(batchArgs, "batchArgs");
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize must be positive");
+    }
+    if (!batchArgs.hasNext()) {
+      return 0L;
+    }
+    ChunkedBatchStatementCallback callback = new ChunkedBatchStatementCallback(sql, batchArgs, chunkSize, chunkCallback,
+            this.beanPropertyBinders, this.getNullBindTypes(sql), this.collectionTypes);
+    String cacheKey = this.getStatementCacheKey(sql);
+    Long total;
+    if (cacheKey == null) {
+      total = getJdbcOperations().execute(sql, callback);
+    } else {
+      total = getJdbcOperations().execute(new CachedBatchStatementCreator(cacheKey, sql, this.statementCacheMetrics), callback);
+    }
+    return total != null ? total : 0L;
+  }
 
-    return getJdbcOperations().batchUpdate(sql, new BatchPreparedStatementSetter() {
+  /**
+   * Executes a batch of unbounded size in chunks.
+   *
+   * @param sql the SQL statement to execute
+   * @param batchArgs the parameter sources of all rows, consumed while executing
+   * @param chunkSize the number of rows bound before the batch is executed
+   * @param chunkCallback called with the row counts of every executed chunk,
+   *        {@code null} if only the total is needed
+   * @return the total number of rows affected, rows reported as
+   *         {@link java.sql.Statement#SUCCESS_NO_INFO} are not included
+   * @throws org.springframework.dao.DataAccessException if there is any problem executing the batch
+   * @see #batchUpdate(String, Iterator, int, Consumer)
+   */
+  public long batchUpdate(String sql, Stream<? extends SqlParameterSource> batchArgs, int chunkSize,
+          @Nullable Consumer<long[]> chunkCallback) {
+    Objects.requireNonNull(batchArgs, "batchArgs");
+    return this.batchUpdate(sql, batchArgs.iterator(), chunkSize, chunkCallback);
+  }
 
-      @Override
-      public void setValues(PreparedStatement ps, int i) throws SQLException {
-        SqlParameterSource parameterSource = batchArgs[i];
-        NamedPreparedStatementCreator satementSetter = new NamedPreparedStatementCreator(sql, parameterSource);
-        satementSetter.setValues(ps);
-      }
+  /**
+   * Executes a DML statement for a batch of parameter sources with a single
+   * PL/SQL {@code FORALL} statement instead of a JDBC batch.
+   *
+   * <p>The values of every bind variable of all rows are bound as a single
+   * Oracle array. For large batches this is much cheaper than binding every
+   * value of every row. Only values that ojdbc can store in an array are
+   * supported, not {@link SqlValue}s or collections. The whole batch is
+   * sent in one roundtrip so the arrays of very large batches have to fit
+   * into memory both on the client and in the PGA of the server session.</p>
+   *
+   * <pre><code> Map&lt;String, String&gt; arrayTypeNames = new HashMap&lt;&gt;();
+   * arrayTypeNames.put("val", "VARCHAR_TABLE");
+   * arrayTypeNames.put("id", "NUMBER_TABLE");
+   * int[] rowCounts = template.batchUpdateColumnar("UPDATE t SET val = :val WHERE id = :id", batchArgs,
+   *     arrayTypeNames, "NUMBER_TABLE");
+   * </code></pre>
+   *
+   * @param sql the DML statement with named bind variables, not a query
+   * @param batchArgs the values for the bind variables of every row
+   * @param arrayTypeNames the names of the SQL collection types for the values
+   *        of every bind variable by bind variable name
+   * @param rowCountsTypeName the name of a SQL collection type of {@code NUMBER}
+   *        used to return the row counts
+   * @return the number of rows affected by every row of the batch
+   * @throws org.springframework.dao.DataAccessException if there is any problem executing the batch
+   * @throws IllegalArgumentException if the statement has no bind variables,
+   *         there is no collection type for a bind variable or a type name is not a SQL name
+   */
+  public int[] batchUpdateColumnar(String sql, SqlParameterSource[] batchArgs, Map<String, String> arrayTypeNames, String rowCountsTypeName) {
+    if (batchArgs.length == 0) {
+      return new int[0];
+    }
+    ColumnarBatchUpdate update = new ColumnarBatchUpdate(sql, batchArgs, arrayTypeNames, rowCountsTypeName);
+    return getJdbcOperations().execute(update, update);
+  }
 
-      @Override
-      public int getBatchSize() {
-        return batchArgs.length;
-      }
-    });
+  /**
+   * Executes a DML statement for a batch of parameter sources with a single
+   * PL/SQL {@code FORALL} statement and returns the values of key columns
+   * of all affected rows with {@code RETURNING ... BULK COLLECT INTO}.
+   *
+   * <p>Unlike {@link #update(String, SqlParameterSource, KeyHolder, String[])}
+   * this returns the keys of all rows of the batch in a single roundtrip.
+   * ojdbc does not support returning generated keys from JDBC batches.</p>
+   *
+   * <pre><code> KeyHolder keyHolder = new GeneratedKeyHolder();
+   * template.batchUpdateColumnar("INSERT INTO t(id, val) VALUES(t_seq.nextval, :val)", batchArgs,
+   *     Collections.singletonMap("val", "VARCHAR_TABLE"), "NUMBER_TABLE",
+   *     keyHolder, Collections.singletonMap("id", "NUMBER_TABLE"));
+   * List&lt;Map&lt;String, Object&gt;&gt; keys = keyHolder.getKeyList();
+   * </code></pre>
+   *
+   * @param sql the DML statement with named bind variables without a {@code RETURNING} clause
+   * @param batchArgs the values for the bind variables of every row
+   * @param arrayTypeNames the names of the SQL collection types for the values
+   *        of every bind variable by bind variable name
+   * @param rowCountsTypeName the name of a SQL collection type of {@code NUMBER}
+   *        used to return the row counts
+   * @param generatedKeyHolder the key holder to which one map per affected row is added
+   * @param keyColumns the names of the SQL collection types used to return the
+   *        key columns by key column name, in the order of the returned columns
+   * @return the number of rows affected by every row of the batch
+   * @throws org.springframework.dao.DataAccessException if there is any problem executing the batch
+   * @throws IllegalArgumentException if the statement has no bind variables,
+   *         there is no collection type for a bind variable, there are no key columns
+   *         or a type or column name is not a SQL name
+   * @see #batchUpdateColumnar(String, SqlParameterSource[], Map, String)
+   */
+  public int[] batchUpdateColumnar(String sql, SqlParameterSource[] batchArgs, Map<String, String> arrayTypeNames, String rowCountsTypeName,
+          KeyHolder generatedKeyHolder, Map<String, String> keyColumns) {
+    Objects.requireNonNull(generatedKeyHolder, "generatedKeyHolder");
+    if (batchArgs.length == 0) {
+      return new int[0];
+    }
+    ColumnarBatchUpdate update = new ColumnarBatchUpdate(sql, batchArgs, arrayTypeNames, rowCountsTypeName, generatedKeyHolder, keyColumns);
+    return getJdbcOperations().execute(update, update);
   }
 
   /**
@@ -101,7 +592,29 @@ public final class OracleNamedParameterJdbcTemplate extends NamedParameterJdbcTe
    */
   @Override
   protected PreparedStatementCreator getPreparedStatementCreator(String sql, SqlParameterSource parameterSource) {
-    return new NamedPreparedStatementCreator(sql, parameterSource);
+    return new NamedPreparedStatementCreator(sql, parameterSource, this.beanPropertyBinders, this.getNullBindTypes(sql), this.collectionTypes,
+            this.getStatementCacheKey(sql), this.statementCacheMetrics, this.columnDefineCache, this.fetchSizePolicy);
+  }
+
+  /**
+   * Creates a statement creator that binds all the rows of a batch and
+   * adds them to the batch without executing it.
+   *
+   * @param sql the SQL statement to execute
+   * @param batchArgs the parameter sources of all rows
+   * @return the statement creator, also a {@link ParameterDisposer}
+   */
+  PreparedStatementCreator getBatchPreparedStatementCreator(String sql, SqlParameterSource[] batchArgs) {
+    NamedBatchPreparedStatementSetter setter = new NamedBatchPreparedStatementSetter(sql, batchArgs, this.beanPropertyBinders, this.getNullBindTypes(sql),
+            this.collectionTypes);
+    String cacheKey = this.getStatementCacheKey(sql);
+    PreparedStatementCreator statementCreator;
+    if (cacheKey == null) {
+      statementCreator = connection -> connection.prepareStatement(sql);
+    } else {
+      statementCreator = new CachedBatchStatementCreator(cacheKey, sql, this.statementCacheMetrics);
+    }
+    return new BatchPreparedStatementCreator(sql, statementCreator, setter);
   }
 
   /**
@@ -121,134 +634,283 @@ public final class OracleNamedParameterJdbcTemplate extends NamedParameterJdbcTe
 
     private final String sql;
     private final SqlParameterSource parameterSource;
+    private final BoundedConcurrentCache<Key, BeanPropertyBinder> beanPropertyBinders;
+    private final NullBindTypes nullBindTypes;
+    @Nullable
+    private final CollectionTypeRegistry collectionTypes;
+
+    @Nullable
+    private final String cacheKey;
+    private final StatementCacheMetrics statementCacheMetrics;
 
     private final boolean returnGeneratedKeys;
 
     @Nullable
     private final String[] generatedKeysColumnNames;
 
-    NamedPreparedStatementCreator(String sql, SqlParameterSource parameterSource) {
+    @Nullable
+    private final ColumnDefineCache columnDefines;
+
+    @Nullable
+    private final FetchSizePolicy fetchSizePolicy;
+
+    @Nullable
+    private List<SqlValue> beanSqlValues;
+
+    private final StatementArrays arrays = new StatementArrays();
+
+    NamedPreparedStatementCreator(String sql, SqlParameterSource parameterSource, BoundedConcurrentCache<Key, BeanPropertyBinder> beanPropertyBinders,
+            NullBindTypes nullBindTypes, @Nullable CollectionTypeRegistry collectionTypes,
+            @Nullable String cacheKey, StatementCacheMetrics statementCacheMetrics, @Nullable ColumnDefineCache columnDefines,
+            @Nullable FetchSizePolicy fetchSizePolicy) {
       Objects.requireNonNull(sql);
       Objects.requireNonNull(parameterSource);
+      Objects.requireNonNull(beanPropertyBinders);
+      Objects.requireNonNull(nullBindTypes);
+      Objects.requireNonNull(statementCacheMetrics);
       this.sql = sql;
       this.parameterSource = parameterSource;
+      this.beanPropertyBinders = beanPropertyBinders;
+      this.nullBindTypes = nullBindTypes;
+      this.collectionTypes = collectionTypes;
+      this.cacheKey = cacheKey;
+      this.statementCacheMetrics = statementCacheMetrics;
       this.returnGeneratedKeys = false;
       this.generatedKeysColumnNames = null;
+      this.columnDefines = columnDefines;
+      this.fetchSizePolicy = fetchSizePolicy;
     }
 
-    NamedPreparedStatementCreator(String sql, SqlParameterSource parameterSource, boolean returnGeneratedKeys, String[] generatedKeysColumnNames) {
+    NamedPreparedStatementCreator(String sql, SqlParameterSource parameterSource, BoundedConcurrentCache<Key, BeanPropertyBinder> beanPropertyBinders,
+            NullBindTypes nullBindTypes, @Nullable CollectionTypeRegistry collectionTypes,
+            @Nullable String cacheKey, StatementCacheMetrics statementCacheMetrics,
+            boolean returnGeneratedKeys, @Nullable String[] generatedKeysColumnNames) {
       Objects.requireNonNull(sql);
       Objects.requireNonNull(parameterSource);
+      Objects.requireNonNull(beanPropertyBinders);
+      Objects.requireNonNull(nullBindTypes);
+      Objects.requireNonNull(statementCacheMetrics);
       this.sql = sql;
       this.parameterSource = parameterSource;
-      this.returnGeneratedKeys = false;
-      this.generatedKeysColumnNames = null;
+      this.beanPropertyBinders = beanPropertyBinders;
+      this.nullBindTypes = nullBindTypes;
+      this.collectionTypes = collectionTypes;
+      this.cacheKey = cacheKey;
+      this.statementCacheMetrics = statementCacheMetrics;
+      this.returnGeneratedKeys = returnGeneratedKeys;
+      this.generatedKeysColumnNames = generatedKeysColumnNames;
+      // statements returning generated keys are not queries
+      this.columnDefines = null;
+      this.fetchSizePolicy = null;
     }
 
     @Override
     public PreparedStatement createPreparedStatement(Connection connection) throws SQLException {
       PreparedStatement statement;
+      if (this.cacheKey != null) {
+        String key = getStatementCacheKey(this.cacheKey, this.returnGeneratedKeys, this.generatedKeysColumnNames);
+        statement = CachedPreparedStatementCreator.getStatementWithKey(connection, key, this.statementCacheMetrics);
+        if (statement == null) {
+          statement = this.prepareStatement(connection);
+        }
+        statement = new CachedPreparedStatement(key, statement, this.statementCacheMetrics);
+      } else {
+        statement = this.prepareStatement(connection);
+      }
+
+      try {
+        this.setValues(statement);
+        if (this.columnDefines != null || this.fetchSizePolicy != null) {
+          // describe a new query only once for both
+          StatementDescription description = new StatementDescription(statement);
+          if (this.columnDefines != null) {
+            this.columnDefines.defineColumns(this.sql, statement, description);
+          }
+          if (this.fetchSizePolicy != null) {
+            this.fetchSizePolicy.applyFetchSize(this.sql, statement, description);
+          }
+        }
+      } catch (SQLException | RuntimeException e) {
+        // JdbcTemplate only closes statements that have been returned
+        JdbcUtils.closeStatement(statement);
+        throw e;
+      }
+      return statement;
+    }
+
+    private PreparedStatement prepareStatement(Connection connection) throws SQLException {
       if (this.generatedKeysColumnNames != null) {
-        statement = connection.prepareStatement(this.sql, this.generatedKeysColumnNames);
+        return connection.prepareStatement(this.sql, this.generatedKeysColumnNames);
       } else if (this.returnGeneratedKeys) {
-        statement = connection.prepareStatement(this.sql, PreparedStatement.RETURN_GENERATED_KEYS);
+        return connection.prepareStatement(this.sql, PreparedStatement.RETURN_GENERATED_KEYS);
       } else {
-        statement = connection.prepareStatement(this.sql);
+        return connection.prepareStatement(this.sql);
       }
+    }
 
-      this.setValues(statement);
-      return statement;
+    /**
+     * Derives the cache key of a statement returning generated keys so
+     * that it does not collide with the same SQL not returning generated keys.
+     *
+     * @param cacheKey the cache key of the SQL statement
+     * @param returnGeneratedKeys whether generated keys are returned
+     * @param generatedKeysColumnNames the names of the generated key columns, possibly {@code null}
+     * @return the cache key of the statement
+     */
+    static String getStatementCacheKey(String cacheKey, boolean returnGeneratedKeys, @Nullable String[] generatedKeysColumnNames) {
+      if (generatedKeysColumnNames != null) {
+        return cacheKey + "#generatedKeys(" + String.join(",", generatedKeysColumnNames) + ")";
+      } else if (returnGeneratedKeys) {
+        return cacheKey + "#generatedKeys";
+      } else {
+        return cacheKey;
+      }
     }
 
     @Override
     public void setValues(PreparedStatement ps) throws SQLException {
       OraclePreparedStatement statement = ps.unwrap(OraclePreparedStatement.class);
-
-      for (String parameterName : this.parameterSource.getParameterNames()) {
-        int sqlType = this.parameterSource.getSqlType(parameterName);
-        Object value = this.parameterSource.getValue(parameterName);
-        validateValue(value);
-        if (value != null) {
-          setValue(statement, parameterName, value, sqlType);
-        } else {
-          String typeName = this.parameterSource.getTypeName(parameterName);
-          setNull(statement, parameterName, sqlType, typeName);
-        }
+      if (this.parameterSource instanceof CompiledBeanPropertySqlParameterSource) {
+        CompiledBeanPropertySqlParameterSource beanSource = (CompiledBeanPropertySqlParameterSource) this.parameterSource;
+        this.beanSqlValues = this.getBeanPropertyBinder(beanSource).setValues(statement, beanSource, this.nullBindTypes, this.collectionTypes,
+                this.arrays, this.beanSqlValues);
+      } else {
+        setValues(statement, this.parameterSource, this.parameterSource.getParameterNames(), null, this.nullBindTypes, this.collectionTypes,
+                this.arrays);
       }
+    }
 
+    private BeanPropertyBinder getBeanPropertyBinder(CompiledBeanPropertySqlParameterSource beanSource) {
+      return getBeanPropertyBinder(this.sql, beanSource, this.beanPropertyBinders);
     }
 
-    private static void validateValue(Object value) {
-      if (value instanceof SqlValue && !(value instanceof NamedSqlValue)) {
-        // SqlValue does not support binding by name
-        throw new IllegalArgumentException("SqlValue not supported, use NamedSqlValue");
-      }
-      if (value instanceof SqlTypeValue) {
-        // SqlTypeValue does not support binding by name
-        throw new IllegalArgumentException("SqlTypeValue not supported, use NamedSqlValue");
-      }
-      if (value instanceof Collection) {
-        // ojdbc does not support binding Collection
-        throw new IllegalArgumentException("Collection not supported");
-      }
+    static BeanPropertyBinder getBeanPropertyBinder(String sql, CompiledBeanPropertySqlParameterSource beanSource,
+            BoundedConcurrentCache<Key, BeanPropertyBinder> beanPropertyBinders) {
+      Key key = new Key(sql, beanSource.getBean().getClass());
+      return beanPropertyBinders.get(key, BeanPropertyBinder::compile);
     }
 
-    private static void setValue(OraclePreparedStatement oracleStatement, String parameterName, Object value, int sqlType) throws SQLException {
-      if (value instanceof NamedSqlValue) {
-        NamedSqlValue sqlValue = (NamedSqlValue) value;
-        sqlValue.setValue(oracleStatement, parameterName);
-      } else {
-        Object bindParameter = convertToBindable(value);
-        if (sqlType != SqlParameterSource.TYPE_UNKNOWN) {
-          oracleStatement.setObjectAtName(parameterName, bindParameter, sqlType);
-        } else {
-          oracleStatement.setObjectAtName(parameterName, bindParameter);
+    /**
+     * Binds the values of a parameter source by name.
+     *
+     * @param statement the statement to bind to
+     * @param parameterSource the source of the values
+     * @param parameterNames the names of the values to bind, must all be present in {@code parameterSource}
+     * @param bindTypes the bind types resolved for previous rows, {@code null} if not cached
+     * @param nullBindTypes the SQL types for binding {@code null} values of the statement
+     * @param collectionTypes the SQL collection types for binding {@link Collection} values, possibly {@code null}
+     * @param arrays the arrays of the statement, freed when the statement is cleaned up
+     * @throws SQLException if binding fails
+     */
+    static void setValues(OraclePreparedStatement statement, SqlParameterSource parameterSource, String[] parameterNames,
+            @Nullable BindType.Cache bindTypes, NullBindTypes nullBindTypes, @Nullable CollectionTypeRegistry collectionTypes,
+            StatementArrays arrays) throws SQLException {
+      // no enhanced for loop to make sure no iterator is allocated
+      for (int i = 0; i < parameterNames.length; i++) {
+        String parameterName = parameterNames[i];
+        int sqlType = parameterSource.getSqlType(parameterName);
+        Object value = parameterSource.getValue(parameterName);
+        BindType bindType = null;
+        if (bindTypes != null && value != null) {
+          bindType = bindTypes.get(i, value.getClass(), sqlType);
         }
+        setParameter(statement, parameterSource, parameterName, parameterName, value, sqlType, bindType, nullBindTypes, collectionTypes, arrays);
       }
     }
 
     /**
-     * OJDBC does not support binding common Java types most notably
-     * {@link java.util.Date} this method converts some of the to
-     * bindable types.
+     * Binds a single parameter value by name.
      *
-     * @param object the object to bind with may need conversion
-     * @return an equivalent value that hopefully ojdbc support
-     * @see org.springframework.jdbc.core.StatementCreatorUtils#setValue(PreparedStatement, int, int, String, Integer, Object)
+     * @param statement the statement to bind to
+     * @param parameterSource the source of the value, used to look up the type name of {@code null} values
+     * @param bindName the name of the bind variable
+     * @param parameterName the name of the parameter in {@code parameterSource}
+     * @param value the value to bind, possibly {@code null}
+     * @param sqlType the SQL type of the value, possibly {@link SqlParameterSource#TYPE_UNKNOWN}
+     * @param bindType the bind type of the value if already known, {@code null} to resolve it
+     * @param nullBindTypes the SQL types for binding {@code null} values of the statement
+     * @param collectionTypes the SQL collection types for binding {@link Collection} values, possibly {@code null}
+     * @param arrays the arrays of the statement, freed when the statement is cleaned up
+     * @throws SQLException if binding fails
      */
-    private static Object convertToBindable(Object object) {
-      if (object instanceof java.util.Date) {
-        return convertToSqlTemporal((java.util.Date) object);
+    static void setParameter(OraclePreparedStatement statement, SqlParameterSource parameterSource,
+            String bindName, String parameterName, @Nullable Object value, int sqlType, @Nullable BindType bindType,
+            NullBindTypes nullBindTypes, @Nullable CollectionTypeRegistry collectionTypes, StatementArrays arrays) throws SQLException {
+      if (collectionTypes != null && value instanceof Collection) {
+        collectionTypes.setValue(statement, bindName, (Collection<?>) value, arrays);
+        return;
+      }
+      if (isArrayValue(value)) {
+        // the array belongs to the statement so the same value can be bound by other statements at the same time
+        Array array = createArray(statement, value);
+        arrays.add(array);
+        statement.setArrayAtName(bindName, array);
+        return;
+      }
+      validateValue(value);
+      if (value != null) {
+        BindType type = bindType != null ? bindType : BindType.of(value.getClass(), sqlType);
+        type.setValue(statement, bindName, value, sqlType);
+        nullBindTypes.learn(bindName, value, sqlType, type);
       } else {
-        return object;
+        String typeName = parameterSource.getTypeName(parameterName);
+        setNull(statement, bindName, sqlType, typeName, nullBindTypes);
       }
     }
 
     /**
-     * Converts a {@link java.util.Date} that is not a java.sql type
-     * to a {@link java.sql.Timestamp}.
+     * Checks whether a value is bound as an array owned by the statement
+     * instead of calling {@link NamedSqlValue#setValue(PreparedStatement, String)}
+     * and {@link SqlValue#cleanup()}.
      *
-     * @param date the date to convert, not null
-     * @return The SQL Timestamp.
-     * @see org.springframework.jdbc.core.StatementCreatorUtils#isDateValue(Class)
+     * @param value the value to bind, possibly {@code null}
+     * @return whether the value is bound as an array owned by the statement
      */
-    private static Object convertToSqlTemporal(java.util.Date date) {
-      if (date instanceof java.sql.Date) {
-        return date;
-      } else if (date instanceof java.sql.Timestamp) {
-        return date;
-      } else if (date instanceof java.sql.Time) {
-        return date;
+    static boolean isArrayValue(@Nullable Object value) {
+      return value instanceof SqlOracleArrayValue || value instanceof SqlOracleStructArrayValue;
+    }
+
+    private static Array createArray(OraclePreparedStatement statement, Object value) throws SQLException {
+      Connection connection = statement.getConnection();
+      if (value instanceof SqlOracleArrayValue) {
+        return ((SqlOracleArrayValue) value).createUntrackedArray(connection);
       } else {
-        return copyDate(date);
+        return ((SqlOracleStructArrayValue<?>) value).createUntrackedArray(connection);
+      }
+    }
+
+    /**
+     * Cleans up all the {@link SqlValue}s of a parameter source.
+     *
+     * @param parameterSource the source of the values
+     * @param parameterNames the names of the values to clean up
+     */
+    static void cleanupParameters(SqlParameterSource parameterSource, String[] parameterNames) {
+      for (int i = 0; i < parameterNames.length; i++) {
+        Object value = parameterSource.getValue(parameterNames[i]);
+        if (value instanceof SqlValue && !isArrayValue(value)) {
+          ((SqlValue) value).cleanup();
+        }
       }
     }
 
-    private static Object copyDate(java.util.Date date) {
-      return new java.sql.Timestamp(date.getTime());
+    private static void validateValue(Object value) {
+      if (value instanceof SqlValue && !(value instanceof NamedSqlValue)) {
+        // SqlValue does not support binding by name
+        throw new IllegalArgumentException("SqlValue not supported, use NamedSqlValue");
+      }
+      if (value instanceof SqlTypeValue) {
+        // SqlTypeValue does not support binding by name
+        throw new IllegalArgumentException("SqlTypeValue not supported, use NamedSqlValue");
+      }
+      if (value instanceof Collection) {
+        // ojdbc does not support binding Collection
+        throw new IllegalArgumentException("Collection not supported, use SqlOracleArrayValue or register a collection type");
+      }
     }
 
-    private static void setNull(OraclePreparedStatement oracleStatement, String parameterName, int sqlType, String typeName) throws SQLException {
+    private static void setNull(OraclePreparedStatement oracleStatement, String parameterName, int sqlType, String typeName,
+            NullBindTypes nullBindTypes) throws SQLException {
       if (sqlType != SqlParameterSource.TYPE_UNKNOWN) {
         if (typeName != null) {
           oracleStatement.setNullAtName(parameterName, sqlType, typeName);
@@ -256,8 +918,9 @@ public final class OracleNamedParameterJdbcTemplate extends NamedParameterJdbcTe
           oracleStatement.setNullAtName(parameterName, sqlType);
         }
       } else {
-        // REVIEW: I'm not actually sure if Types.NULL is the correct type for
-        // null but there doesn't seem to be a setNullAtName without a type.
+        // There doesn't seem to be a setNullAtName without a type and
+        // Types.NULL results in a bind mismatch and therefore a new child
+        // cursor when the bind variable is later bound with a value.
         //
         // We can't call
         // statement.getParameterMetaData().getParameterType(i)
@@ -266,8 +929,10 @@ public final class OracleNamedParameterJdbcTemplate extends NamedParameterJdbcTe
         // for named parameters.
         // It might not even be possible to determine the type in an unambiguous
         // way because a name can be used several times in a query for comparisons
-        // (or inserts) of columns of varying types
-        oracleStatement.setNullAtName(parameterName, Types.NULL);
+        // (or inserts) of columns of varying types.
+        // Instead we use the type of the last value bound, Types.NULL if we
+        // haven't seen one yet.
+        oracleStatement.setNullAtName(parameterName, nullBindTypes.getSqlType(parameterName));
       }
     }
 
@@ -278,11 +943,391 @@ public final class OracleNamedParameterJdbcTemplate extends NamedParameterJdbcTe
 
     @Override
     public void cleanupParameters() {
-      for (String parameterName : this.parameterSource.getParameterNames()) {
-        Object value = this.parameterSource.getValue(parameterName);
-        if (value instanceof SqlValue) {
-          ((SqlValue) value).cleanup();
+      try {
+        if (this.parameterSource instanceof CompiledBeanPropertySqlParameterSource) {
+          BeanPropertyBinder.cleanupParameters(this.beanSqlValues);
+          this.beanSqlValues = null;
+        } else {
+          cleanupParameters(this.parameterSource, this.parameterSource.getParameterNames());
+        }
+      } finally {
+        this.arrays.free();
+      }
+    }
+
+  }
+
+  /**
+   * Binds the rows of a batch using proprietary Oracle methods.
+   *
+   * <p>All the rows of a batch bind the same SQL so they usually have the
+   * same parameter names. The parameter names are therefore resolved only
+   * once for the first row and reused for every following row. This avoids
+   * calling {@link SqlParameterSource#getParameterNames()} for every row
+   * which may allocate a new array, eg. for {@link MapSqlParameterSource}.
+   * Rows missing one of these names, or {@link MapSqlParameterSource} rows
+   * with additional names, are bound with their own parameter names.</p>
+   *
+   * <p>Rows from a {@link CompiledBeanPropertySqlParameterSource} are bound
+   * with a {@link BeanPropertyBinder} that is looked up once per batch and
+   * bean class.</p>
+   */
+  static final class NamedBatchPreparedStatementSetter implements BatchPreparedStatementSetter, ParameterDisposer {
+
+    @Nullable
+    private static final MethodHandle MAP_VALUES_GETTER = lookupValuesGetter();
+
+    private final String sql;
+    private final SqlParameterSource[] batchArgs;
+    private final BoundedConcurrentCache<Key, BeanPropertyBinder> beanPropertyBinders;
+    private final NullBindTypes nullBindTypes;
+    @Nullable
+    private final CollectionTypeRegistry collectionTypes;
+
+    @Nullable
+    private String[] parameterNames;
+
+    @Nullable
+    private SqlParameterSource parameterNamesSource;
+
+    @Nullable
+    private String[][] rowParameterNames;
+
+    @Nullable
+    private BindType.Cache bindTypes;
+
+    @Nullable
+    private BeanPropertyBinder lastBeanPropertyBinder;
+
+    @Nullable
+    private PreparedStatement lastStatement;
+
+    @Nullable
+    private OraclePreparedStatement lastOracleStatement;
+
+    @Nullable
+    private List<SqlValue> beanSqlValues;
+
+    private final StatementArrays arrays = new StatementArrays();
+
+    NamedBatchPreparedStatementSetter(String sql, SqlParameterSource[] batchArgs, BoundedConcurrentCache<Key, BeanPropertyBinder> beanPropertyBinders,
+            NullBindTypes nullBindTypes, @Nullable CollectionTypeRegistry collectionTypes) {
+      Objects.requireNonNull(sql);
+      Objects.requireNonNull(batchArgs);
+      Objects.requireNonNull(beanPropertyBinders);
+      Objects.requireNonNull(nullBindTypes);
+      this.sql = sql;
+      this.batchArgs = batchArgs;
+      this.beanPropertyBinders = beanPropertyBinders;
+      this.nullBindTypes = nullBindTypes;
+      this.collectionTypes = collectionTypes;
+    }
+
+    @Override
+    public void setValues(PreparedStatement ps, int i) throws SQLException {
+      SqlParameterSource parameterSource = this.batchArgs[i];
+      if (parameterSource instanceof CompiledBeanPropertySqlParameterSource) {
+        CompiledBeanPropertySqlParameterSource beanSource = (CompiledBeanPropertySqlParameterSource) parameterSource;
+        this.beanSqlValues = this.getBeanPropertyBinder(beanSource).setValues(this.unwrap(ps), beanSource, this.nullBindTypes,
+                this.collectionTypes, this.arrays, this.beanSqlValues);
+      } else {
+        String[] names = this.getParameterNames(i);
+        // the cached bind types only apply to rows with the common parameter names
+        BindType.Cache types = names == this.parameterNames ? this.bindTypes : null;
+        NamedPreparedStatementCreator.setValues(this.unwrap(ps), parameterSource, names, types, this.nullBindTypes,
+                this.collectionTypes, this.arrays);
+      }
+    }
+
+    private BeanPropertyBinder getBeanPropertyBinder(CompiledBeanPropertySqlParameterSource beanSource) {
+      BeanPropertyBinder binder = this.lastBeanPropertyBinder;
+      if (binder == null || !binder.canBind(beanSource)) {
+        binder = NamedPreparedStatementCreator.getBeanPropertyBinder(this.sql, beanSource, this.beanPropertyBinders);
+        this.lastBeanPropertyBinder = binder;
+      }
+      return binder;
+    }
+
+    private String[] getParameterNames(int i) {
+      SqlParameterSource parameterSource = this.batchArgs[i];
+      String[] names = this.parameterNames;
+      if (names == null) {
+        names = parameterSource.getParameterNames();
+        this.parameterNames = names;
+        this.parameterNamesSource = parameterSource;
+        this.bindTypes = new BindType.Cache(names.length);
+        return names;
+      }
+      String[][] rowNames = this.rowParameterNames;
+      if (rowNames != null && rowNames[i] != null) {
+        return rowNames[i];
+      }
+      if (parameterSource == this.parameterNamesSource || hasParameterNames(parameterSource, names)) {
+        return names;
+      }
+      // only rows whose parameter names differ from the batch resolve their own
+      if (rowNames == null) {
+        rowNames = new String[this.batchArgs.length][];
+        this.rowParameterNames = rowNames;
+      }
+      rowNames[i] = parameterSource.getParameterNames();
+      return rowNames[i];
+    }
+
+    private static boolean hasParameterNames(SqlParameterSource parameterSource, String[] parameterNames) {
+      // additional names can only be detected without allocating for MapSqlParameterSource
+      if (parameterSource instanceof MapSqlParameterSource
+              && getValueCount((MapSqlParameterSource) parameterSource) != parameterNames.length) {
+        return false;
+      }
+      for (int i = 0; i < parameterNames.length; i++) {
+        if (!parameterSource.hasValue(parameterNames[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static int getValueCount(MapSqlParameterSource parameterSource) {
+      MethodHandle valuesGetter = MAP_VALUES_GETTER;
+      if (valuesGetter == null) {
+        return parameterSource.getValues().size();
+      }
+      try {
+        return ((Map<?, ?>) valuesGetter.invokeExact(parameterSource)).size();
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new InvalidDataAccessApiUsageException("could not read the values of " + parameterSource, e);
+      }
+    }
+
+    /**
+     * Looks up the map behind {@link MapSqlParameterSource#getValues()} which
+     * wraps it on every call, {@code null} if it is not accessible.
+     */
+    @Nullable
+    private static MethodHandle lookupValuesGetter() {
+      try {
+        Field values = MapSqlParameterSource.class.getDeclaredField("values");
+        ReflectionUtils.makeAccessible(values);
+        return MethodHandles.lookup().unreflectGetter(values)
+                .asType(MethodType.methodType(Map.class, MapSqlParameterSource.class));
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        return null;
+      }
+    }
+
+    private OraclePreparedStatement unwrap(PreparedStatement ps) throws SQLException {
+      // unwrapping may go through a proxy of the connection pool, do it once per batch
+      if (ps != this.lastStatement) {
+        this.lastOracleStatement = ps.unwrap(OraclePreparedStatement.class);
+        this.lastStatement = ps;
+      }
+      return this.lastOracleStatement;
+    }
+
+    @Override
+    public int getBatchSize() {
+      return this.batchArgs.length;
+    }
+
+    @Override
+    public void cleanupParameters() {
+      try {
+        // only clean up if at least one row has been bound
+        boolean namesResolved = this.parameterNames != null;
+        for (int i = 0; i < this.batchArgs.length; i++) {
+          SqlParameterSource parameterSource = this.batchArgs[i];
+          if (!(parameterSource instanceof CompiledBeanPropertySqlParameterSource) && namesResolved) {
+            NamedPreparedStatementCreator.cleanupParameters(parameterSource, this.getParameterNames(i));
+          }
+        }
+        BeanPropertyBinder.cleanupParameters(this.beanSqlValues);
+        this.beanSqlValues = null;
+      } finally {
+        this.arrays.free();
+      }
+    }
+
+  }
+
+  /**
+   * Creates the statement of a batch using explicit statement caching, the
+   * rows are bound by {@link BatchStatementCallback}.
+   */
+  static final class CachedBatchStatementCreator implements PreparedStatementCreator, SqlProvider {
+
+    private final String cacheKey;
+    private final String sql;
+    private final StatementCacheMetrics statementCacheMetrics;
+
+    CachedBatchStatementCreator(String cacheKey, String sql, StatementCacheMetrics statementCacheMetrics) {
+      Objects.requireNonNull(cacheKey);
+      Objects.requireNonNull(sql);
+      Objects.requireNonNull(statementCacheMetrics);
+      this.cacheKey = cacheKey;
+      this.sql = sql;
+      this.statementCacheMetrics = statementCacheMetrics;
+    }
+
+    @Override
+    public PreparedStatement createPreparedStatement(Connection connection) throws SQLException {
+      PreparedStatement statement = CachedPreparedStatementCreator.getStatementWithKey(connection, this.cacheKey, this.statementCacheMetrics);
+      if (statement == null) {
+        statement = connection.prepareStatement(this.sql);
+      }
+      return new CachedPreparedStatement(this.cacheKey, statement, this.statementCacheMetrics);
+    }
+
+    @Override
+    public String getSql() {
+      return this.sql;
+    }
+
+  }
+
+  /**
+   * Binds and executes all the rows of a batch like
+   * {@link JdbcOperations#batchUpdate(String, BatchPreparedStatementSetter)}.
+   */
+  static final class BatchStatementCallback implements PreparedStatementCallback<int[]> {
+
+    private final NamedBatchPreparedStatementSetter setter;
+
+    BatchStatementCallback(NamedBatchPreparedStatementSetter setter) {
+      Objects.requireNonNull(setter);
+      this.setter = setter;
+    }
+
+    @Override
+    public int[] doInPreparedStatement(PreparedStatement ps) throws SQLException {
+      try {
+        int batchSize = this.setter.getBatchSize();
+        for (int i = 0; i < batchSize; i++) {
+          this.setter.setValues(ps, i);
+          ps.addBatch();
+        }
+        return ps.executeBatch();
+      } finally {
+        this.setter.cleanupParameters();
+      }
+    }
+
+  }
+
+  /**
+   * Creates a statement and adds all the rows of a batch to it without
+   * executing the batch.
+   */
+  static final class BatchPreparedStatementCreator implements PreparedStatementCreator, SqlProvider, ParameterDisposer {
+
+    private final String sql;
+    private final PreparedStatementCreator statementCreator;
+    private final NamedBatchPreparedStatementSetter setter;
+
+    BatchPreparedStatementCreator(String sql, PreparedStatementCreator statementCreator, NamedBatchPreparedStatementSetter setter) {
+      Objects.requireNonNull(sql);
+      Objects.requireNonNull(statementCreator);
+      Objects.requireNonNull(setter);
+      this.sql = sql;
+      this.statementCreator = statementCreator;
+      this.setter = setter;
+    }
+
+    @Override
+    public PreparedStatement createPreparedStatement(Connection connection) throws SQLException {
+      PreparedStatement statement = this.statementCreator.createPreparedStatement(connection);
+      try {
+        int batchSize = this.setter.getBatchSize();
+        for (int i = 0; i < batchSize; i++) {
+          this.setter.setValues(statement, i);
+          statement.addBatch();
+        }
+      } catch (SQLException | RuntimeException e) {
+        JdbcUtils.closeStatement(statement);
+        throw e;
+      }
+      return statement;
+    }
+
+    @Override
+    public String getSql() {
+      return this.sql;
+    }
+
+    @Override
+    public void cleanupParameters() {
+      this.setter.cleanupParameters();
+    }
+
+  }
+
+  /**
+   * Binds and executes the rows of an unbounded batch one chunk at a time.
+   */
+  static final class ChunkedBatchStatementCallback implements PreparedStatementCallback<Long> {
+
+    private final String sql;
+    private final Iterator<? extends SqlParameterSource> batchArgs;
+    private final int chunkSize;
+    @Nullable
+    private final Consumer<long[]> chunkCallback;
+    private final BoundedConcurrentCache<Key, BeanPropertyBinder> beanPropertyBinders;
+    private final NullBindTypes nullBindTypes;
+    @Nullable
+    private final CollectionTypeRegistry collectionTypes;
+
+    ChunkedBatchStatementCallback(String sql, Iterator<? extends SqlParameterSource> batchArgs, int chunkSize,
+            @Nullable Consumer<long[]> chunkCallback, BoundedConcurrentCache<Key, BeanPropertyBinder> beanPropertyBinders,
+            NullBindTypes nullBindTypes, @Nullable CollectionTypeRegistry collectionTypes) {
+      Objects.requireNonNull(sql);
+      Objects.requireNonNull(batchArgs);
+      Objects.requireNonNull(beanPropertyBinders);
+      Objects.requireNonNull(nullBindTypes);
+      this.sql = sql;
+      this.batchArgs = batchArgs;
+      this.chunkSize = chunkSize;
+      this.chunkCallback = chunkCallback;
+      this.beanPropertyBinders = beanPropertyBinders;
+      this.nullBindTypes = nullBindTypes;
+      this.collectionTypes = collectionTypes;
+    }
+
+    @Override
+    public Long doInPreparedStatement(PreparedStatement ps) throws SQLException {
+      long total = 0L;
+      SqlParameterSource[] chunk = new SqlParameterSource[this.chunkSize];
+      while (this.batchArgs.hasNext()) {
+        int rowCount = 0;
+        while (rowCount < this.chunkSize && this.batchArgs.hasNext()) {
+          chunk[rowCount++] = this.batchArgs.next();
+        }
+        SqlParameterSource[] rows = rowCount == this.chunkSize ? chunk : Arrays.copyOf(chunk, rowCount);
+        long[] rowCounts = this.execute(ps, rows);
+        for (long count : rowCounts) {
+          if (count > 0L) {
+            total += count;
+          }
+        }
+        if (this.chunkCallback != null) {
+          this.chunkCallback.accept(rowCounts);
+        }
+      }
+      return total;
+    }
+
+    private long[] execute(PreparedStatement ps, SqlParameterSource[] rows) throws SQLException {
+      NamedBatchPreparedStatementSetter setter = new NamedBatchPreparedStatementSetter(this.sql, rows, this.beanPropertyBinders,
+              this.nullBindTypes, this.collectionTypes);
+      try {
+        for (int i = 0; i < rows.length; i++) {
+          setter.setValues(ps, i);
+          ps.addBatch();
         }
+        return ps.executeLargeBatch();
+      } finally {
+        setter.cleanupParameters();
       }
     }
 
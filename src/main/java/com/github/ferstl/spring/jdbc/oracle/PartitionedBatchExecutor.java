@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Splits a large batch into partitions and executes every partition on its
+ * own connection in its own transaction in parallel.
+ *
+ * <p>A single {@link NamedParameterJdbcOperations#batchUpdate(String, SqlParameterSource[])}
+ * is executed by a single server process. For large loads where the order
+ * of the rows does not matter executing several partitions in parallel
+ * can use more database cores.</p>
+ *
+ * <p>Rows are assigned to partitions either round-robin or by the hash of
+ * a key. Partitioning by key ensures that rows with the same key end up in
+ * the same partition and therefore in the same transaction, which avoids
+ * partitions waiting on each other's row locks.</p>
+ *
+ * <h2>Example</h2>
+ * <pre><code> PartitionedBatchExecutor executor = new PartitionedBatchExecutor(namedParameterJdbcTemplate,
+ *     new TransactionTemplate(transactionManager), threadPool, 4, FailureMode.CONTINUE);
+ * PartitionedBatchResult result = executor.batchUpdate(sql, batchArgs, row -&gt; row.getValue("customerId"));
+ * </code></pre>
+ *
+ * <p>Every partition is executed with
+ * {@link TransactionOperations#execute(org.springframework.transaction.support.TransactionCallback)}
+ * on a thread of the executor, which has to provide at least
+ * {@code partitionCount} threads for all partitions to run in parallel. The
+ * connection pool has to allow as many active connections. As the
+ * partitions are committed independently there is no atomicity across
+ * partitions.</p>
+ */
+public final class PartitionedBatchExecutor {
+
+  /**
+   * What happens when a partition fails.
+   */
+  public enum FailureMode {
+
+    /**
+     * Partitions that have not started yet are skipped and the first
+     * exception is thrown, the exceptions of other failed partitions are
+     * added as suppressed exceptions. Partitions that had already been
+     * committed stay committed.
+     */
+    ABORT,
+
+    /**
+     * All partitions are executed and the exceptions of the failed
+     * partitions are reported by {@link PartitionedBatchResult#getFailures()}.
+     */
+    CONTINUE;
+
+  }
+
+  private final NamedParameterJdbcOperations jdbcOperations;
+
+  private final TransactionOperations transactionOperations;
+
+  private final Executor executor;
+
+  private final int partitionCount;
+
+  private final FailureMode failureMode;
+
+  /**
+   * Creates a new executor.
+   *
+   * @param jdbcOperations used to execute the batches, eg. an
+   *        {@link OracleNamedParameterJdbcTemplate}, not {@code null}
+   * @param transactionOperations used to execute every partition in its own transaction,
+   *        eg. a {@link org.springframework.transaction.support.TransactionTemplate}, not {@code null}
+   * @param executor runs the partitions, not {@code null}
+   * @param partitionCount the maximum number of partitions a batch is split into
+   * @param failureMode what happens when a partition fails, not {@code null}
+   */
+  public PartitionedBatchExecutor(NamedParameterJdbcOperations jdbcOperations, TransactionOperations transactionOperations,
+          Executor executor, int partitionCount, FailureMode failureMode) {
+    Objects.requireNonNull(jdbcOperations, "jdbcOperations");
+    Objects.requireNonNull(transactionOperations, "transactionOperations");
+    Objects.requireNonNull(executor, "executor");
+    Objects.requireNonNull(failureMode, "failureMode");
+    if (partitionCount <= 0) {
+      throw new IllegalArgumentException("partitionCount must be positive");
+    }
+    this.jdbcOperations = jdbcOperations;
+    this.transactionOperations = transactionOperations;
+    this.executor = executor;
+    this.partitionCount = partitionCount;
+    this.failureMode = failureMode;
+  }
+
+  /**
+   * Executes a batch with the rows assigned to partitions round-robin.
+   *
+   * @param sql the SQL statement to execute
+   * @param batchArgs the parameter sources of all rows
+   * @return the aggregated result of all partitions
+   * @throws RuntimeException the exception of the first failed partition
+   *         if the failure mode is {@link FailureMode#ABORT}
+   */
+  public PartitionedBatchResult batchUpdate(String sql, SqlParameterSource[] batchArgs) {
+    return this.batchUpdate(sql, batchArgs, null);
+  }
+
+  /**
+   * Executes a batch with the rows assigned to partitions by the hash of a key.
+   *
+   * @param sql the SQL statement to execute
+   * @param batchArgs the parameter sources of all rows
+   * @param partitionKey extracts the key of a row, {@code null} for round-robin
+   * @return the aggregated result of all partitions
+   * @throws RuntimeException the exception of the first failed partition
+   *         if the failure mode is {@link FailureMode#ABORT}
+   */
+  public PartitionedBatchResult batchUpdate(String sql, SqlParameterSource[] batchArgs,
+          @Nullable Function<? super SqlParameterSource, ?> partitionKey) {
+    Objects.requireNonNull(sql, "sql");
+    Objects.requireNonNull(batchArgs, "batchArgs");
+    int[][] partitions = this.partition(batchArgs, partitionKey);
+
+    int[] rowCounts = new int[batchArgs.length];
+    Arrays.fill(rowCounts, Statement.EXECUTE_FAILED);
+    RuntimeException[] failures = new RuntimeException[partitions.length];
+    AtomicBoolean aborted = new AtomicBoolean();
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[partitions.length];
+    for (int i = 0; i < partitions.length; i++) {
+      int partition = i;
+      futures[i] = CompletableFuture.runAsync(() -> {
+        if (aborted.get()) {
+          return;
+        }
+        try {
+          this.execute(sql, batchArgs, partitions[partition], rowCounts);
+        } catch (RuntimeException e) {
+          failures[partition] = e;
+          if (this.failureMode == FailureMode.ABORT) {
+            aborted.set(true);
+          }
+        }
+      }, this.executor);
+    }
+    // failures are caught, completes normally
+    CompletableFuture.allOf(futures).join();
+
+    List<RuntimeException> failureList = new ArrayList<>(0);
+    for (RuntimeException failure : failures) {
+      if (failure != null) {
+        failureList.add(failure);
+      }
+    }
+    if (this.failureMode == FailureMode.ABORT && !failureList.isEmpty()) {
+      RuntimeException first = failureList.get(0);
+      for (int i = 1; i < failureList.size(); i++) {
+        first.addSuppressed(failureList.get(i));
+      }
+      throw first;
+    }
+    return new PartitionedBatchResult(rowCounts, partitions.length, failureList);
+  }
+
+  private void execute(String sql, SqlParameterSource[] batchArgs, int[] rowIndices, int[] rowCounts) {
+    SqlParameterSource[] partitionArgs = new SqlParameterSource[rowIndices.length];
+    for (int i = 0; i < rowIndices.length; i++) {
+      partitionArgs[i] = batchArgs[rowIndices[i]];
+    }
+    int[] partitionRowCounts = this.transactionOperations.execute(status -> this.jdbcOperations.batchUpdate(sql, partitionArgs));
+    // only written after the commit, every partition writes distinct indices
+    for (int i = 0; i < rowIndices.length; i++) {
+      rowCounts[rowIndices[i]] = partitionRowCounts[i];
+    }
+  }
+
+  /**
+   * Assigns the rows to partitions.
+   *
+   * @return the indices of the rows of every non-empty partition, in input order
+   */
+  int[][] partition(SqlParameterSource[] batchArgs, @Nullable Function<? super SqlParameterSource, ?> partitionKey) {
+    int[] partitionOfRow = new int[batchArgs.length];
+    int[] partitionSizes = new int[this.partitionCount];
+    for (int i = 0; i < batchArgs.length; i++) {
+      int partition;
+      if (partitionKey == null) {
+        partition = i % this.partitionCount;
+      } else {
+        partition = Math.floorMod(Objects.hashCode(partitionKey.apply(batchArgs[i])), this.partitionCount);
+      }
+      partitionOfRow[i] = partition;
+      partitionSizes[partition] += 1;
+    }
+
+    int nonEmpty = 0;
+    for (int partitionSize : partitionSizes) {
+      if (partitionSize > 0) {
+        nonEmpty += 1;
+      }
+    }
+    int[][] partitions = new int[nonEmpty][];
+    int[] partitionIndex = new int[this.partitionCount];
+    int next = 0;
+    for (int i = 0; i < this.partitionCount; i++) {
+      if (partitionSizes[i] > 0) {
+        partitionIndex[i] = next;
+        partitions[next++] = new int[partitionSizes[i]];
+      }
+    }
+    int[] fillCounts = new int[nonEmpty];
+    for (int i = 0; i < batchArgs.length; i++) {
+      int partition = partitionIndex[partitionOfRow[i]];
+      partitions[partition][fillCounts[partition]++] = i;
+    }
+    return partitions;
+  }
+
+}
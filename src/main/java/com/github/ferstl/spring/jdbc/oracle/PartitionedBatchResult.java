@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The aggregated result of a {@link PartitionedBatchExecutor}.
+ *
+ * <p>The row counts are in the order of the input, independent of the
+ * partition a row has been executed in. Rows of partitions that failed or
+ * have not been executed have a row count of
+ * {@link java.sql.Statement#EXECUTE_FAILED}.</p>
+ */
+public final class PartitionedBatchResult {
+
+  private final int[] rowCounts;
+
+  private final int partitionCount;
+
+  private final List<RuntimeException> failures;
+
+  PartitionedBatchResult(int[] rowCounts, int partitionCount, List<RuntimeException> failures) {
+    this.rowCounts = rowCounts;
+    this.partitionCount = partitionCount;
+    this.failures = Collections.unmodifiableList(failures);
+  }
+
+  /**
+   * Returns the row counts of all rows in the order of the input.
+   *
+   * @return the row counts, not a copy
+   */
+  public int[] getRowCounts() {
+    return this.rowCounts;
+  }
+
+  /**
+   * Returns the total number of rows affected by the partitions that have
+   * been committed.
+   *
+   * @return the sum of all positive row counts
+   */
+  public long getTotalRowCount() {
+    long total = 0L;
+    for (int rowCount : this.rowCounts) {
+      if (rowCount > 0) {
+        total += rowCount;
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Returns the number of partitions the input has been split into.
+   *
+   * @return the number of non-empty partitions
+   */
+  public int getPartitionCount() {
+    return this.partitionCount;
+  }
+
+  /**
+   * Returns the exceptions of the partitions that failed and have been
+   * rolled back.
+   *
+   * @return the failures, empty if all partitions have been committed
+   */
+  public List<RuntimeException> getFailures() {
+    return this.failures;
+  }
+
+  /**
+   * Whether all partitions have been committed.
+   *
+   * @return {@code true} if no partition failed
+   */
+  public boolean isSuccessful() {
+    return this.failures.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "PartitionedBatchResult(rows=" + this.rowCounts.length + ", partitions=" + this.partitionCount
+            + ", failures=" + this.failures.size() + ')';
+  }
+
+}
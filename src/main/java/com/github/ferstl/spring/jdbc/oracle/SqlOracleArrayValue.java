@@ -19,10 +19,8 @@ import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.Arrays;
+import java.util.Objects;
 
-import org.springframework.dao.CleanupFailureDataAccessException;
-import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.jdbc.core.SqlTypeValue;
 
 import oracle.jdbc.OracleConnection;
@@ -68,15 +66,38 @@ import oracle.jdbc.OraclePreparedStatement;
  * <p>This class can be combined with {@link OracleNamedParameterJdbcTemplate} for named parameter
  * support.
  *
+ * <p>Arrays of {@code int}, {@code long} and {@code double} are passed to the driver as they are
+ * avoiding boxing every element.
+ *
+ * <p>Every bind creates a new {@link Array}. Arrays bound by {@link OracleNamedParameterJdbcTemplate}
+ * belong to the statement they are bound to and are freed when that statement is cleaned up,
+ * instances can therefore be bound any number of times, eg. for every row of a batch, by nested
+ * queries or concurrently by several threads for a constant set of values. {@link #cleanup()}
+ * only frees the arrays created by {@link #setValue(PreparedStatement, int)} and
+ * {@link #setValue(PreparedStatement, String)}, eg. when bound by
+ * {@link org.springframework.jdbc.core.JdbcTemplate}, so an instance bound this way must only be
+ * used by one statement at a time.
+ *
  * @see <a href="https://docs.oracle.com/en/database/oracle/oracle-database/12.2/jajdb/oracle/jdbc/OracleConnection.html#createOracleArray-java.lang.String-java.lang.Object-">OracleConnection#createOracleArray</a>
  */
 public final class SqlOracleArrayValue implements NamedSqlValue {
 
-  private final Object[] values;
+  /**
+   * The maximum number of elements included in {@link #toString()}.
+   */
+  private static final int TO_STRING_ELEMENTS = 10;
+
+  /**
+   * Either an {@code Object[]} or an array of primitives.
+   */
+  private final Object values;
 
   private final String typeName;
 
-  private Array array;
+  /**
+   * The arrays created by {@code setValue} that have not been freed yet.
+   */
+  private final StatementArrays arrays;
 
   /**
    * Constructor that takes two parameters, one parameter with the array of values passed in to
@@ -88,6 +109,49 @@ public final class SqlOracleArrayValue implements NamedSqlValue {
   public SqlOracleArrayValue(String typeName, Object... values) {
     this.values = values;
     this.typeName = typeName;
+    this.arrays = new StatementArrays();
+  }
+
+  /**
+   * Constructor that takes two parameters, one parameter with the array of values passed in to
+   * the statement and one that takes the type name.
+   *
+   * @param typeName the type name
+   * @param values the array containing the values, passed to the driver without boxing
+   */
+  public SqlOracleArrayValue(String typeName, int[] values) {
+    Objects.requireNonNull(values, "values");
+    this.values = values;
+    this.typeName = typeName;
+    this.arrays = new StatementArrays();
+  }
+
+  /**
+   * Constructor that takes two parameters, one parameter with the array of values passed in to
+   * the statement and one that takes the type name.
+   *
+   * @param typeName the type name
+   * @param values the array containing the values, passed to the driver without boxing
+   */
+  public SqlOracleArrayValue(String typeName, long[] values) {
+    Objects.requireNonNull(values, "values");
+    this.values = values;
+    this.typeName = typeName;
+    this.arrays = new StatementArrays();
+  }
+
+  /**
+   * Constructor that takes two parameters, one parameter with the array of values passed in to
+   * the statement and one that takes the type name.
+   *
+   * @param typeName the type name
+   * @param values the array containing the values, passed to the driver without boxing
+   */
+  public SqlOracleArrayValue(String typeName, double[] values) {
+    Objects.requireNonNull(values, "values");
+    this.values = values;
+    this.typeName = typeName;
+    this.arrays = new StatementArrays();
   }
 
   /**
@@ -109,38 +173,58 @@ public final class SqlOracleArrayValue implements NamedSqlValue {
   }
 
   private Array createArray(Connection conn) throws SQLException {
-    if (this.array != null) {
-      throw new InvalidDataAccessApiUsageException("Value bound more than once");
-    }
-    this.array = conn.unwrap(OracleConnection.class).createOracleArray(this.typeName, this.values);
-    return this.array;
+    Array array = this.createUntrackedArray(conn);
+    this.arrays.add(array);
+    return array;
+  }
+
+  /**
+   * Creates a new array of the values that is not freed by {@link #cleanup()}.
+   *
+   * @param conn the connection of the statement the array is bound to
+   * @return the array, to be freed by the caller
+   * @throws SQLException if creating the array fails
+   */
+  Array createUntrackedArray(Connection conn) throws SQLException {
+    // the descriptor of the collection type is cached by OJDBC per physical connection
+    return conn.unwrap(OracleConnection.class).createOracleArray(this.typeName, this.values);
   }
 
   /**
    * {@inheritDoc}
+   *
+   * <p>Frees all the arrays created by {@code setValue}.</p>
    */
   @Override
   public void cleanup() {
-    if (this.array == null) {
-      // #cleanup may be called twice in case of exceptions
-      // avoid calling #free twice
-      return;
-    }
-    // https://docs.oracle.com/javase/tutorial/jdbc/basics/array.html#releasing_array
-    try {
-      this.array.free();
-      this.array = null;
-    } catch (SQLException e) {
-      throw new CleanupFailureDataAccessException("could not free array", e);
-    }
+    this.arrays.free();
   }
 
   /**
    * {@inheritDoc}
+   *
+   * <p>Only includes the first few elements so that it remains cheap for large arrays.</p>
    */
   @Override
   public String toString() {
-    return Arrays.toString(this.values);
+    if (this.values == null) {
+      return "null";
+    }
+    int length = java.lang.reflect.Array.getLength(this.values);
+    int shown = Math.min(length, TO_STRING_ELEMENTS);
+    StringBuilder buffer = new StringBuilder(16 + shown * 8);
+    buffer.append('[');
+    for (int i = 0; i < shown; i++) {
+      if (i > 0) {
+        buffer.append(", ");
+      }
+      buffer.append(java.lang.reflect.Array.get(this.values, i));
+    }
+    if (length > shown) {
+      buffer.append(", ... (").append(length).append(" elements)");
+    }
+    buffer.append(']');
+    return buffer.toString();
   }
 
 }
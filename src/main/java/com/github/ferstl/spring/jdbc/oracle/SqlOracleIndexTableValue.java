@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Objects;
+
+import org.springframework.jdbc.support.SqlValue;
+
+import oracle.jdbc.OraclePreparedStatement;
+import oracle.jdbc.OracleTypes;
+
+/**
+ * An implementation of the {@link SqlValue} interface that binds values as
+ * a PL/SQL associative array (index-by table).
+ *
+ * <p>In contrast to {@link SqlOracleArrayValue} no SQL collection type has
+ * to be created with {@code CREATE TYPE}, the type can be declared in the
+ * specification of a package. This only works for calls to PL/SQL, not in
+ * SQL statements.</p>
+ *
+ * <h2>PL/SQL</h2>
+ * <pre><code> CREATE OR REPLACE PACKAGE my_package AS
+ *   TYPE number_table IS TABLE OF NUMBER INDEX BY PLS_INTEGER;
+ *   PROCEDURE my_procedure(p_ids number_table);
+ * END my_package;</code></pre>
+ *
+ * <h2>JdbcTemplate Example</h2>
+ * <pre><code> jdbcTemplate.update("BEGIN my_package.my_procedure(?); END;", new SqlOracleIndexTableValue(ids));</code></pre>
+ *
+ * <p>Arrays of {@code int}, {@code long} and {@code double} are passed to
+ * the driver as they are, avoiding boxing every element.</p>
+ *
+ * <p>ojdbc only supports binding index-by tables by index, not by name.
+ * This class therefore does not implement {@link NamedSqlValue} and can not
+ * be used with {@link OracleNamedParameterJdbcTemplate}.</p>
+ *
+ * <p>Instances are immutable and can be bound any number of times.</p>
+ *
+ * @see SqlOracleArrayValue
+ */
+public final class SqlOracleIndexTableValue implements SqlValue {
+
+  /**
+   * Either a {@code String[]} or an array of primitives.
+   */
+  private final Object values;
+
+  private final int length;
+
+  private final int elementSqlType;
+
+  private final int elementMaxLength;
+
+  /**
+   * Creates a new value for an index-by table of {@code NUMBER}.
+   *
+   * @param values the values, passed to the driver without boxing, not {@code null}
+   */
+  public SqlOracleIndexTableValue(int[] values) {
+    this(values, values.length, OracleTypes.NUMBER, 0);
+  }
+
+  /**
+   * Creates a new value for an index-by table of {@code NUMBER}.
+   *
+   * @param values the values, passed to the driver without boxing, not {@code null}
+   */
+  public SqlOracleIndexTableValue(long[] values) {
+    this(values, values.length, OracleTypes.NUMBER, 0);
+  }
+
+  /**
+   * Creates a new value for an index-by table of {@code NUMBER}.
+   *
+   * @param values the values, passed to the driver without boxing, not {@code null}
+   */
+  public SqlOracleIndexTableValue(double[] values) {
+    this(values, values.length, OracleTypes.NUMBER, 0);
+  }
+
+  /**
+   * Creates a new value for an index-by table of {@code VARCHAR2}.
+   *
+   * @param values the values, elements may be {@code null}, not {@code null}
+   */
+  public SqlOracleIndexTableValue(String... values) {
+    this(values, values.length, OracleTypes.VARCHAR, maxLength(values));
+  }
+
+  private SqlOracleIndexTableValue(Object values, int length, int elementSqlType, int elementMaxLength) {
+    Objects.requireNonNull(values, "values");
+    this.values = values;
+    this.length = length;
+    this.elementSqlType = elementSqlType;
+    this.elementMaxLength = elementMaxLength;
+  }
+
+  private static int maxLength(String[] values) {
+    // the driver rejects a maximum length of 0
+    int maxLength = 1;
+    for (String value : values) {
+      if (value != null) {
+        maxLength = Math.max(maxLength, value.length());
+      }
+    }
+    return maxLength;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setValue(PreparedStatement ps, int paramIndex) throws SQLException {
+    // the driver rejects a maximum table length of 0
+    int maxLength = Math.max(this.length, 1);
+    ps.unwrap(OraclePreparedStatement.class)
+      .setPlsqlIndexTable(paramIndex, this.values, maxLength, this.length, this.elementSqlType, this.elementMaxLength);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Does nothing as no resources are allocated.</p>
+   */
+  @Override
+  public void cleanup() {
+    // nothing to free
+  }
+
+  @Override
+  public String toString() {
+    return "index-by table(" + this.length + " elements)";
+  }
+
+}
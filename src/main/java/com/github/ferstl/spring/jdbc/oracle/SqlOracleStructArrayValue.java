@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Function;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+/**
+ * Binds a collection of Java objects as an Oracle array of an Oracle
+ * {@code OBJECT} type, one {@link java.sql.Struct} per element.
+ *
+ * <p>This allows multi column lookups and bulk inserts with a single bind
+ * variable and a single roundtrip instead of {@code OR} chains or one
+ * statement per row.</p>
+ *
+ * <h2>SQL Syntax</h2>
+ * <pre><code> CREATE TYPE key_type AS OBJECT (id NUMBER(5), numval NUMBER(10));
+ * CREATE TYPE key_table AS TABLE OF key_type;
+ *
+ * SELECT t.val
+ *   FROM test_table t
+ *   JOIN TABLE(:keys) k ON t.id = k.id AND t.numval = k.numval
+ *
+ * INSERT INTO test_table(id, val, numval)
+ *   SELECT r.id, r.val, r.numval FROM TABLE(:rows) r</code></pre>
+ *
+ * <h2>OracleNamedParameterJdbcTemplate Example</h2>
+ * <pre><code> Map&lt;String, Object&gt; map = Collections.singletonMap("keys",
+ *     new SqlOracleStructArrayValue&lt;&gt;("KEY_TABLE", "KEY_TYPE", keys, key -&gt; new Object[] {key.getId(), key.getNumval()}));
+ * namedParameterJdbcTemplate.query(sql, new MapSqlParameterSource(map), (rs, i) -&gt; ...);
+ * </code></pre>
+ *
+ * <p>Elements that already are attribute arrays can be bound with
+ * {@link Function#identity()}. The attributes have to be in the order in
+ * which they are declared in the {@code OBJECT} type.</p>
+ *
+ * <p>Instances can be bound any number of times, the attributes are
+ * extracted again for every bind. Every bind creates a new {@link Array}.
+ * Arrays bound by {@link OracleNamedParameterJdbcTemplate} are freed when
+ * the statement they are bound to is cleaned up, {@link #cleanup()} only
+ * frees the arrays created by {@code setValue}, see {@link SqlOracleArrayValue}.</p>
+ *
+ * @param <T> the type of the elements
+ * @see SqlOracleArrayValue
+ */
+public final class SqlOracleStructArrayValue<T> implements NamedSqlValue {
+
+  private final String arrayTypeName;
+
+  private final String structTypeName;
+
+  private final Collection<? extends T> values;
+
+  private final Function<? super T, Object[]> attributesExtractor;
+
+  /**
+   * The arrays created by {@code setValue} that have not been freed yet.
+   */
+  private final StatementArrays arrays;
+
+  /**
+   * Creates a new value.
+   *
+   * @param arrayTypeName the name of the SQL collection type, not {@code null}
+   * @param structTypeName the name of the SQL object type of the elements, not {@code null}
+   * @param values the elements, not {@code null}
+   * @param attributesExtractor returns the attributes of the SQL object of an element
+   *        in declaration order, not {@code null}
+   */
+  public SqlOracleStructArrayValue(String arrayTypeName, String structTypeName, Collection<? extends T> values,
+          Function<? super T, Object[]> attributesExtractor) {
+    Objects.requireNonNull(arrayTypeName, "arrayTypeName");
+    Objects.requireNonNull(structTypeName, "structTypeName");
+    Objects.requireNonNull(values, "values");
+    Objects.requireNonNull(attributesExtractor, "attributesExtractor");
+    this.arrayTypeName = arrayTypeName;
+    this.structTypeName = structTypeName;
+    this.values = values;
+    this.attributesExtractor = attributesExtractor;
+    this.arrays = new StatementArrays();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setValue(PreparedStatement ps, int paramIndex) throws SQLException {
+    Array array = this.createArray(ps.getConnection());
+    ps.setArray(paramIndex, array);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setValue(PreparedStatement ps, String paramName) throws SQLException {
+    Array array = this.createArray(ps.getConnection());
+    ps.unwrap(OraclePreparedStatement.class).setArrayAtName(paramName, array);
+  }
+
+  private Array createArray(Connection conn) throws SQLException {
+    Array array = this.createUntrackedArray(conn);
+    this.arrays.add(array);
+    return array;
+  }
+
+  /**
+   * Creates a new array of the values that is not freed by {@link #cleanup()}.
+   *
+   * @param conn the connection of the statement the array is bound to
+   * @return the array, to be freed by the caller
+   * @throws SQLException if creating the array fails
+   */
+  Array createUntrackedArray(Connection conn) throws SQLException {
+    OracleConnection oracleConnection = conn.unwrap(OracleConnection.class);
+    Object[] structs = new Object[this.values.size()];
+    int i = 0;
+    for (T value : this.values) {
+      // a null element is bound as an atomically null object
+      structs[i++] = value != null ? oracleConnection.createStruct(this.structTypeName, this.attributesExtractor.apply(value)) : null;
+    }
+    // the descriptors of the types are cached by OJDBC per physical connection
+    return oracleConnection.createOracleArray(this.arrayTypeName, structs);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Frees all the arrays created by {@code setValue}.</p>
+   */
+  @Override
+  public void cleanup() {
+    this.arrays.free();
+  }
+
+  @Override
+  public String toString() {
+    return this.arrayTypeName + '(' + this.values.size() + " elements)";
+  }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.dao.CleanupFailureDataAccessException;
+
+/**
+ * Tracks the {@link Array}s bound to a single statement so that they can
+ * be freed once the statement is cleaned up.
+ *
+ * <p>Every statement creator or batch setter owns its own instance, the
+ * arrays of one statement are therefore never freed by the cleanup of
+ * another statement, even if both bind the same value on the same thread,
+ * eg. a nested query. The arrays may be freed from a different thread than
+ * the one that bound them, eg. the thread of the driver completing a
+ * reactive statement.</p>
+ */
+final class StatementArrays {
+
+  // bound and freed by different threads
+  private final List<Array> arrays;
+
+  StatementArrays() {
+    this.arrays = new ArrayList<>(0);
+  }
+
+  /**
+   * Remembers an array bound to the statement.
+   *
+   * @param array the array to free later, not {@code null}
+   */
+  synchronized void add(Array array) {
+    this.arrays.add(array);
+  }
+
+  /**
+   * Frees all the arrays bound to the statement, may be called from
+   * any thread and several times, every array is only freed once.
+   *
+   * @throws CleanupFailureDataAccessException if freeing any of the arrays fails
+   */
+  void free() {
+    List<Array> created;
+    synchronized (this) {
+      if (this.arrays.isEmpty()) {
+        return;
+      }
+      created = new ArrayList<>(this.arrays);
+      this.arrays.clear();
+    }
+    freeAll(created);
+  }
+
+  /**
+   * Frees arrays.
+   *
+   * @param arrays the arrays to free, not {@code null}
+   * @throws CleanupFailureDataAccessException if freeing any of the arrays fails
+   */
+  static void freeAll(List<Array> arrays) {
+    // https://docs.oracle.com/javase/tutorial/jdbc/basics/array.html#releasing_array
+    SQLException exception = null;
+    for (Array array : arrays) {
+      try {
+        array.free();
+      } catch (SQLException e) {
+        if (exception == null) {
+          exception = e;
+        } else {
+          exception.addSuppressed(e);
+        }
+      }
+    }
+    if (exception != null) {
+      throw new CleanupFailureDataAccessException("could not free array", exception);
+    }
+  }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.util.Objects;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes {@link StatementCacheStatistics} as Micrometer meters.
+ *
+ * <p>For every cache key the function counters
+ * {@value #HITS}, {@value #MISSES} and {@value #CLOSES} are registered
+ * with a {@code key} tag. Keys seen after binding are registered as they
+ * appear. Requires {@code io.micrometer:micrometer-core}.</p>
+ */
+public final class StatementCacheMeterBinder implements MeterBinder {
+
+  static final String HITS = "oracle.statement.cache.hits";
+
+  static final String MISSES = "oracle.statement.cache.misses";
+
+  static final String CLOSES = "oracle.statement.cache.closes";
+
+  private final StatementCacheStatistics statistics;
+
+  private final Iterable<Tag> tags;
+
+  /**
+   * Creates a new binder.
+   *
+   * @param statistics the statistics to expose, not {@code null}
+   */
+  public StatementCacheMeterBinder(StatementCacheStatistics statistics) {
+    this(statistics, Tags.empty());
+  }
+
+  /**
+   * Creates a new binder.
+   *
+   * @param statistics the statistics to expose, not {@code null}
+   * @param tags additional tags for all the meters, eg. the data source name, not {@code null}
+   */
+  public StatementCacheMeterBinder(StatementCacheStatistics statistics, Iterable<Tag> tags) {
+    Objects.requireNonNull(statistics, "statistics");
+    Objects.requireNonNull(tags, "tags");
+    this.statistics = statistics;
+    this.tags = tags;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    this.statistics.addKeyListener(key -> this.bindKey(registry, key));
+  }
+
+  private void bindKey(MeterRegistry registry, String key) {
+    Tags keyTags = Tags.of(this.tags).and("key", key);
+    FunctionCounter.builder(HITS, this.statistics, s -> s.getHits(key))
+      .tags(keyTags)
+      .description("Statements found in the explicit statement cache")
+      .register(registry);
+    FunctionCounter.builder(MISSES, this.statistics, s -> s.getMisses(key))
+      .tags(keyTags)
+      .description("Statements not found in the explicit statement cache and prepared")
+      .register(registry);
+    FunctionCounter.builder(CLOSES, this.statistics, s -> s.getCloses(key))
+      .tags(keyTags)
+      .description("Statements returned to the explicit statement cache")
+      .register(registry);
+  }
+
+}
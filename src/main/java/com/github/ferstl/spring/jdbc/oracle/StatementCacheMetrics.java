@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+/**
+ * Receives events of the OJDBC explicit statement cache.
+ *
+ * <p>Methods are called on the hot path for every statement execution and
+ * should therefore be cheap and never block. All methods do nothing by
+ * default.</p>
+ *
+ * @see StatementCacheStatistics
+ * @see CachedPreparedStatementCreator
+ * @see OracleNamedParameterJdbcTemplate#setStatementCacheMetrics(StatementCacheMetrics)
+ */
+public interface StatementCacheMetrics {
+
+  /**
+   * Does not record anything.
+   */
+  StatementCacheMetrics NONE = new StatementCacheMetrics() {
+    // all methods are no-ops
+  };
+
+  /**
+   * Called when a statement was found in the explicit statement cache.
+   *
+   * @param key the cache key of the statement
+   */
+  default void hit(String key) {
+  }
+
+  /**
+   * Called when a statement was not found in the explicit statement cache
+   * and had to be prepared.
+   *
+   * @param key the cache key of the statement
+   */
+  default void miss(String key) {
+  }
+
+  /**
+   * Called when a statement was returned to the explicit statement cache.
+   *
+   * @param key the cache key of the statement
+   */
+  default void close(String key) {
+  }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Counts explicit statement cache hits, misses and closes per cache key.
+ *
+ * <p>The counters are {@link LongAdder}s so that they can be updated
+ * concurrently without contention. Once a key has been seen updating its
+ * counters does not allocate. The number of misses is the number of
+ * statements prepared, this can be used to size
+ * {@link oracle.jdbc.OracleConnection#setStatementCacheSize(int)}.</p>
+ *
+ * @see StatementCacheMeterBinder
+ */
+public final class StatementCacheStatistics implements StatementCacheMetrics {
+
+  private final ConcurrentMap<String, KeyStatistics> statistics;
+
+  private final CopyOnWriteArrayList<Consumer<String>> keyListeners;
+
+  /**
+   * Creates new statistics with all counters at zero.
+   */
+  public StatementCacheStatistics() {
+    this.statistics = new ConcurrentHashMap<>();
+    this.keyListeners = new CopyOnWriteArrayList<>();
+  }
+
+  @Override
+  public void hit(String key) {
+    this.getStatistics(key).hits.increment();
+  }
+
+  @Override
+  public void miss(String key) {
+    this.getStatistics(key).misses.increment();
+  }
+
+  @Override
+  public void close(String key) {
+    this.getStatistics(key).closes.increment();
+  }
+
+  /**
+   * Returns the cache keys for which events have been recorded.
+   *
+   * @return the cache keys, not {@code null}
+   */
+  public Set<String> getKeys() {
+    return Collections.unmodifiableSet(this.statistics.keySet());
+  }
+
+  /**
+   * Returns the number of times a statement was found in the cache.
+   *
+   * @param key the cache key of the statement
+   * @return the number of hits
+   */
+  public long getHits(String key) {
+    KeyStatistics keyStatistics = this.statistics.get(key);
+    return keyStatistics != null ? keyStatistics.hits.sum() : 0L;
+  }
+
+  /**
+   * Returns the number of times a statement was not found in the cache
+   * and had to be prepared.
+   *
+   * @param key the cache key of the statement
+   * @return the number of misses
+   */
+  public long getMisses(String key) {
+    KeyStatistics keyStatistics = this.statistics.get(key);
+    return keyStatistics != null ? keyStatistics.misses.sum() : 0L;
+  }
+
+  /**
+   * Returns the number of times a statement was returned to the cache.
+   *
+   * @param key the cache key of the statement
+   * @return the number of closes
+   */
+  public long getCloses(String key) {
+    KeyStatistics keyStatistics = this.statistics.get(key);
+    return keyStatistics != null ? keyStatistics.closes.sum() : 0L;
+  }
+
+  /**
+   * Registers a listener that is called for every key already seen and
+   * once for every key seen in the future.
+   *
+   * @param listener the listener, not {@code null}
+   */
+  void addKeyListener(Consumer<String> listener) {
+    this.keyListeners.add(listener);
+    for (String key : this.statistics.keySet()) {
+      listener.accept(key);
+    }
+  }
+
+  private KeyStatistics getStatistics(String key) {
+    KeyStatistics keyStatistics = this.statistics.get(key);
+    if (keyStatistics != null) {
+      return keyStatistics;
+    }
+    KeyStatistics newStatistics = new KeyStatistics();
+    keyStatistics = this.statistics.putIfAbsent(key, newStatistics);
+    if (keyStatistics != null) {
+      return keyStatistics;
+    }
+    for (Consumer<String> listener : this.keyListeners) {
+      listener.accept(key);
+    }
+    return newStatistics;
+  }
+
+  static final class KeyStatistics {
+
+    final LongAdder hits = new LongAdder();
+
+    final LongAdder misses = new LongAdder();
+
+    final LongAdder closes = new LongAdder();
+
+  }
+
+}
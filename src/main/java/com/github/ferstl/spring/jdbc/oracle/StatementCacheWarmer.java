@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.support.JdbcUtils;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+/**
+ * Prepares a set of statements ahead of time and puts them into the OJDBC
+ * explicit statement cache of a connection.
+ *
+ * <p>Without warming every new physical connection, eg. after a failover
+ * or when the pool grows, prepares the statements one by one on the first
+ * requests using it.</p>
+ *
+ * <p>The warmer remembers the physical connections it has warmed so that
+ * every connection is only warmed once, without keeping them from being
+ * garbage collected. Warming enables explicit statement caching if it is
+ * not yet enabled, eg. by the pool, and only prepares the statements that
+ * are not yet cached. If warming fails the connection is warmed again the
+ * next time, explicit statement caching is disabled again if it was
+ * enabled by the warmer.</p>
+ *
+ * <p>Connections can either be warmed on checkout with
+ * {@link StatementCacheWarmingDataSource} or all at once at startup with
+ * {@link #warm(DataSource, int, Executor)}.</p>
+ *
+ * @see CachedPreparedStatementCreator
+ */
+public final class StatementCacheWarmer {
+
+  private final List<CachedPreparedStatementCreator> creators;
+
+  private final int statementCacheSize;
+
+  private final Set<OracleConnection> warmedConnections;
+
+  /**
+   * Creates a new warmer.
+   *
+   * @param creators the statements to prepare, not {@code null}
+   * @param statementCacheSize the statement cache size to set if none is set yet,
+   *        should be at least the number of statements
+   */
+  public StatementCacheWarmer(Collection<CachedPreparedStatementCreator> creators, int statementCacheSize) {
+    Objects.requireNonNull(creators, "creators");
+    if (statementCacheSize < 0) {
+      throw new IllegalArgumentException("statementCacheSize must not be negative");
+    }
+    this.creators = new ArrayList<>(creators);
+    this.statementCacheSize = statementCacheSize;
+    this.warmedConnections = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+  }
+
+  /**
+   * Warms a connection if it has not been warmed yet.
+   *
+   * @param connection the connection to warm, not {@code null}
+   * @return {@code true} if the connection was warmed, {@code false} if
+   *         it had already been warmed
+   * @throws SQLException if preparing a statement fails
+   */
+  public boolean warm(Connection connection) throws SQLException {
+    OracleConnection oracleConnection = connection.unwrap(OracleConnection.class);
+    if (this.warmedConnections.contains(oracleConnection)) {
+      return false;
+    }
+    boolean enableExplicitCaching = !oracleConnection.getExplicitCachingEnabled();
+    if (enableExplicitCaching) {
+      if (oracleConnection.getStatementCacheSize() == 0) {
+        oracleConnection.setStatementCacheSize(this.statementCacheSize);
+      }
+      // closeWithKey requires explicit caching to be enabled
+      oracleConnection.setExplicitCachingEnabled(true);
+    }
+    try {
+      for (CachedPreparedStatementCreator creator : this.creators) {
+        String key = creator.getKey();
+        // getStatementWithKey removes the statement from the cache
+        PreparedStatement statement = oracleConnection.getStatementWithKey(key);
+        if (statement == null) {
+          statement = oracleConnection.prepareStatement(creator.getSql());
+        }
+        try {
+          statement.unwrap(OraclePreparedStatement.class).closeWithKey(key);
+        } catch (SQLException | RuntimeException e) {
+          JdbcUtils.closeStatement(statement);
+          throw e;
+        }
+      }
+    } catch (SQLException | RuntimeException e) {
+      if (enableExplicitCaching) {
+        disableExplicitCaching(oracleConnection, e);
+      }
+      throw e;
+    }
+    this.warmedConnections.add(oracleConnection);
+    return true;
+  }
+
+  /**
+   * Disables explicit caching enabled by a failed warming, this also closes
+   * the statements cached so far.
+   */
+  private static void disableExplicitCaching(OracleConnection oracleConnection, Exception failure) {
+    try {
+      oracleConnection.setExplicitCachingEnabled(false);
+    } catch (SQLException | RuntimeException e) {
+      failure.addSuppressed(e);
+    }
+  }
+
+  /**
+   * Warms connections of a pool at startup.
+   *
+   * <p>All the connections are checked out at the same time so that the pool
+   * has to hand out different connections. The pool therefore has to allow
+   * at least {@code connectionCount} active connections. The connections are
+   * only returned to the pool once all of them are done, even if warming one
+   * of them fails.</p>
+   *
+   * @param dataSource the pooled data source, not {@code null}
+   * @param connectionCount the number of connections to warm
+   * @param executor the executor used to warm the connections,
+   *        eg. {@code Runnable::run} to warm the connections one after the other
+   * @return the number of connections warmed
+   * @throws SQLException if checking out a connection or preparing a statement fails
+   */
+  public int warm(DataSource dataSource, int connectionCount, Executor executor) throws SQLException {
+    Objects.requireNonNull(dataSource, "dataSource");
+    Objects.requireNonNull(executor, "executor");
+    List<Connection> connections = new ArrayList<>(connectionCount);
+    List<CompletableFuture<Boolean>> warmed = new ArrayList<>(connectionCount);
+    try {
+      for (int i = 0; i < connectionCount; i++) {
+        connections.add(dataSource.getConnection());
+      }
+      for (Connection connection : connections) {
+        warmed.add(CompletableFuture.supplyAsync(() -> {
+          try {
+            return this.warm(connection);
+          } catch (SQLException e) {
+            throw new CompletionException(e);
+          }
+        }, executor));
+      }
+    } finally {
+      // a connection still being warmed must not be handed out by the pool again
+      awaitCompletion(warmed);
+      for (Connection connection : connections) {
+        JdbcUtils.closeConnection(connection);
+      }
+    }
+    int warmedCount = 0;
+    for (CompletableFuture<Boolean> future : warmed) {
+      if (join(future)) {
+        warmedCount += 1;
+      }
+    }
+    return warmedCount;
+  }
+
+  private static void awaitCompletion(List<CompletableFuture<Boolean>> futures) {
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+      .handle((result, failure) -> null)
+      .join();
+  }
+
+  private static boolean join(CompletableFuture<Boolean> future) throws SQLException {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Objects;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * Warms the explicit statement cache of new connections when they are
+ * checked out of a pool.
+ *
+ * <p>Wraps a pooled data source like Commons DBCP or the Tomcat JDBC
+ * Connection Pool, also if the pool enables explicit statement caching
+ * itself. Connections that have already been warmed cost one additional
+ * check on checkout.</p>
+ *
+ * <pre><code>
+ * &#64;Bean
+ * public DataSource dataSource() {
+ *   return new StatementCacheWarmingDataSource(pooledDataSource(), warmer);
+ * }
+ * </code></pre>
+ *
+ * @see StatementCacheWarmer
+ */
+public final class StatementCacheWarmingDataSource extends DelegatingDataSource {
+
+  private final StatementCacheWarmer warmer;
+
+  /**
+   * Creates a new data source.
+   *
+   * @param targetDataSource the pooled data source, not {@code null}
+   * @param warmer the warmer to use for new connections, not {@code null}
+   */
+  public StatementCacheWarmingDataSource(DataSource targetDataSource, StatementCacheWarmer warmer) {
+    super(targetDataSource);
+    Objects.requireNonNull(warmer, "warmer");
+    this.warmer = warmer;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return this.warm(super.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return this.warm(super.getConnection(username, password));
+  }
+
+  private Connection warm(Connection connection) throws SQLException {
+    try {
+      this.warmer.warm(connection);
+    } catch (SQLException | RuntimeException e) {
+      JdbcUtils.closeConnection(connection);
+      throw e;
+    }
+    return connection;
+  }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * The result columns of a statement, described at most once.
+ *
+ * <p>Describing a statement that has not been executed yet needs a round
+ * trip to the database. Both the {@link ColumnDefineCache} and the
+ * {@link FetchSizePolicy} describe a query the first time it is executed,
+ * a statement creator using both shares a single instance between them so
+ * that the query is only described once.</p>
+ */
+final class StatementDescription {
+
+  private final PreparedStatement statement;
+
+  private boolean described;
+
+  @Nullable
+  private ResultSetMetaData metaData;
+
+  StatementDescription(PreparedStatement statement) {
+    this.statement = statement;
+  }
+
+  /**
+   * Describes the statement the first time this method is called.
+   *
+   * @return the result columns of the statement, possibly {@code null}
+   * @throws SQLException if describing the statement fails
+   * @see PreparedStatement#getMetaData()
+   */
+  @Nullable
+  ResultSetMetaData getMetaData() throws SQLException {
+    if (!this.described) {
+      this.metaData = this.statement.getMetaData();
+      this.described = true;
+    }
+    return this.metaData;
+  }
+
+}
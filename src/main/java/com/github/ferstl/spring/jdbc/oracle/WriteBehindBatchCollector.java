@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Collects rows from many threads and writes them as batches in as few
+ * transactions as possible (group commit).
+ *
+ * <p>Instead of every thread executing and committing its own single row
+ * statement, the rows are queued and a single background thread executes
+ * them with {@link NamedParameterJdbcOperations#batchUpdate(String, SqlParameterSource[])}
+ * once either {@code batchSize} rows are pending or {@code maxDelay} has
+ * passed, whatever happens first. Every batch is executed in its own
+ * transaction and therefore on a single connection.</p>
+ *
+ * <h2>Example</h2>
+ * <pre><code> WriteBehindBatchCollector collector = new WriteBehindBatchCollector(namedParameterJdbcTemplate,
+ *     new TransactionTemplate(transactionManager),
+ *     "INSERT INTO audit_log(id, message) VALUES(audit_seq.nextval, :message)",
+ *     500, 10L, TimeUnit.MILLISECONDS);
+ *
+ * collector.add(new MapSqlParameterSource("message", message))
+ *   .thenAccept(rowCount -&gt; ...);
+ * </code></pre>
+ *
+ * <p>The future returned for a row completes once the transaction of its
+ * batch has been committed, or exceptionally if the batch failed, in which
+ * case the whole batch has been rolled back. Rows are written in the order
+ * in which they were added.</p>
+ *
+ * <p>Unless a completion executor is given the futures are completed on
+ * the background thread, dependent stages that block or take long have to
+ * use the {@code *Async} methods of {@link CompletableFuture}, otherwise
+ * they delay all following batches.</p>
+ *
+ * <p>Rows are held in memory until they are written, they are lost if the
+ * JVM exits before. {@link #close()} writes all pending rows.</p>
+ */
+public final class WriteBehindBatchCollector implements AutoCloseable {
+
+  private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+  private final NamedParameterJdbcOperations jdbcOperations;
+
+  private final TransactionOperations transactionOperations;
+
+  private final String sql;
+
+  private final int batchSize;
+
+  private final Queue<PendingRow> pendingRows;
+
+  /**
+   * The number of rows in {@link #pendingRows}, avoids the linear
+   * {@link Queue#size()} of {@link ConcurrentLinkedQueue}.
+   */
+  private final AtomicInteger pendingCount;
+
+  private final AtomicBoolean flushRequested;
+
+  private final AtomicBoolean closed;
+
+  /**
+   * Single thread, all batches are executed one after the other.
+   */
+  private final ScheduledExecutorService flusher;
+
+  /**
+   * The thread of {@link #flusher}, {@link #close()} must not wait for it
+   * when called from it.
+   */
+  private volatile Thread flusherThread;
+
+  /**
+   * Completes the futures of the rows.
+   */
+  private final Executor completionExecutor;
+
+  /**
+   * Creates a new collector and starts its background thread.
+   *
+   * @param jdbcOperations used to execute the batches, not {@code null}
+   * @param transactionOperations used to execute every batch in its own transaction,
+   *        eg. a {@link org.springframework.transaction.support.TransactionTemplate}, not {@code null}
+   * @param sql the statement executed for every row, not {@code null}
+   * @param batchSize the number of pending rows that causes a batch to be written
+   * @param maxDelay the maximum time between batches, pending rows are written
+   *        at least this often
+   * @param unit the unit of {@code maxDelay}, not {@code null}
+   */
+  public WriteBehindBatchCollector(NamedParameterJdbcOperations jdbcOperations, TransactionOperations transactionOperations,
+          String sql, int batchSize, long maxDelay, TimeUnit unit) {
+    // completes the futures directly on the background thread
+    this(jdbcOperations, transactionOperations, sql, batchSize, maxDelay, unit, Runnable::run);
+  }
+
+  /**
+   * Creates a new collector that completes the futures of the rows on
+   * an executor and starts its background thread.
+   *
+   * @param jdbcOperations used to execute the batches, not {@code null}
+   * @param transactionOperations used to execute every batch in its own transaction,
+   *        eg. a {@link org.springframework.transaction.support.TransactionTemplate}, not {@code null}
+   * @param sql the statement executed for every row, not {@code null}
+   * @param batchSize the number of pending rows that causes a batch to be written
+   * @param maxDelay the maximum time between batches, pending rows are written
+   *        at least this often
+   * @param unit the unit of {@code maxDelay}, not {@code null}
+   * @param completionExecutor completes the futures of the rows of a batch, the
+   *        background thread completes them if it rejects, not {@code null}
+   */
+  public WriteBehindBatchCollector(NamedParameterJdbcOperations jdbcOperations, TransactionOperations transactionOperations,
+          String sql, int batchSize, long maxDelay, TimeUnit unit, Executor completionExecutor) {
+    Objects.requireNonNull(jdbcOperations, "jdbcOperations");
+    Objects.requireNonNull(transactionOperations, "transactionOperations");
+    Objects.requireNonNull(sql, "sql");
+    Objects.requireNonNull(unit, "unit");
+    Objects.requireNonNull(completionExecutor, "completionExecutor");
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be positive");
+    }
+    if (maxDelay <= 0L) {
+      throw new IllegalArgumentException("maxDelay must be positive");
+    }
+    this.jdbcOperations = jdbcOperations;
+    this.transactionOperations = transactionOperations;
+    this.sql = sql;
+    this.batchSize = batchSize;
+    this.pendingRows = new ConcurrentLinkedQueue<>();
+    this.pendingCount = new AtomicInteger();
+    this.flushRequested = new AtomicBoolean();
+    this.closed = new AtomicBoolean();
+    this.completionExecutor = completionExecutor;
+    this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "write-behind-batch-" + THREAD_NUMBER.incrementAndGet());
+      thread.setDaemon(true);
+      this.flusherThread = thread;
+      return thread;
+    });
+    this.flusher.scheduleWithFixedDelay(this::flushPeriodically, maxDelay, maxDelay, unit);
+  }
+
+  /**
+   * Adds a row to be written with the next batch.
+   *
+   * @param row the values of the bind variables, not {@code null}
+   * @return completes with the number of rows affected once the batch
+   *         containing the row has been committed
+   * @throws IllegalStateException if the collector has been closed
+   */
+  public CompletableFuture<Integer> add(SqlParameterSource row) {
+    Objects.requireNonNull(row, "row");
+    if (this.closed.get()) {
+      throw new IllegalStateException("collector is closed");
+    }
+    PendingRow pendingRow = new PendingRow(row);
+    this.pendingRows.add(pendingRow);
+    int pendingCount = this.pendingCount.incrementAndGet();
+    if (this.closed.get()) {
+      // closed concurrently, #close() may already have failed the pending rows
+      if (this.pendingRows.remove(pendingRow)) {
+        this.pendingCount.decrementAndGet();
+        throw new IllegalStateException("collector is closed");
+      }
+      // taken by #flush() or #close(), which complete it
+      return pendingRow.future;
+    }
+    if (pendingCount >= this.batchSize && this.flushRequested.compareAndSet(false, true)) {
+      try {
+        this.flusher.execute(this::flush);
+      } catch (RejectedExecutionException e) {
+        // closed concurrently, the row is written or failed by #close()
+      }
+    }
+    return pendingRow.future;
+  }
+
+  /**
+   * Writes all pending rows and stops the background thread.
+   *
+   * <p>Waits until all pending rows have been written, unless called from
+   * the background thread, eg. from a dependent stage of a future. Rows added
+   * concurrently with closing may fail with an {@link IllegalStateException}.</p>
+   */
+  @Override
+  public void close() {
+    if (!this.closed.compareAndSet(false, true)) {
+      return;
+    }
+    this.flusher.execute(this::flush);
+    this.flusher.shutdown();
+    if (Thread.currentThread() == this.flusherThread) {
+      // waiting would never end, the pending rows are written after the current batch
+      return;
+    }
+    try {
+      this.flusher.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      // the rows still pending are written by the background thread
+      Thread.currentThread().interrupt();
+      return;
+    }
+    PendingRow pendingRow;
+    while ((pendingRow = this.pendingRows.poll()) != null) {
+      pendingRow.future.completeExceptionally(new IllegalStateException("collector is closed"));
+    }
+  }
+
+  private void flushPeriodically() {
+    try {
+      this.flush();
+    } catch (Error e) {
+      // rethrowing would cancel all later runs, the futures of the batch have already failed
+      Thread thread = Thread.currentThread();
+      thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
+  }
+
+  private void flush() {
+    this.flushRequested.set(false);
+    // the count is updated after the queue and may briefly be negative
+    List<PendingRow> batch = new ArrayList<>(Math.max(0, Math.min(this.pendingCount.get(), this.batchSize)));
+    PendingRow pendingRow;
+    while ((pendingRow = this.pendingRows.poll()) != null) {
+      this.pendingCount.decrementAndGet();
+      batch.add(pendingRow);
+      if (batch.size() == this.batchSize) {
+        this.execute(batch);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      this.execute(batch);
+    }
+  }
+
+  private void execute(List<PendingRow> batch) {
+    SqlParameterSource[] batchArgs = new SqlParameterSource[batch.size()];
+    for (int i = 0; i < batchArgs.length; i++) {
+      batchArgs[i] = batch.get(i).row;
+    }
+    int[] rowCounts;
+    try {
+      rowCounts = this.transactionOperations.execute(status -> this.jdbcOperations.batchUpdate(this.sql, batchArgs));
+    } catch (Exception e) {
+      // the whole transaction has been rolled back, not rethrown as that
+      // would stop the periodic flushing
+      this.fail(batch, e);
+      return;
+    } catch (Error e) {
+      // the rows still queued are written by the next flush, the periodic
+      // flush does not rethrow so that it keeps running
+      failNow(batch, e);
+      throw e;
+    }
+    if (rowCounts == null || rowCounts.length != batchArgs.length) {
+      this.fail(batch, new IllegalStateException("batch returned unexpected row counts"));
+      return;
+    }
+    // copied as the batch is reused for the next rows
+    List<PendingRow> completed = new ArrayList<>(batch);
+    this.complete(() -> {
+      for (int i = 0; i < rowCounts.length; i++) {
+        completed.get(i).future.complete(rowCounts[i]);
+      }
+    });
+  }
+
+  private void fail(List<PendingRow> batch, Throwable failure) {
+    List<PendingRow> failed = new ArrayList<>(batch);
+    this.complete(() -> failNow(failed, failure));
+  }
+
+  private static void failNow(List<PendingRow> batch, Throwable failure) {
+    for (PendingRow failed : batch) {
+      failed.future.completeExceptionally(failure);
+    }
+  }
+
+  private void complete(Runnable completion) {
+    try {
+      this.completionExecutor.execute(completion);
+    } catch (RejectedExecutionException e) {
+      completion.run();
+    }
+  }
+
+  private static final class PendingRow {
+
+    final SqlParameterSource row;
+
+    final CompletableFuture<Integer> future;
+
+    PendingRow(SqlParameterSource row) {
+      this.row = row;
+      this.future = new CompletableFuture<>();
+    }
+
+  }
+
+}
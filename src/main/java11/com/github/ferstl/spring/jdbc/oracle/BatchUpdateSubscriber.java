@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+/**
+ * A {@link Flow.Subscriber} that writes the rows it receives in batches.
+ *
+ * <p>Rows are requested {@code batchSize} at a time. Once a batch is full it
+ * is executed asynchronously with
+ * {@link ReactiveOracleNamedParameterJdbcTemplate#batchUpdate(String, SqlParameterSource[])}
+ * and the next batch is only requested after the previous one has been
+ * executed. At most one batch is held in memory and the rate at which rows
+ * are requested follows the speed of the database.</p>
+ *
+ * <p>Starting a batch gets a connection and binds all of its rows, both may
+ * block. Batches are therefore started on an executor supplied by the
+ * caller, never on the thread of the driver completing the previous batch.
+ * The next batch is requested from the executor as well so that a
+ * synchronous publisher does not produce rows on the thread of the
+ * driver.</p>
+ *
+ * <h2>Example</h2>
+ * <pre><code> BatchUpdateSubscriber sink = new BatchUpdateSubscriber(reactiveTemplate,
+ *     "INSERT INTO events(id, payload) VALUES(:id, :payload)", 1000, executor);
+ * events.subscribe(sink);
+ * sink.getResult().thenAccept(rowCount -&gt; ...);
+ * </code></pre>
+ *
+ * <p>Every batch is executed on its own connection and committed if
+ * auto-commit is enabled on the connections of the pool. If a batch fails
+ * the subscription is cancelled and the result completes exceptionally, the
+ * batches that had been executed before are not rolled back. If the
+ * publisher fails the rows not yet written are discarded.</p>
+ *
+ * <p>An instance can only be subscribed once.</p>
+ */
+public final class BatchUpdateSubscriber implements Flow.Subscriber<SqlParameterSource> {
+
+  private final ReactiveOracleNamedParameterJdbcTemplate template;
+
+  private final String sql;
+
+  private final int batchSize;
+
+  private final Executor executor;
+
+  private final CompletableFuture<Long> result;
+
+  // signals are serial, written by signals and read by the completion of a batch
+  private volatile Flow.Subscription subscription;
+
+  private List<SqlParameterSource> batch;
+
+  private long rowCount;
+
+  /**
+   * Completes once the batch currently executing has been executed.
+   */
+  private CompletableFuture<Void> executing;
+
+  /**
+   * Creates a new subscriber.
+   *
+   * @param template executes the batches, not {@code null}
+   * @param sql the SQL statement to execute for every row, not {@code null}
+   * @param batchSize the number of rows requested and executed at a time
+   * @param executor starts the batches and requests the next ones, not {@code null}
+   */
+  public BatchUpdateSubscriber(ReactiveOracleNamedParameterJdbcTemplate template, String sql, int batchSize, Executor executor) {
+    Objects.requireNonNull(template, "template");
+    Objects.requireNonNull(sql, "sql");
+    Objects.requireNonNull(executor, "executor");
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be positive");
+    }
+    this.template = template;
+    this.sql = sql;
+    this.batchSize = batchSize;
+    this.executor = executor;
+    this.result = new CompletableFuture<>();
+    this.batch = new ArrayList<>(batchSize);
+    this.executing = CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Returns the result of all batches.
+   *
+   * @return completes with the total number of rows affected once the
+   *         publisher completed and all rows have been written
+   */
+  public CompletableFuture<Long> getResult() {
+    return this.result;
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    if (this.subscription != null) {
+      subscription.cancel();
+      return;
+    }
+    this.subscription = subscription;
+    subscription.request(this.batchSize);
+  }
+
+  @Override
+  public void onNext(SqlParameterSource row) {
+    Objects.requireNonNull(row, "row");
+    if (this.result.isDone()) {
+      // a previous batch failed
+      return;
+    }
+    this.batch.add(row);
+    if (this.batch.size() == this.batchSize) {
+      CompletableFuture<Void> requested = this.executeBatch().thenRunAsync(() -> {
+        if (!this.result.isDone()) {
+          this.subscription.request(this.batchSize);
+        }
+      }, this.executor);
+      this.failOnError(requested);
+    }
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    this.result.completeExceptionally(throwable);
+  }
+
+  @Override
+  public void onComplete() {
+    this.executeBatch().thenRun(() -> this.result.complete(this.rowCount));
+  }
+
+  private CompletableFuture<Void> executeBatch() {
+    SqlParameterSource[] batchArgs = this.batch.toArray(new SqlParameterSource[0]);
+    this.batch = new ArrayList<>(this.batchSize);
+    // the publisher may complete before the last full batch has been executed
+    // the previous batch completes on the thread of the driver
+    this.executing = this.executing.thenComposeAsync(previous -> {
+      if (batchArgs.length == 0 || this.result.isDone()) {
+        return CompletableFuture.completedFuture(null);
+      }
+      SumSubscriber rowCounts = new SumSubscriber();
+      this.template.batchUpdate(this.sql, batchArgs).subscribe(rowCounts);
+      return rowCounts.sum.handle((sum, failure) -> {
+        if (failure != null) {
+          this.fail(failure);
+        } else {
+          this.rowCount += sum;
+        }
+        return null;
+      });
+    }, this.executor);
+    // the batch may fail to start, eg. the executor rejects it
+    this.failOnError(this.executing);
+    return this.executing;
+  }
+
+  private void failOnError(CompletableFuture<Void> future) {
+    future.whenComplete((ignored, failure) -> {
+      if (failure != null) {
+        this.fail(failure);
+      }
+    });
+  }
+
+  private void fail(Throwable failure) {
+    Throwable cause = failure;
+    if (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    this.subscription.cancel();
+    this.result.completeExceptionally(cause);
+  }
+
+  /**
+   * Sums the row counts of a batch.
+   */
+  static final class SumSubscriber implements Flow.Subscriber<Long> {
+
+    final CompletableFuture<Long> sum = new CompletableFuture<>();
+
+    private long total;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(Long rowCount) {
+      if (rowCount > 0L) {
+        this.total += rowCount;
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      this.sum.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      this.sum.complete(this.total);
+    }
+
+  }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import oracle.jdbc.OracleRow;
+
+/**
+ * A non-blocking counterpart to {@link OracleNamedParameterJdbcTemplate}
+ * based on the Reactive Extensions of ojdbc11.
+ *
+ * <p>Statements are bound the same way as by the
+ * {@link OracleNamedParameterJdbcTemplate} the instance is created from,
+ * using native named binding, including {@link SqlOracleArrayValue},
+ * registered collection types, null types and explicit statement caching.
+ * They are executed with {@code executeQueryAsyncOracle()},
+ * {@code executeUpdateAsyncOracle()} and {@code executeBatchAsyncOracle()}.</p>
+ *
+ * <h2>Example</h2>
+ * <pre><code> ReactiveOracleNamedParameterJdbcTemplate reactiveTemplate = new ReactiveOracleNamedParameterJdbcTemplate(template);
+ * Flow.Publisher&lt;String&gt; values = reactiveTemplate.query("SELECT val FROM some_table WHERE id = ANY(SELECT column_value FROM TABLE(:ids))",
+ *     Collections.singletonMap("ids", new SqlOracleArrayValue("NUMBER_TABLE", ids)), row -&gt; row.getObject(1, String.class));
+ * </code></pre>
+ *
+ * <p>All publishers are cold, the statement is only executed once a
+ * subscriber subscribes and is executed again for every subscriber. Rows
+ * are fetched on demand, at most fetch size rows at a time. Every
+ * subscription uses its own connection from the {@link DataSource} of
+ * the template which is returned to the pool once the publisher completes,
+ * fails or is cancelled. Connections are not taken from and do not take
+ * part in Spring managed transactions, updates are committed if auto-commit
+ * is enabled on the connections of the pool.</p>
+ *
+ * <p>Checking out a connection from the pool is the only blocking
+ * operation, it happens on the subscribing thread. Signals are emitted on
+ * the threads of ojdbc. {@link java.sql.SQLException}s are translated with
+ * the exception translator of the template.</p>
+ *
+ * <p>Requires Java 11 and ojdbc11 at runtime.</p>
+ *
+ * @see OracleNamedParameterJdbcTemplate
+ */
+public final class ReactiveOracleNamedParameterJdbcTemplate {
+
+  private final OracleNamedParameterJdbcTemplate template;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final DataSource dataSource;
+
+  /**
+   * Creates a new reactive template.
+   *
+   * @param template the template whose configuration and {@link DataSource}
+   *        to use, not {@code null}
+   * @throws IllegalStateException if the template does not wrap a {@link JdbcTemplate}
+   * @throws IllegalArgumentException if the {@link JdbcTemplate} of the
+   *         template has no {@link DataSource}
+   */
+  public ReactiveOracleNamedParameterJdbcTemplate(OracleNamedParameterJdbcTemplate template) {
+    Objects.requireNonNull(template, "template");
+    this.template = template;
+    this.jdbcTemplate = template.getJdbcTemplate();
+    DataSource dataSource = this.jdbcTemplate.getDataSource();
+    if (dataSource == null) {
+      throw new IllegalArgumentException("template has no DataSource");
+    }
+    this.dataSource = dataSource;
+  }
+
+  /**
+   * Executes a query and maps every row.
+   *
+   * @param <T> the type of the mapped rows
+   * @param sql the SQL query to execute
+   * @param paramSource the values of the bind variables
+   * @param rowMapper maps a row, called on a thread of ojdbc, the row
+   *        must not be used after the function returns, not {@code null}
+   * @return a publisher of the mapped rows
+   */
+  public <T> Flow.Publisher<T> query(String sql, SqlParameterSource paramSource, Function<? super OracleRow, ? extends T> rowMapper) {
+    Objects.requireNonNull(rowMapper, "rowMapper");
+    return new StatementPublisher<>(sql, this.dataSource, () -> this.template.getPreparedStatementCreator(sql, paramSource),
+        this.jdbcTemplate.getExceptionTranslator(), this.jdbcTemplate.getFetchSize(), this.jdbcTemplate.getQueryTimeout(),
+        (statement, subscriber) -> statement.executeQueryAsyncOracle().subscribe(new StatementPublisher.ResultSetSubscriber<>(rowMapper, subscriber)));
+  }
+
+  /**
+   * Executes a query and maps every row.
+   *
+   * @param <T> the type of the mapped rows
+   * @param sql the SQL query to execute
+   * @param paramMap the values of the bind variables
+   * @param rowMapper maps a row, called on a thread of ojdbc, the row
+   *        must not be used after the function returns, not {@code null}
+   * @return a publisher of the mapped rows
+   */
+  public <T> Flow.Publisher<T> query(String sql, Map<String, ?> paramMap, Function<? super OracleRow, ? extends T> rowMapper) {
+    return this.query(sql, new MapSqlParameterSource(paramMap), rowMapper);
+  }
+
+  /**
+   * Executes a DML statement.
+   *
+   * @param sql the SQL statement to execute
+   * @param paramSource the values of the bind variables
+   * @return a publisher of the number of rows affected
+   */
+  public Flow.Publisher<Long> update(String sql, SqlParameterSource paramSource) {
+    return new StatementPublisher<>(sql, this.dataSource, () -> this.template.getPreparedStatementCreator(sql, paramSource),
+        this.jdbcTemplate.getExceptionTranslator(), 0, this.jdbcTemplate.getQueryTimeout(),
+        (statement, subscriber) -> statement.executeUpdateAsyncOracle().subscribe(subscriber));
+  }
+
+  /**
+   * Executes a DML statement.
+   *
+   * @param sql the SQL statement to execute
+   * @param paramMap the values of the bind variables
+   * @return a publisher of the number of rows affected
+   */
+  public Flow.Publisher<Long> update(String sql, Map<String, ?> paramMap) {
+    return this.update(sql, new MapSqlParameterSource(paramMap));
+  }
+
+  /**
+   * Executes a DML statement for a batch of parameter sources.
+   *
+   * @param sql the SQL statement to execute
+   * @param batchArgs the values of the bind variables of all rows
+   * @return a publisher of the number of rows affected by every row of the batch
+   */
+  public Flow.Publisher<Long> batchUpdate(String sql, SqlParameterSource[] batchArgs) {
+    Objects.requireNonNull(batchArgs, "batchArgs");
+    return new StatementPublisher<>(sql, this.dataSource, () -> this.template.getBatchPreparedStatementCreator(sql, batchArgs),
+        this.jdbcTemplate.getExceptionTranslator(), 0, this.jdbcTemplate.getQueryTimeout(),
+        (statement, subscriber) -> statement.executeBatchAsyncOracle().subscribe(subscriber));
+  }
+
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ParameterDisposer;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+
+import oracle.jdbc.OraclePreparedStatement;
+import oracle.jdbc.OracleResultSet;
+import oracle.jdbc.OracleRow;
+
+/**
+ * A cold publisher that checks out a connection, creates and binds a
+ * statement and executes it asynchronously for every subscriber.
+ *
+ * <p>Every subscription uses its own statement creator as creators hold
+ * the state of the bound statement until it is cleaned up. The statement
+ * and the connection are closed once the subscription completes, fails or
+ * is cancelled.</p>
+ *
+ * @param <T> the type of the items
+ * @see ReactiveOracleNamedParameterJdbcTemplate
+ */
+final class StatementPublisher<T> implements Flow.Publisher<T> {
+
+  private static final String TASK = "Reactive PreparedStatementCallback";
+
+  private final String sql;
+
+  private final DataSource dataSource;
+
+  private final Supplier<? extends PreparedStatementCreator> statementCreators;
+
+  private final SQLExceptionTranslator exceptionTranslator;
+
+  private final int fetchSize;
+
+  private final int queryTimeout;
+
+  private final AsyncExecution<T> execution;
+
+  StatementPublisher(String sql, DataSource dataSource, Supplier<? extends PreparedStatementCreator> statementCreators,
+          SQLExceptionTranslator exceptionTranslator, int fetchSize, int queryTimeout, AsyncExecution<T> execution) {
+    Objects.requireNonNull(sql);
+    Objects.requireNonNull(dataSource);
+    Objects.requireNonNull(statementCreators);
+    Objects.requireNonNull(exceptionTranslator);
+    Objects.requireNonNull(execution);
+    this.sql = sql;
+    this.dataSource = dataSource;
+    this.statementCreators = statementCreators;
+    this.exceptionTranslator = exceptionTranslator;
+    this.fetchSize = fetchSize;
+    this.queryTimeout = queryTimeout;
+    this.execution = execution;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super T> subscriber) {
+    Objects.requireNonNull(subscriber, "subscriber");
+    Connection connection = null;
+    PreparedStatementCreator statementCreator = null;
+    PreparedStatement statement = null;
+    ClosingSubscriber<T> closingSubscriber;
+    try {
+      connection = this.dataSource.getConnection();
+      // concurrent subscriptions must not share the bound state
+      statementCreator = this.statementCreators.get();
+      statement = statementCreator.createPreparedStatement(connection);
+      if (this.fetchSize > 0) {
+        statement.setFetchSize(this.fetchSize);
+      }
+      if (this.queryTimeout > 0) {
+        statement.setQueryTimeout(this.queryTimeout);
+      }
+      closingSubscriber = new ClosingSubscriber<>(subscriber, this, connection, statementCreator, statement);
+    } catch (SQLException | RuntimeException e) {
+      close(connection, statementCreator, statement);
+      subscriber.onSubscribe(EmptySubscription.INSTANCE);
+      subscriber.onError(this.translate(e));
+      return;
+    }
+    try {
+      this.execution.execute(statement.unwrap(OraclePreparedStatement.class), closingSubscriber);
+    } catch (SQLException | RuntimeException e) {
+      // failed before the driver subscribed
+      closingSubscriber.onSubscribe(EmptySubscription.INSTANCE);
+      closingSubscriber.onError(e);
+    }
+  }
+
+  Throwable translate(Throwable throwable) {
+    if (throwable instanceof SQLException) {
+      SQLException sqlException = (SQLException) throwable;
+      DataAccessException translated = this.exceptionTranslator.translate(TASK, this.sql, sqlException);
+      return translated != null ? translated : new UncategorizedSQLException(TASK, this.sql, sqlException);
+    }
+    return throwable;
+  }
+
+  static void close(Connection connection, PreparedStatementCreator statementCreator, PreparedStatement statement) {
+    if (statementCreator instanceof ParameterDisposer) {
+      ((ParameterDisposer) statementCreator).cleanupParameters();
+    }
+    JdbcUtils.closeStatement(statement);
+    JdbcUtils.closeConnection(connection);
+  }
+
+  /**
+   * Executes a bound statement asynchronously.
+   *
+   * @param <T> the type of the items
+   */
+  @FunctionalInterface
+  interface AsyncExecution<T> {
+
+    /**
+     * Executes the statement and subscribes the subscriber to the result.
+     *
+     * @param statement the bound statement
+     * @param subscriber the subscriber to subscribe
+     * @throws SQLException if the execution can not be started
+     */
+    void execute(OraclePreparedStatement statement, Flow.Subscriber<T> subscriber) throws SQLException;
+
+  }
+
+  /**
+   * Passes all signals on and closes the statement and connection once the
+   * subscription terminates.
+   *
+   * @param <T> the type of the items
+   */
+  static final class ClosingSubscriber<T> implements Flow.Subscriber<T>, Flow.Subscription {
+
+    private final Flow.Subscriber<? super T> downstream;
+
+    private final StatementPublisher<T> publisher;
+
+    private final Connection connection;
+
+    private final PreparedStatementCreator statementCreator;
+
+    private final PreparedStatement statement;
+
+    private final AtomicBoolean closed;
+
+    private volatile Flow.Subscription upstream;
+
+    ClosingSubscriber(Flow.Subscriber<? super T> downstream, StatementPublisher<T> publisher, Connection connection,
+            PreparedStatementCreator statementCreator, PreparedStatement statement) {
+      this.downstream = downstream;
+      this.publisher = publisher;
+      this.connection = connection;
+      this.statementCreator = statementCreator;
+      this.statement = statement;
+      this.closed = new AtomicBoolean();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.upstream = subscription;
+      this.downstream.onSubscribe(this);
+    }
+
+    @Override
+    public void onNext(T item) {
+      this.downstream.onNext(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      this.close();
+      this.downstream.onError(this.publisher.translate(throwable));
+    }
+
+    @Override
+    public void onComplete() {
+      this.close();
+      this.downstream.onComplete();
+    }
+
+    @Override
+    public void request(long n) {
+      this.upstream.request(n);
+    }
+
+    @Override
+    public void cancel() {
+      this.upstream.cancel();
+      this.close();
+    }
+
+    private void close() {
+      if (this.closed.compareAndSet(false, true)) {
+        StatementPublisher.close(this.connection, this.statementCreator, this.statement);
+      }
+    }
+
+  }
+
+  /**
+   * Subscribes to the rows of the single result set of a query.
+   *
+   * @param <T> the type of the mapped rows
+   */
+  static final class ResultSetSubscriber<T> implements Flow.Subscriber<OracleResultSet> {
+
+    private final Function<? super OracleRow, ? extends T> rowMapper;
+
+    private final Flow.Subscriber<T> rows;
+
+    // signals are serial, no need for synchronization
+    private boolean received;
+
+    ResultSetSubscriber(Function<? super OracleRow, ? extends T> rowMapper, Flow.Subscriber<T> rows) {
+      this.rowMapper = rowMapper;
+      this.rows = rows;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      subscription.request(1L);
+    }
+
+    @Override
+    public void onNext(OracleResultSet resultSet) {
+      this.received = true;
+      Flow.Publisher<T> rowPublisher;
+      try {
+        // rows are fetched on demand of the row subscriber
+        rowPublisher = resultSet.publisherOracle(row -> this.rowMapper.apply(row));
+      } catch (SQLException e) {
+        this.rows.onSubscribe(EmptySubscription.INSTANCE);
+        this.rows.onError(e);
+        return;
+      }
+      rowPublisher.subscribe(this.rows);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      if (!this.received) {
+        this.rows.onSubscribe(EmptySubscription.INSTANCE);
+        this.rows.onError(throwable);
+      }
+    }
+
+    @Override
+    public void onComplete() {
+      if (!this.received) {
+        this.rows.onSubscribe(EmptySubscription.INSTANCE);
+        this.rows.onComplete();
+      }
+    }
+
+  }
+
+  /**
+   * The subscription of a publisher that fails or completes immediately.
+   */
+  enum EmptySubscription implements Flow.Subscription {
+
+    INSTANCE;
+
+    @Override
+    public void request(long n) {
+      // nothing to emit
+    }
+
+    @Override
+    public void cancel() {
+      // nothing to cancel
+    }
+
+  }
+
+}
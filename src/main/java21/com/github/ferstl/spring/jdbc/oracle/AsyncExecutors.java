@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the default executor of {@link AsyncOracleNamedParameterJdbcTemplate}.
+ *
+ * <p>Java 21 version using virtual threads.</p>
+ */
+final class AsyncExecutors {
+
+  private AsyncExecutors() {
+    throw new AssertionError("Not instantiable");
+  }
+
+  /**
+   * Creates an executor that runs every call on its own thread.
+   *
+   * @return an executor starting a new virtual thread for every call
+   */
+  static ExecutorService newDefaultExecutor() {
+    return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("oracle-jdbc-async-", 1L).factory());
+  }
+
+}
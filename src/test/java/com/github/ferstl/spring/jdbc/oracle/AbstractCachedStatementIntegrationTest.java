@@ -17,6 +17,7 @@ package com.github.ferstl.spring.jdbc.oracle;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -44,4 +45,23 @@ public abstract class AbstractCachedStatementIntegrationTest extends AbstractOra
     assertEquals(Collections.singletonList(1), result);
   }
 
+  @Test
+  public void executeTwiceWithColumnDefines() {
+    String key = "columnDefines";
+    String sql = "SELECT id, val FROM test_table WHERE id < 3 ORDER BY id";
+
+    ColumnDefineCache columnDefines = new ColumnDefineCache(Collections.singletonMap("val", 20));
+    PreparedStatementCreator statementCreator = new CachedPreparedStatementCreator(key, sql, StatementCacheMetrics.NONE, columnDefines);
+    RowMapper<String> rowMapper = (rs, i) -> rs.getInt(1) + ":" + rs.getString(2);
+    List<String> expected = Arrays.asList("0:Value_00001", "1:Value_00002", "2:Value_00003");
+
+    // described and defined
+    List<String> result = this.jdbcTemplate.query(statementCreator, rowMapper);
+    assertEquals(expected, result);
+
+    // defined from the cache
+    result = this.jdbcTemplate.query(statementCreator, rowMapper);
+    assertEquals(expected, result);
+  }
+
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Integration test for {@link SqlOracleIndexTableValue}.
+ */
+public abstract class AbstractIndexTableIntegrationTest extends AbstractOracleJdbcTemplateIntegrationTest {
+
+  private static final String INSERT_CALL = "BEGIN spring_jdbc_oracle.insert_test_table(?, ?); END;";
+
+  private static final String COUNT_SQL = "SELECT count(*) FROM test_table WHERE val LIKE 'index-by%'";
+
+  @Test
+  public void insert() {
+    String[] vals = new String[] {"index-by 1", "index-by 2", "index-by 3"};
+    int[] numvals = new int[] {-1, -2, -3};
+
+    this.jdbcTemplate.update(INSERT_CALL, new SqlOracleIndexTableValue(vals), new SqlOracleIndexTableValue(numvals));
+
+    assertEquals((Integer) 3, this.jdbcTemplate.queryForObject(COUNT_SQL, Integer.class));
+    assertEquals((Integer) (-6), this.jdbcTemplate.queryForObject("SELECT sum(numval) FROM test_table WHERE val LIKE 'index-by%'", Integer.class));
+  }
+
+  @Test
+  public void insertEmpty() {
+    this.jdbcTemplate.update(INSERT_CALL, new SqlOracleIndexTableValue(new String[0]), new SqlOracleIndexTableValue(new long[0]));
+
+    assertEquals((Integer) 0, this.jdbcTemplate.queryForObject(COUNT_SQL, Integer.class));
+  }
+
+}
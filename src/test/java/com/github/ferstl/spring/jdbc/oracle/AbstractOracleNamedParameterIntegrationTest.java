@@ -17,19 +17,26 @@ package com.github.ferstl.spring.jdbc.oracle;
 
 import static com.github.ferstl.spring.jdbc.oracle.RowCountMatcher.matchesRowCounts;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 
 import oracle.jdbc.OracleResultSet;
 
@@ -67,6 +74,76 @@ public abstract class AbstractOracleNamedParameterIntegrationTest extends Abstra
     assertThat(result, matchesRowCounts(this.nrOfDeletes));
   }
 
+  @Test
+  public void updateColumnar() {
+    Map<String, String> arrayTypeNames = new HashMap<>(4);
+    arrayTypeNames.put("newval", "TEST_NUMBER_ARRAY_TYPE");
+    arrayTypeNames.put("value", "TEST_NUMBER_ARRAY_TYPE");
+    SqlParameterSource[] batchArgs = new SqlParameterSource[this.nrOfDeletes + 1];
+    for (int i = 0; i < this.nrOfDeletes; i++) {
+      batchArgs[i] = new MapSqlParameterSource("newval", Integer.MAX_VALUE).addValue("value", i + 11);
+    }
+    // matches no row
+    batchArgs[this.nrOfDeletes] = new MapSqlParameterSource("newval", Integer.MAX_VALUE).addValue("value", -1);
+
+    int[] result = this.onpJdbcTemplate.batchUpdateColumnar(
+        "UPDATE test_table t SET t.numval = :newval WHERE t.numval = :value", batchArgs, arrayTypeNames, "TEST_NUMBER_ARRAY_TYPE");
+
+    assertEquals(this.nrOfDeletes + 1, result.length);
+    for (int i = 0; i < this.nrOfDeletes; i++) {
+      assertEquals(1, result[i]);
+    }
+    assertEquals(0, result[this.nrOfDeletes]);
+    assertEquals((Integer) this.nrOfDeletes, this.jdbcTemplate.queryForObject(
+        "SELECT count(numval) FROM test_table t WHERE t.numval = ?", Integer.class, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void updateChunked() {
+    List<long[]> chunks = new ArrayList<>();
+    long updated = this.onpJdbcTemplate.batchUpdate("UPDATE test_table t SET t.numval = :newval WHERE t.numval = :value",
+        IntStream.range(0, this.nrOfDeletes).mapToObj(i -> new MapSqlParameterSource("newval", Integer.MAX_VALUE).addValue("value", i + 11)),
+        3, chunks::add);
+
+    assertEquals(this.nrOfDeletes, updated);
+    assertEquals((this.nrOfDeletes + 2) / 3, chunks.size());
+    assertEquals((Integer) this.nrOfDeletes, this.jdbcTemplate.queryForObject(
+        "SELECT count(numval) FROM test_table t WHERE t.numval = ?", Integer.class, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void updateGeneratedKeys() {
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+    int inserted = this.onpJdbcTemplate.update("INSERT INTO test_table(id, val, numval) VALUES(seq_test_table.nextval, :val, :numval)",
+        new MapSqlParameterSource("val", "generated").addValue("numval", -1), keyHolder, new String[] {"id"});
+
+    assertEquals(1, inserted);
+    assertEquals("generated", this.jdbcTemplate.queryForObject("SELECT val FROM test_table WHERE id = ?", String.class, keyHolder.getKey()));
+  }
+
+  @Test
+  public void batchUpdateColumnarGeneratedKeys() {
+    Map<String, String> arrayTypeNames = new HashMap<>(4);
+    arrayTypeNames.put("val", "TEST_VARCHAR_ARRAY_TYPE");
+    arrayTypeNames.put("numval", "TEST_NUMBER_ARRAY_TYPE");
+    SqlParameterSource[] batchArgs = new SqlParameterSource[3];
+    for (int i = 0; i < batchArgs.length; i++) {
+      batchArgs[i] = new MapSqlParameterSource("val", "generated " + i).addValue("numval", -i);
+    }
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+
+    int[] result = this.onpJdbcTemplate.batchUpdateColumnar(
+        "INSERT INTO test_table(id, val, numval) VALUES(seq_test_table.nextval, :val, :numval)",
+        batchArgs, arrayTypeNames, "TEST_NUMBER_ARRAY_TYPE", keyHolder, Collections.singletonMap("id", "TEST_NUMBER_ARRAY_TYPE"));
+
+    assertArrayEquals(new int[] {1, 1, 1}, result);
+    List<Map<String, Object>> keys = keyHolder.getKeyList();
+    assertEquals(3, keys.size());
+    for (int i = 0; i < keys.size(); i++) {
+      assertEquals("generated " + i, this.jdbcTemplate.queryForObject("SELECT val FROM test_table WHERE id = ?", String.class, keys.get(i).get("id")));
+    }
+  }
+
   @Test
   public void inlists() {
     Map<String, Object> map = Collections.singletonMap("ids", new SqlOracleArrayValue("TEST_ARRAY_TYPE", 1, 2, 3));
@@ -81,6 +158,52 @@ public abstract class AbstractOracleNamedParameterIntegrationTest extends Abstra
     assertEquals(Arrays.asList("Value_00002", "Value_00003", "Value_00004"), values);
   }
 
+  @Test
+  public void queryByKeys() {
+    OracleNamedParameterJdbcTemplate template = new OracleNamedParameterJdbcTemplate(this.jdbcTemplate);
+    template.setArrayLookupChunkSize(2);
+    template.setArrayLookupSortKeys(true);
+    List<String> values = template.queryByKeys("SELECT val "
+            + "FROM test_table "
+            + "WHERE id IN (select column_value from table(:ids)) "
+            + "AND numval > :numval "
+            + "ORDER BY id",
+        Collections.singletonMap("numval", 0),
+        "ids",
+        "TEST_ARRAY_TYPE",
+        Arrays.asList(4, 2, 3, 2, null, 5, 4),
+        (rs, i) -> rs.getString(1));
+
+    assertEquals(Arrays.asList("Value_00003", "Value_00004", "Value_00005", "Value_00006"), values);
+  }
+
+  @Test
+  public void structArrayLookup() {
+    List<Object[]> keys = Arrays.asList(new Object[] {1, 2}, new Object[] {2, 2}, new Object[] {3, 4});
+    Map<String, Object> map = Collections.singletonMap("keys",
+            new SqlOracleStructArrayValue<>("TEST_KEY_TABLE_TYPE", "TEST_KEY_TYPE", keys, Function.identity()));
+    List<String> values = this.onpJdbcTemplate.query("SELECT t.val "
+            + "FROM test_table t "
+            + "JOIN table(:keys) k ON t.id = k.id AND t.numval = k.numval "
+            + "ORDER BY t.id",
+        new MapSqlParameterSource(map),
+        (rs, i) -> rs.getString(1));
+
+    assertEquals(Arrays.asList("Value_00002", "Value_00004"), values);
+  }
+
+  @Test
+  public void structArrayInsert() {
+    List<Object[]> rows = Arrays.asList(new Object[] {-1, 1}, new Object[] {-2, 2});
+    Map<String, Object> map = Collections.singletonMap("rows",
+            new SqlOracleStructArrayValue<>("TEST_KEY_TABLE_TYPE", "TEST_KEY_TYPE", rows, Function.identity()));
+    int inserted = this.onpJdbcTemplate.update("INSERT INTO test_table(id, val, numval) "
+            + "SELECT r.id, 'struct', r.numval FROM table(:rows) r",
+        new MapSqlParameterSource(map));
+
+    assertEquals(2, inserted);
+  }
+
   @Test
   public void uuid() {
     UUID expected = UUID.randomUUID();
@@ -117,4 +240,23 @@ public abstract class AbstractOracleNamedParameterIntegrationTest extends Abstra
 
     return sources;
   }
+
+  @Test
+  public void queryWithFetchSizePolicyAndColumnDefines() {
+    OracleNamedParameterJdbcTemplate template = new OracleNamedParameterJdbcTemplate(this.onpJdbcTemplate.getJdbcOperations());
+    template.setFetchSizePolicy(new FetchSizePolicy(64 * 1024));
+    template.setColumnDefineCache(new ColumnDefineCache(Collections.singletonMap("VAL", 20)));
+    String sql = "SELECT id, val FROM test_table WHERE id < :max ORDER BY id";
+
+    // described, sized from the meta data
+    List<String> values = template.query(sql, new MapSqlParameterSource("max", 100), (rs, i) -> rs.getString(2));
+    assertEquals(100, values.size());
+    assertEquals("Value_00100", values.get(99));
+
+    // sized from the row count
+    values = template.query(sql, new MapSqlParameterSource("max", 100), (rs, i) -> rs.getString(2));
+    assertEquals(100, values.size());
+    assertEquals("Value_00100", values.get(99));
+  }
+
 }
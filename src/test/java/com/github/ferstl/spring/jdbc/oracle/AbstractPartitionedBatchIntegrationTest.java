@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.ferstl.spring.jdbc.oracle.PartitionedBatchExecutor.FailureMode;
+
+/**
+ * Integration test for {@link PartitionedBatchExecutor}.
+ *
+ * <p>The partitions are committed on their own connections, the test
+ * therefore does not run in a transaction and deletes the rows it inserted.</p>
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public abstract class AbstractPartitionedBatchIntegrationTest extends AbstractOracleJdbcTemplateIntegrationTest {
+
+  private static final String INSERT_SQL = "INSERT INTO test_table(id, val, numval) VALUES(seq_test_table.nextval, :val, :numval)";
+
+  private static final String COUNT_SQL = "SELECT count(*) FROM test_table WHERE val LIKE 'partitioned%'";
+
+  private static final int PARTITION_COUNT = 4;
+
+  @Autowired
+  private OracleNamedParameterJdbcTemplate onpJdbcTemplate;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private ExecutorService executorService;
+
+  @BeforeEach
+  public void setUp() {
+    this.executorService = Executors.newFixedThreadPool(PARTITION_COUNT);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    this.executorService.shutdown();
+    this.jdbcTemplate.update("DELETE FROM test_table WHERE val LIKE 'partitioned%'");
+  }
+
+  @Test
+  public void insertRoundRobin() {
+    PartitionedBatchResult result = this.executor(FailureMode.ABORT).batchUpdate(INSERT_SQL, rows(this.batchSize * 3 + 1));
+
+    assertTrue(result.isSuccessful());
+    assertEquals(PARTITION_COUNT, result.getPartitionCount());
+    assertEquals(this.batchSize * 3 + 1, result.getTotalRowCount());
+    assertEquals((Integer) (this.batchSize * 3 + 1), this.jdbcTemplate.queryForObject(COUNT_SQL, Integer.class));
+  }
+
+  @Test
+  public void insertByKey() {
+    PartitionedBatchResult result = this.executor(FailureMode.ABORT)
+        .batchUpdate(INSERT_SQL, rows(100), row -> row.getValue("numval"));
+
+    assertTrue(result.isSuccessful());
+    assertEquals(100L, result.getTotalRowCount());
+    assertEquals((Integer) 100, this.jdbcTemplate.queryForObject(COUNT_SQL, Integer.class));
+  }
+
+  @Test
+  public void continueOnFailure() {
+    SqlParameterSource[] rows = rows(8);
+    // violates the NOT NULL constraint, fails the partition of the first row
+    rows[0] = new MapSqlParameterSource("val", null).addValue("numval", -1);
+
+    PartitionedBatchResult result = this.executor(FailureMode.CONTINUE).batchUpdate(INSERT_SQL, rows);
+
+    assertFalse(result.isSuccessful());
+    assertEquals(1, result.getFailures().size());
+    assertEquals(6L, result.getTotalRowCount());
+    assertEquals((Integer) 6, this.jdbcTemplate.queryForObject(COUNT_SQL, Integer.class));
+  }
+
+  @Test
+  public void abortOnFailure() {
+    SqlParameterSource[] rows = rows(8);
+    rows[0] = new MapSqlParameterSource("val", null).addValue("numval", -1);
+
+    assertThrows(DataIntegrityViolationException.class, () -> this.executor(FailureMode.ABORT).batchUpdate(INSERT_SQL, rows));
+  }
+
+  private PartitionedBatchExecutor executor(FailureMode failureMode) {
+    return new PartitionedBatchExecutor(this.onpJdbcTemplate, new TransactionTemplate(this.transactionManager),
+        this.executorService, PARTITION_COUNT, failureMode);
+  }
+
+  private static SqlParameterSource[] rows(int count) {
+    SqlParameterSource[] rows = new SqlParameterSource[count];
+    for (int i = 0; i < count; i++) {
+      rows[i] = new MapSqlParameterSource("val", "partitioned " + i).addValue("numval", -i);
+    }
+    return rows;
+  }
+
+}
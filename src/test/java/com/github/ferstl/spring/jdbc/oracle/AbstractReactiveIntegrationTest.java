@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration test for {@link ReactiveOracleNamedParameterJdbcTemplate}.
+ *
+ * <p>The reactive template does not take part in Spring managed
+ * transactions, the test therefore does not run in a transaction and
+ * deletes the rows it inserted.</p>
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public abstract class AbstractReactiveIntegrationTest extends AbstractOracleJdbcTemplateIntegrationTest {
+
+  private static final String INSERT_SQL = "INSERT INTO test_table(id, val, numval) VALUES(seq_test_table.nextval, :val, :numval)";
+
+  @Autowired
+  private OracleNamedParameterJdbcTemplate onpJdbcTemplate;
+
+  private ReactiveOracleNamedParameterJdbcTemplate reactiveTemplate;
+
+  @BeforeEach
+  public void setUp() {
+    this.reactiveTemplate = new ReactiveOracleNamedParameterJdbcTemplate(this.onpJdbcTemplate);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    this.jdbcTemplate.update("DELETE FROM test_table WHERE val LIKE 'reactive%'");
+  }
+
+  @Test
+  public void queryArray() throws Exception {
+    List<String> values = CollectingSubscriber.collect(this.reactiveTemplate.query(
+        "SELECT val FROM test_table WHERE id IN (SELECT column_value FROM TABLE(:ids)) ORDER BY id",
+        Collections.singletonMap("ids", new SqlOracleArrayValue("TEST_ARRAY_TYPE", 1, 2, 3)),
+        row -> row.getObject(1, String.class)));
+
+    assertEquals(Arrays.asList("Value_00002", "Value_00003", "Value_00004"), values);
+  }
+
+  @Test
+  public void queryOnDemand() throws Exception {
+    CollectingSubscriber<Integer> subscriber = new CollectingSubscriber<>(7L);
+    this.reactiveTemplate.query("SELECT numval FROM test_table WHERE numval <= :max ORDER BY numval",
+        new MapSqlParameterSource("max", 100), row -> row.getObject(1, Integer.class)).subscribe(subscriber);
+
+    List<Integer> values = subscriber.get();
+    assertEquals(100, values.size());
+    assertEquals((Integer) 100, values.get(99));
+  }
+
+  @Test
+  public void update() throws Exception {
+    List<Long> rowCounts = CollectingSubscriber.collect(this.reactiveTemplate.update(INSERT_SQL,
+        new MapSqlParameterSource("val", "reactive").addValue("numval", -1)));
+
+    assertEquals(Collections.singletonList(1L), rowCounts);
+    assertEquals((Integer) 1, this.jdbcTemplate.queryForObject("SELECT count(*) FROM test_table WHERE val = 'reactive'", Integer.class));
+  }
+
+  @Test
+  public void batchUpdate() throws Exception {
+    SqlParameterSource[] batchArgs = new SqlParameterSource[this.batchSize + 1];
+    for (int i = 0; i < batchArgs.length; i++) {
+      batchArgs[i] = new MapSqlParameterSource("val", "reactive batch").addValue("numval", -i);
+    }
+
+    List<Long> rowCounts = CollectingSubscriber.collect(this.reactiveTemplate.batchUpdate(INSERT_SQL, batchArgs));
+
+    assertEquals(batchArgs.length, rowCounts.stream().mapToLong(Long::longValue).sum());
+    assertEquals((Integer) batchArgs.length,
+        this.jdbcTemplate.queryForObject("SELECT count(*) FROM test_table WHERE val = 'reactive batch'", Integer.class));
+  }
+
+  @Test
+  public void batchUpdateSubscriber() throws Exception {
+    int rowCount = this.batchSize * 2 + 1;
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      BatchUpdateSubscriber sink = new BatchUpdateSubscriber(this.reactiveTemplate, INSERT_SQL, this.batchSize, executor);
+      try (SubmissionPublisher<SqlParameterSource> publisher = new SubmissionPublisher<>()) {
+        publisher.subscribe(sink);
+        for (int i = 0; i < rowCount; i++) {
+          publisher.submit(new MapSqlParameterSource("val", "reactive sink").addValue("numval", -i));
+        }
+      }
+
+      assertEquals(rowCount, sink.getResult().get(10L, TimeUnit.SECONDS).longValue());
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals((Integer) rowCount,
+        this.jdbcTemplate.queryForObject("SELECT count(*) FROM test_table WHERE val = 'reactive sink'", Integer.class));
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2013 by Stefan Ferstl <st.ferstl@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+/**
+ * Integration test that uses {@link StatementCacheWarmer} with a connection pool.
+ */
+public abstract class AbstractStatementCacheWarmingIntegrationTest extends AbstractOracleJdbcTemplateIntegrationTest {
+
+  // the same key for all tests because connections are only warmed once
+  private static final CachedPreparedStatementCreator CREATOR = new CachedPreparedStatementCreator("warmed", "SELECT 1 FROM dual");
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Test
+  public void warmOnCheckout() throws SQLException {
+    StatementCacheWarmer warmer = new StatementCacheWarmer(Collections.singletonList(CREATOR), 10);
+    DataSource warmingDataSource = new StatementCacheWarmingDataSource(this.dataSource, warmer);
+
+    try (Connection connection = warmingDataSource.getConnection()) {
+      OracleConnection oracleConnection = connection.unwrap(OracleConnection.class);
+      PreparedStatement statement = oracleConnection.getStatementWithKey(CREATOR.getKey());
+      assertNotNull(statement);
+      statement.unwrap(OraclePreparedStatement.class).closeWithKey(CREATOR.getKey());
+    }
+
+    List<Integer> result = new JdbcTemplate(warmingDataSource).query(CREATOR, (rs, i) -> rs.getInt(1));
+    assertEquals(Collections.singletonList(1), result);
+  }
+
+  @Test
+  public void warmAtStartup() throws SQLException {
+    StatementCacheWarmer warmer = new StatementCacheWarmer(Collections.singletonList(CREATOR), 10);
+
+    // statements cached by a previous test are not prepared again
+    warmer.warm(this.dataSource, 2, Runnable::run);
+
+    List<Integer> result = new JdbcTemplate(new StatementCacheWarmingDataSource(this.dataSource, warmer))
+            .query(CREATOR, (rs, i) -> rs.getInt(1));
+    assertEquals(Collections.singletonList(1), result);
+  }
+
+}
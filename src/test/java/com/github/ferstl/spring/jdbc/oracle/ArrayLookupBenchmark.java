@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.github.ferstl.spring.jdbc.oracle.dsconfig.DataSourceProfile;
+
+/**
+ * Compares looking up keys with a single array containing duplicates to
+ * {@link OracleNamedParameterJdbcTemplate#queryByKeys(String, Map, String, String, java.util.Collection, org.springframework.jdbc.core.RowMapper)}.
+ *
+ * <p>Needs the database of the integration tests, see the README.</p>
+ *
+ * <p>Run with {@code java -cp target/test-classes:<test classpath> com.github.ferstl.spring.jdbc.oracle.ArrayLookupBenchmark}.</p>
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ArrayLookupBenchmark {
+
+  private static final String SQL = "SELECT val "
+          + "FROM test_table "
+          + "WHERE id IN (select column_value from table(:ids)) "
+          + "ORDER BY id";
+
+  private static final String TYPE_NAME = "TEST_ARRAY_TYPE";
+
+  @Param({"100", "5000"})
+  public int keyCount;
+
+  private AnnotationConfigApplicationContext applicationContext;
+
+  private ExecutorService executor;
+
+  private OracleNamedParameterJdbcTemplate singleArray;
+
+  private OracleNamedParameterJdbcTemplate chunked;
+
+  private OracleNamedParameterJdbcTemplate parallel;
+
+  private List<Integer> keys;
+
+  @Setup
+  public void setUp() {
+    this.applicationContext = new AnnotationConfigApplicationContext();
+    this.applicationContext.getEnvironment().setActiveProfiles(DataSourceProfile.COMMONS_DBCP);
+    this.applicationContext.register(DatabaseConfiguration.class);
+    this.applicationContext.refresh();
+    JdbcTemplate jdbcTemplate = this.applicationContext.getBean(JdbcTemplate.class);
+    this.executor = Executors.newFixedThreadPool(4);
+
+    this.singleArray = new OracleNamedParameterJdbcTemplate(jdbcTemplate);
+
+    this.chunked = new OracleNamedParameterJdbcTemplate(jdbcTemplate);
+    this.chunked.setArrayLookupSortKeys(true);
+    this.chunked.setArrayLookupChunkSize(1000);
+
+    this.parallel = new OracleNamedParameterJdbcTemplate(jdbcTemplate);
+    this.parallel.setArrayLookupSortKeys(true);
+    this.parallel.setArrayLookupChunkSize(1000);
+    this.parallel.setArrayLookupExecutor(this.executor);
+
+    // about half of the keys are duplicates
+    Random random = new Random(42L);
+    this.keys = new ArrayList<>(this.keyCount);
+    for (int i = 0; i < this.keyCount; i++) {
+      this.keys.add(random.nextInt(this.keyCount / 2) + 1);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.executor.shutdown();
+    this.applicationContext.close();
+  }
+
+  @Benchmark
+  public List<String> singleArray() {
+    Map<String, Object> parameters = Collections.singletonMap("ids", new SqlOracleArrayValue(TYPE_NAME, this.keys.toArray()));
+    return this.singleArray.query(SQL, parameters, (rs, i) -> rs.getString(1));
+  }
+
+  @Benchmark
+  public List<String> sortedChunks() {
+    return this.chunked.queryByKeys(SQL, Collections.emptyMap(), "ids", TYPE_NAME, this.keys, (rs, i) -> rs.getString(1));
+  }
+
+  @Benchmark
+  public List<String> parallelSortedChunks() {
+    return this.parallel.queryByKeys(SQL, Collections.emptyMap(), "ids", TYPE_NAME, this.keys, (rs, i) -> rs.getString(1));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+            .include(ArrayLookupBenchmark.class.getName())
+            .build();
+    new Runner(options).run();
+  }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+public class ArrayLookupTest {
+
+  @Test
+  public void prepareKeysUnsorted() {
+    Object[] keys = ArrayLookup.prepareKeys(Arrays.asList(4L, 2L, null, 4L, 3L, 2L), false);
+
+    assertArrayEquals(new Object[] {4L, 2L, 3L}, keys);
+  }
+
+  @Test
+  public void prepareKeysSorted() {
+    Object[] keys = ArrayLookup.prepareKeys(Arrays.asList(4L, 2L, null, 4L, 3L, 2L), true);
+
+    assertArrayEquals(new Object[] {2L, 3L, 4L}, keys);
+  }
+
+  @Test
+  public void prepareKeysSortedDistinct() {
+    Object[] keys = ArrayLookup.prepareKeys(Arrays.asList("c", "a", "b"), true);
+
+    assertArrayEquals(new Object[] {"a", "b", "c"}, keys);
+  }
+
+  @Test
+  public void prepareKeysEmpty() {
+    assertEquals(0, ArrayLookup.prepareKeys(Collections.emptyList(), true).length);
+    assertEquals(0, ArrayLookup.prepareKeys(Collections.singleton(null), true).length);
+    assertEquals(0, ArrayLookup.prepareKeys(Collections.singleton(null), false).length);
+  }
+
+  @Test
+  public void chunk() {
+    Object[] keys = new Object[] {1, 2, 3, 4, 5};
+
+    Object[][] chunks = ArrayLookup.chunk(keys, 2);
+
+    assertEquals(3, chunks.length);
+    assertArrayEquals(new Object[] {1, 2}, chunks[0]);
+    assertArrayEquals(new Object[] {3, 4}, chunks[1]);
+    assertArrayEquals(new Object[] {5}, chunks[2]);
+  }
+
+  @Test
+  public void chunkNotNecessary() {
+    Object[] keys = new Object[] {1, 2, 3};
+
+    assertSame(keys, ArrayLookup.chunk(keys, 0)[0]);
+    assertSame(keys, ArrayLookup.chunk(keys, 3)[0]);
+    assertEquals(0, ArrayLookup.chunk(new Object[0], 2).length);
+  }
+
+}
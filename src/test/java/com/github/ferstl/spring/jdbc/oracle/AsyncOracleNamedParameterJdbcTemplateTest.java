@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import oracle.jdbc.OraclePreparedStatement;
+
+/**
+ * JUnit tests for {@link AsyncOracleNamedParameterJdbcTemplate}.
+ */
+public class AsyncOracleNamedParameterJdbcTemplateTest {
+
+  private static final String SQL = "UPDATE test_table SET numval = :numval WHERE id = :id";
+
+  private JdbcOperations jdbcOperations;
+
+  private OracleNamedParameterJdbcTemplate template;
+
+  @BeforeEach
+  public void setUp() {
+    this.jdbcOperations = mock(JdbcOperations.class);
+    this.template = new OracleNamedParameterJdbcTemplate(this.jdbcOperations);
+  }
+
+  @Test
+  public void update() throws InterruptedException {
+    when(this.jdbcOperations.update(any(PreparedStatementCreator.class))).thenReturn(1);
+    AsyncOracleNamedParameterJdbcTemplate asyncTemplate = new AsyncOracleNamedParameterJdbcTemplate(this.template, Runnable::run);
+
+    CompletableFuture<Integer> future = asyncTemplate.update(SQL, new MapSqlParameterSource("numval", 10).addValue("id", 1));
+
+    assertEquals((Integer) 1, AsyncOracleNamedParameterJdbcTemplate.await(future));
+  }
+
+  @Test
+  public void queryRecordsRowCount() throws Exception {
+    String query = "SELECT val FROM test_table WHERE numval = :numval";
+    Connection connection = mock(Connection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+    when(connection.prepareStatement(query)).thenReturn(preparedStatement);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(mock(OraclePreparedStatement.class));
+    when(preparedStatement.getMetaData()).thenReturn(metaData);
+    when(metaData.getColumnCount()).thenReturn(1);
+    when(metaData.getColumnType(1)).thenReturn(Types.VARCHAR);
+    when(metaData.getPrecision(1)).thenReturn(50);
+    when(this.jdbcOperations.query(any(PreparedStatementCreator.class), ArgumentMatchers.<RowMapper<String>>any())).thenAnswer(invocation -> {
+      PreparedStatementCreator statementCreator = invocation.getArgument(0);
+      statementCreator.createPreparedStatement(connection);
+      return Arrays.asList("a", "b", "c");
+    });
+    this.template.setFetchSizePolicy(new FetchSizePolicy(1_000_000L, 1, 100));
+    AsyncOracleNamedParameterJdbcTemplate asyncTemplate = new AsyncOracleNamedParameterJdbcTemplate(this.template, Runnable::run);
+
+    AsyncOracleNamedParameterJdbcTemplate.await(asyncTemplate.query(query, new MapSqlParameterSource("numval", 1), (rs, i) -> rs.getString(1)));
+    verify(preparedStatement).setFetchSize(100);
+
+    // the second execution only fetches one more row than the first returned
+    AsyncOracleNamedParameterJdbcTemplate.await(asyncTemplate.query(query, new MapSqlParameterSource("numval", 1), (rs, i) -> rs.getString(1)));
+    verify(preparedStatement).setFetchSize(4);
+  }
+
+  @Test
+  public void cancelExecutingStatement() throws Exception {
+    Connection connection = mock(Connection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    when(connection.prepareStatement(SQL)).thenReturn(preparedStatement);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(mock(OraclePreparedStatement.class));
+    CountDownLatch executing = new CountDownLatch(1);
+    CountDownLatch cancelled = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      cancelled.countDown();
+      return null;
+    }).when(preparedStatement).cancel();
+    when(this.jdbcOperations.update(any(PreparedStatementCreator.class))).thenAnswer(invocation -> {
+      PreparedStatementCreator statementCreator = invocation.getArgument(0);
+      statementCreator.createPreparedStatement(connection);
+      executing.countDown();
+      cancelled.await(5L, TimeUnit.SECONDS);
+      throw new DataIntegrityViolationException("ORA-01013: user requested cancel of current operation");
+    });
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (AsyncOracleNamedParameterJdbcTemplate asyncTemplate = new AsyncOracleNamedParameterJdbcTemplate(this.template, executor)) {
+      CompletableFuture<Integer> future = asyncTemplate.update(SQL, new MapSqlParameterSource("numval", 10).addValue("id", 1));
+      assertTrue(executing.await(5L, TimeUnit.SECONDS));
+
+      future.cancel(true);
+
+      verify(preparedStatement).cancel();
+      assertTrue(future.isCancelled());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void cancelBeforeStart() {
+    List<Runnable> tasks = new ArrayList<>();
+    Executor executor = tasks::add;
+    AsyncOracleNamedParameterJdbcTemplate asyncTemplate = new AsyncOracleNamedParameterJdbcTemplate(this.template, executor);
+
+    CompletableFuture<Integer> future = asyncTemplate.update(SQL, new MapSqlParameterSource("numval", 10).addValue("id", 1));
+    future.cancel(true);
+    tasks.forEach(Runnable::run);
+
+    verifyNoInteractions(this.jdbcOperations);
+  }
+
+  @Test
+  public void awaitInterrupted() {
+    AsyncOracleNamedParameterJdbcTemplate asyncTemplate = new AsyncOracleNamedParameterJdbcTemplate(this.template, task -> {
+      // never runs
+    });
+    CompletableFuture<Integer> future = asyncTemplate.update(SQL, new MapSqlParameterSource("numval", 10).addValue("id", 1));
+
+    Thread.currentThread().interrupt();
+    assertThrows(InterruptedException.class, () -> AsyncOracleNamedParameterJdbcTemplate.await(future));
+
+    assertTrue(future.isCancelled());
+  }
+
+  @Test
+  public void awaitFailure() {
+    DataIntegrityViolationException exception = new DataIntegrityViolationException("unique constraint violated");
+    when(this.jdbcOperations.update(any(PreparedStatementCreator.class))).thenThrow(exception);
+    AsyncOracleNamedParameterJdbcTemplate asyncTemplate = new AsyncOracleNamedParameterJdbcTemplate(this.template, Runnable::run);
+
+    CompletableFuture<Integer> future = asyncTemplate.update(SQL, new MapSqlParameterSource("numval", 10).addValue("id", 1));
+
+    assertSame(exception, assertThrows(DataIntegrityViolationException.class, () -> AsyncOracleNamedParameterJdbcTemplate.await(future)));
+  }
+
+  @Test
+  public void cancelledStatementIsNotCreated() throws SQLException {
+    Connection connection = mock(Connection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    PreparedStatementCreator delegate = mock(PreparedStatementCreator.class);
+    when(delegate.createPreparedStatement(connection)).thenReturn(preparedStatement);
+    CancellableStatementCreator statementCreator = new CancellableStatementCreator(delegate);
+
+    statementCreator.cancel();
+
+    SQLException exception = assertThrows(SQLException.class, () -> statementCreator.createPreparedStatement(connection));
+    assertEquals(1013, exception.getErrorCode());
+    verify(preparedStatement).close();
+  }
+
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+
+import oracle.jdbc.OraclePreparedStatement;
+
+/**
+ * JUnit tests for {@link BatchUpdateSubscriber}.
+ */
+public class BatchUpdateSubscriberTest {
+
+  private static final String SQL = "UPDATE test_table SET numval = :numval WHERE id = :id";
+
+  private OraclePreparedStatement statement;
+
+  private ReactiveOracleNamedParameterJdbcTemplate reactiveTemplate;
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  public void setUp() throws SQLException {
+    DataSource dataSource = mock(DataSource.class);
+    Connection connection = mock(Connection.class);
+    this.statement = mock(OraclePreparedStatement.class);
+    when(dataSource.getConnection()).thenReturn(connection);
+    when(connection.prepareStatement(SQL)).thenReturn(this.statement);
+    when(this.statement.unwrap(OraclePreparedStatement.class)).thenReturn(this.statement);
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    // avoid looking up the error codes from the mock
+    jdbcTemplate.setExceptionTranslator(new SQLStateSQLExceptionTranslator());
+    this.reactiveTemplate = new ReactiveOracleNamedParameterJdbcTemplate(new OracleNamedParameterJdbcTemplate(jdbcTemplate));
+    this.executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "batch"));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    this.executor.shutdown();
+  }
+
+  @Test
+  public void requestsAfterEveryBatch() throws Exception {
+    List<String> executingThreads = new CopyOnWriteArrayList<>();
+    when(this.statement.executeBatchAsyncOracle())
+      .thenAnswer(invocation -> {
+        executingThreads.add(Thread.currentThread().getName());
+        return rowCountsOnNewThread(1L, 1L);
+      })
+      .thenAnswer(invocation -> {
+        executingThreads.add(Thread.currentThread().getName());
+        return rowCountsOnNewThread(1L, 1L);
+      })
+      .thenAnswer(invocation -> {
+        executingThreads.add(Thread.currentThread().getName());
+        return rowCountsOnNewThread(1L);
+      });
+    RowPublisher publisher = new RowPublisher(5);
+    BatchUpdateSubscriber sink = new BatchUpdateSubscriber(this.reactiveTemplate, SQL, 2, this.executor);
+
+    publisher.subscribe(sink);
+
+    assertEquals(5L, sink.getResult().get(1L, TimeUnit.SECONDS).longValue());
+    // one request for the first batch and one after every full batch
+    assertEquals(Arrays.asList(2L, 2L, 2L), publisher.requests);
+    verify(this.statement, times(5)).addBatch();
+    verify(this.statement, times(3)).executeBatchAsyncOracle();
+    // never started on the thread of the driver completing the previous batch
+    assertEquals(Arrays.asList("batch", "batch", "batch"), executingThreads);
+  }
+
+  @Test
+  public void batchFails() throws Exception {
+    when(this.statement.executeBatchAsyncOracle())
+      .thenAnswer(invocation -> rowCounts(1L, 1L))
+      .thenThrow(new SQLException("closed", "08003"));
+    RowPublisher publisher = new RowPublisher(10);
+    BatchUpdateSubscriber sink = new BatchUpdateSubscriber(this.reactiveTemplate, SQL, 2, this.executor);
+
+    publisher.subscribe(sink);
+
+    ExecutionException exception = assertThrows(ExecutionException.class, () -> sink.getResult().get(1L, TimeUnit.SECONDS));
+    assertTrue(exception.getCause() instanceof DataAccessResourceFailureException);
+    assertTrue(publisher.cancelled);
+    verify(this.statement, times(2)).executeBatchAsyncOracle();
+  }
+
+  @Test
+  public void batchUpdateThrows() {
+    AssertionError error = new AssertionError("unexpected");
+    when(this.statement.executeBatchAsyncOracle()).thenThrow(error);
+    RowPublisher publisher = new RowPublisher(10);
+    BatchUpdateSubscriber sink = new BatchUpdateSubscriber(this.reactiveTemplate, SQL, 2, this.executor);
+
+    publisher.subscribe(sink);
+
+    ExecutionException exception = assertThrows(ExecutionException.class, () -> sink.getResult().get(1L, TimeUnit.SECONDS));
+    assertSame(error, exception.getCause());
+    assertTrue(publisher.cancelled);
+  }
+
+  @Test
+  public void executorRejects() {
+    RejectedExecutionException rejected = new RejectedExecutionException("shut down");
+    Executor rejecting = command -> {
+      throw rejected;
+    };
+    RowPublisher publisher = new RowPublisher(10);
+    BatchUpdateSubscriber sink = new BatchUpdateSubscriber(this.reactiveTemplate, SQL, 2, rejecting);
+
+    publisher.subscribe(sink);
+
+    ExecutionException exception = assertThrows(ExecutionException.class, () -> sink.getResult().get(1L, TimeUnit.SECONDS));
+    assertSame(rejected, exception.getCause());
+    assertTrue(publisher.cancelled);
+  }
+
+  @Test
+  public void publisherFails() {
+    BatchUpdateSubscriber sink = new BatchUpdateSubscriber(this.reactiveTemplate, SQL, 2, this.executor);
+    IllegalStateException failure = new IllegalStateException("upstream");
+
+    sink.onSubscribe(StatementPublisher.EmptySubscription.INSTANCE);
+    sink.onNext(new MapSqlParameterSource("numval", 1).addValue("id", 1));
+    sink.onError(failure);
+
+    ExecutionException exception = assertThrows(ExecutionException.class, () -> sink.getResult().get(1L, TimeUnit.SECONDS));
+    assertEquals(failure, exception.getCause());
+  }
+
+  @Test
+  public void invalidBatchSize() {
+    assertThrows(IllegalArgumentException.class, () -> new BatchUpdateSubscriber(this.reactiveTemplate, SQL, 0, this.executor));
+  }
+
+  private static Flow.Publisher<Long> rowCountsOnNewThread(Long... rowCounts) {
+    Flow.Publisher<Long> publisher = rowCounts(rowCounts);
+    return subscriber -> new Thread(() -> publisher.subscribe(subscriber), "completion").start();
+  }
+
+  private static Flow.Publisher<Long> rowCounts(Long... rowCounts) {
+    return subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+
+      private boolean done;
+
+      @Override
+      public void request(long n) {
+        if (!this.done) {
+          this.done = true;
+          for (Long rowCount : rowCounts) {
+            subscriber.onNext(rowCount);
+          }
+          subscriber.onComplete();
+        }
+      }
+
+      @Override
+      public void cancel() {
+        this.done = true;
+      }
+
+    });
+  }
+
+  /**
+   * Publishes a number of rows and records the demand, supports reentrant
+   * requests.
+   */
+  static final class RowPublisher implements Flow.Publisher<SqlParameterSource>, Flow.Subscription {
+
+    final List<Long> requests;
+
+    private final int rowCount;
+
+    private Flow.Subscriber<? super SqlParameterSource> subscriber;
+
+    private long demand;
+
+    private int emitted;
+
+    private boolean emitting;
+
+    private boolean completed;
+
+    volatile boolean cancelled;
+
+    RowPublisher(int rowCount) {
+      this.rowCount = rowCount;
+      this.requests = new ArrayList<>();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super SqlParameterSource> subscriber) {
+      this.subscriber = subscriber;
+      subscriber.onSubscribe(this);
+    }
+
+    @Override
+    public void request(long n) {
+      this.requests.add(n);
+      this.demand += n;
+      if (this.emitting) {
+        // emitted by the loop further up the stack
+        return;
+      }
+      this.emitting = true;
+      while (this.demand > 0L && this.emitted < this.rowCount && !this.cancelled) {
+        this.demand -= 1L;
+        int id = this.emitted++;
+        this.subscriber.onNext(new MapSqlParameterSource("numval", -id).addValue("id", id));
+      }
+      this.emitting = false;
+      if (this.emitted == this.rowCount && !this.cancelled && !this.completed) {
+        this.completed = true;
+        this.subscriber.onComplete();
+      }
+    }
+
+    @Override
+    public void cancel() {
+      this.cancelled = true;
+    }
+
+  }
+
+}
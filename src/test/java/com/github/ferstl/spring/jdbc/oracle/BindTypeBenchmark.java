@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2013 by Stefan Ferstl <st.ferstl@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import com.github.ferstl.spring.jdbc.oracle.OracleNamedParameterJdbcTemplate.NamedPreparedStatementCreator;
+
+import oracle.jdbc.OraclePreparedStatement;
+
+/**
+ * Compares binding every value with {@code setObjectAtName} to binding with
+ * type specific {@code setXxxAtName} methods.
+ *
+ * <p>The statement is a stub that does nothing, this therefore only measures
+ * the overhead of the dispatch on our side. The savings of skipping the
+ * type checks and conversions of {@code setObjectAtName} are inside ojdbc.</p>
+ *
+ * <p>Run with {@code java -cp target/test-classes:<test classpath> com.github.ferstl.spring.jdbc.oracle.BindTypeBenchmark}.</p>
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BindTypeBenchmark {
+
+  private OraclePreparedStatement statement;
+
+  private SqlParameterSource parameterSource;
+
+  private String[] parameterNames;
+
+  private BindType.Cache bindTypes;
+
+  private NullBindTypes nullBindTypes;
+
+  private StatementArrays arrays;
+
+  @Setup
+  public void setUp() {
+    this.statement = NoOpOraclePreparedStatement.create();
+    MapSqlParameterSource source = new MapSqlParameterSource();
+    source.addValue("id", 1L);
+    source.addValue("val", "Value_00001");
+    source.addValue("numval", 1);
+    source.addValue("amount", BigDecimal.TEN);
+    source.addValue("created", new Timestamp(0L));
+    this.parameterSource = source;
+    this.parameterNames = source.getParameterNames();
+    this.bindTypes = new BindType.Cache(this.parameterNames.length);
+    this.nullBindTypes = new NullBindTypes();
+    this.arrays = new StatementArrays();
+  }
+
+  @Benchmark
+  public void setObjectAtName() throws SQLException {
+    SqlParameterSource source = this.parameterSource;
+    for (String parameterName : this.parameterNames) {
+      this.statement.setObjectAtName(parameterName, source.getValue(parameterName));
+    }
+  }
+
+  @Benchmark
+  public void bindTypeResolved() throws SQLException {
+    NamedPreparedStatementCreator.setValues(this.statement, this.parameterSource, this.parameterNames, null, this.nullBindTypes, null,
+            this.arrays);
+  }
+
+  @Benchmark
+  public void bindTypeCached() throws SQLException {
+    NamedPreparedStatementCreator.setValues(this.statement, this.parameterSource, this.parameterNames, this.bindTypes, this.nullBindTypes, null,
+            this.arrays);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+            .include(BindTypeBenchmark.class.getName())
+            .build();
+    new Runner(options).run();
+  }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2013 by Stefan Ferstl <st.ferstl@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import oracle.jdbc.OraclePreparedStatement;
+
+public class BindTypeTest {
+
+  @Test
+  public void unknownSqlType() {
+    assertEquals(BindType.STRING, BindType.of(String.class, SqlParameterSource.TYPE_UNKNOWN));
+    assertEquals(BindType.INT, BindType.of(Integer.class, SqlParameterSource.TYPE_UNKNOWN));
+    assertEquals(BindType.LONG, BindType.of(Long.class, SqlParameterSource.TYPE_UNKNOWN));
+    assertEquals(BindType.BIG_DECIMAL, BindType.of(BigDecimal.class, SqlParameterSource.TYPE_UNKNOWN));
+    assertEquals(BindType.BYTES, BindType.of(byte[].class, SqlParameterSource.TYPE_UNKNOWN));
+    assertEquals(BindType.TIMESTAMP, BindType.of(Timestamp.class, SqlParameterSource.TYPE_UNKNOWN));
+    assertEquals(BindType.UTIL_DATE, BindType.of(Date.class, SqlParameterSource.TYPE_UNKNOWN));
+    assertEquals(BindType.NAMED_SQL_VALUE, BindType.of(SqlOracleArrayValue.class, SqlParameterSource.TYPE_UNKNOWN));
+    assertEquals(BindType.OBJECT, BindType.of(UuidOracleData.class, SqlParameterSource.TYPE_UNKNOWN));
+  }
+
+  @Test
+  public void compatibleSqlType() {
+    assertEquals(BindType.STRING, BindType.of(String.class, Types.VARCHAR));
+    assertEquals(BindType.INT, BindType.of(Integer.class, Types.NUMERIC));
+    assertEquals(BindType.LONG, BindType.of(Long.class, Types.BIGINT));
+    assertEquals(BindType.UTIL_DATE, BindType.of(Date.class, Types.TIMESTAMP));
+  }
+
+  @Test
+  public void incompatibleSqlType() {
+    assertEquals(BindType.OBJECT, BindType.of(String.class, Types.NVARCHAR));
+    assertEquals(BindType.OBJECT, BindType.of(String.class, Types.NUMERIC));
+    assertEquals(BindType.OBJECT, BindType.of(Date.class, Types.DATE));
+    assertEquals(BindType.NAMED_SQL_VALUE, BindType.of(SqlOracleArrayValue.class, Types.ARRAY));
+  }
+
+  @Test
+  public void utilDate() throws SQLException {
+    OraclePreparedStatement statement = mock(OraclePreparedStatement.class);
+    Date date = new Date(1000L);
+
+    BindType.UTIL_DATE.setValue(statement, "date", date, SqlParameterSource.TYPE_UNKNOWN);
+
+    verify(statement).setTimestampAtName("date", new Timestamp(1000L));
+  }
+
+  @Test
+  public void object() throws SQLException {
+    OraclePreparedStatement statement = mock(OraclePreparedStatement.class);
+    Date date = new Date(1000L);
+
+    BindType.OBJECT.setValue(statement, "date", date, Types.DATE);
+
+    verify(statement).setObjectAtName("date", new Timestamp(1000L), Types.DATE);
+  }
+
+  @Test
+  public void cache() {
+    BindType.Cache cache = new BindType.Cache(2);
+
+    assertSame(BindType.INT, cache.get(0, Integer.class, SqlParameterSource.TYPE_UNKNOWN));
+    assertSame(BindType.STRING, cache.get(1, String.class, SqlParameterSource.TYPE_UNKNOWN));
+    assertSame(BindType.INT, cache.get(0, Integer.class, SqlParameterSource.TYPE_UNKNOWN));
+    assertSame(BindType.LONG, cache.get(0, Long.class, SqlParameterSource.TYPE_UNKNOWN));
+    assertSame(BindType.OBJECT, cache.get(1, String.class, Types.NVARCHAR));
+  }
+
+}
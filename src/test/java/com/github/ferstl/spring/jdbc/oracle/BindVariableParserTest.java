@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2013 by Stefan Ferstl <st.ferstl@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static com.github.ferstl.spring.jdbc.oracle.BindVariableParser.parseBindNames;
+import static com.github.ferstl.spring.jdbc.oracle.BindVariableParser.replaceBindVariables;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class BindVariableParserTest {
+
+  @Test
+  public void simple() {
+    assertArrayEquals(new String[] {"ten", "twenty"}, parseBindNames("SELECT 1 FROM dual WHERE 1 = :ten or 20 = :twenty"));
+  }
+
+  @Test
+  public void repetition() {
+    assertArrayEquals(new String[] {"ten"}, parseBindNames("SELECT 1 FROM dual WHERE 10 = :ten or 0 < :ten "));
+  }
+
+  @Test
+  public void commonPrefix() {
+    assertArrayEquals(new String[] {"arg", "arg2"}, parseBindNames("SELECT 1 FROM dual WHERE 10 = :arg or 20 = :arg2"));
+  }
+
+  @Test
+  public void identifierCharacters() {
+    assertArrayEquals(new String[] {"a_b$c#1"}, parseBindNames("SELECT 1 FROM dual WHERE 1 = :a_b$c#1"));
+  }
+
+  @Test
+  public void literals() {
+    assertArrayEquals(new String[] {"id"}, parseBindNames("SELECT ':no', 'it''s :no', q'[:no]' FROM dual WHERE id = :id"));
+  }
+
+  @Test
+  public void nationalQuoteLiterals() {
+    assertArrayEquals(new String[] {"id"}, parseBindNames("SELECT nq'[:no]', NQ'{it's :no}' FROM dual WHERE id = :id"));
+  }
+
+  @Test
+  public void quotedIdentifiers() {
+    assertArrayEquals(new String[] {"id"}, parseBindNames("SELECT 1 AS \":no\" FROM dual WHERE id = :id"));
+  }
+
+  @Test
+  public void comments() {
+    assertArrayEquals(new String[] {"id"}, parseBindNames("SELECT 1 -- :no\n FROM /* :no */ dual WHERE id = :id"));
+  }
+
+  @Test
+  public void plsqlAssignment() {
+    assertArrayEquals(new String[] {"id"}, parseBindNames("BEGIN l_id := :id; END;"));
+  }
+
+  @Test
+  public void numbered() {
+    assertArrayEquals(new String[0], parseBindNames("SELECT 1 FROM dual WHERE 1 = :1"));
+  }
+
+  @Test
+  public void replace() {
+    assertEquals("UPDATE t SET val = l_val(i) WHERE id = l_id(i) AND ':no' = ':no'",
+            replaceBindVariables("UPDATE t SET val = :val WHERE id = :id AND ':no' = ':no'", name -> "l_" + name + "(i)"));
+  }
+
+  @Test
+  public void replaceNothing() {
+    assertEquals("SELECT 1 FROM dual", replaceBindVariables("SELECT 1 FROM dual", name -> "x"));
+  }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2013 by Stefan Ferstl <st.ferstl@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+public class BoundedConcurrentCacheTest {
+
+  @Test
+  public void evictsInInsertionOrder() {
+    BoundedConcurrentCache<Integer, String> cache = new BoundedConcurrentCache<>(3);
+    for (int i = 0; i < 5; i++) {
+      cache.put(i, Integer.toString(i));
+    }
+
+    assertEquals(3, cache.size());
+    assertNull(cache.getIfPresent(0));
+    assertNull(cache.getIfPresent(1));
+    assertNotNull(cache.getIfPresent(2));
+    assertNotNull(cache.getIfPresent(3));
+    assertNotNull(cache.getIfPresent(4));
+  }
+
+  @Test
+  public void neverEvictsInsertedEntry() {
+    BoundedConcurrentCache<Integer, String> cache = new BoundedConcurrentCache<>(1);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(Integer.toString(i), cache.get(i, Object::toString));
+      assertEquals(Integer.toString(i), cache.getIfPresent(i));
+      assertEquals(1, cache.size());
+    }
+  }
+
+  @Test
+  public void neverEvictsInsertedEntryAfterClear() {
+    BoundedConcurrentCache<Integer, String> cache = new BoundedConcurrentCache<>(2);
+    cache.put(1, "1");
+    cache.clear();
+    cache.put(2, "2");
+    cache.put(3, "3");
+    cache.put(4, "4");
+
+    assertEquals(2, cache.size());
+    assertNull(cache.getIfPresent(2));
+    assertEquals("3", cache.getIfPresent(3));
+    assertEquals("4", cache.getIfPresent(4));
+  }
+
+  @Test
+  public void replacingDoesNotChangeOrder() {
+    BoundedConcurrentCache<Integer, String> cache = new BoundedConcurrentCache<>(2);
+    cache.put(1, "1");
+    cache.put(2, "2");
+    cache.put(1, "one");
+    cache.putIfAbsent(3, "3");
+
+    assertNull(cache.getIfPresent(1));
+    assertEquals("2", cache.getIfPresent(2));
+    assertEquals("3", cache.getIfPresent(3));
+  }
+
+  @Test
+  public void reinsertAfterEviction() {
+    BoundedConcurrentCache<Integer, String> cache = new BoundedConcurrentCache<>(3);
+    for (int i = 1; i <= 4; i++) {
+      cache.put(i, Integer.toString(i));
+    }
+    cache.put(1, "one");
+    cache.put(5, "5");
+
+    assertEquals(3, cache.size());
+    assertNull(cache.getIfPresent(2));
+    assertNull(cache.getIfPresent(3));
+    assertEquals("one", cache.getIfPresent(1));
+    assertEquals("4", cache.getIfPresent(4));
+    assertEquals("5", cache.getIfPresent(5));
+  }
+
+  @Test
+  public void readEntriesGetSecondChance() {
+    BoundedConcurrentCache<Integer, String> cache = new BoundedConcurrentCache<>(2);
+    cache.put(1, "1");
+    cache.put(2, "2");
+    cache.getIfPresent(1);
+    cache.put(3, "3");
+
+    assertNull(cache.getIfPresent(2));
+    assertEquals("1", cache.getIfPresent(1));
+    assertEquals("3", cache.getIfPresent(3));
+  }
+
+  @Test
+  public void lowerLimit() {
+    BoundedConcurrentCache<Integer, String> cache = new BoundedConcurrentCache<>(4);
+    for (int i = 0; i < 4; i++) {
+      cache.put(i, Integer.toString(i));
+    }
+    cache.setLimit(1);
+
+    assertEquals(1, cache.size());
+    assertEquals("3", cache.getIfPresent(3));
+  }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2013 by Stefan Ferstl <st.ferstl@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CachedPreparedStatementCreatorRegistryTest {
+
+  private CachedPreparedStatementCreatorRegistry registry;
+
+  @BeforeEach
+  public void setUp() {
+    this.registry = new CachedPreparedStatementCreatorRegistry();
+  }
+
+  @Test
+  public void derivedKey() {
+    CachedPreparedStatementCreator creator = this.registry.getCreator("SELECT 1 FROM dual");
+
+    assertEquals("SELECT 1 FROM dual", creator.getSql());
+    assertSame(creator, this.registry.getCreator("SELECT 1 FROM dual"));
+    assertEquals(creator.getKey(), this.registry.getKey("SELECT 1 FROM dual"));
+    assertNotEquals(creator.getKey(), this.registry.getKey("SELECT 2 FROM dual"));
+  }
+
+  @Test
+  public void derivedKeyCollision() {
+    String hashKey = this.registry.getKey("SELECT 1 FROM dual");
+    // the derived key is now taken by a different statement
+    CachedPreparedStatementCreatorRegistry other = new CachedPreparedStatementCreatorRegistry();
+    other.getCreator(hashKey, "SELECT 2 FROM dual");
+
+    assertThrows(IllegalArgumentException.class, () -> other.getKey("SELECT 1 FROM dual"));
+    // can still be registered with an explicit key
+    assertEquals("SELECT 1 FROM dual", other.getCreator("key", "SELECT 1 FROM dual").getSql());
+  }
+
+  @Test
+  public void derivedKeyIndependentOfOrder() {
+    CachedPreparedStatementCreatorRegistry other = new CachedPreparedStatementCreatorRegistry();
+    other.getKey("SELECT 2 FROM dual");
+
+    assertEquals(this.registry.getKey("SELECT 1 FROM dual"), other.getKey("SELECT 1 FROM dual"));
+  }
+
+  @Test
+  public void explicitKey() {
+    CachedPreparedStatementCreator creator = this.registry.getCreator("key", "SELECT 1 FROM dual");
+
+    assertEquals("key", creator.getKey());
+    assertSame(creator, this.registry.getCreator("key", "SELECT 1 FROM dual"));
+    assertSame(creator, this.registry.getCreator("SELECT 1 FROM dual"));
+  }
+
+  @Test
+  public void explicitKeyUsedTwice() {
+    this.registry.getCreator("key", "SELECT 1 FROM dual");
+
+    assertThrows(IllegalArgumentException.class, () -> this.registry.getCreator("key", "SELECT 2 FROM dual"));
+  }
+
+  @Test
+  public void statementWithTwoKeys() {
+    this.registry.getCreator("SELECT 1 FROM dual");
+
+    assertThrows(IllegalArgumentException.class, () -> this.registry.getCreator("key", "SELECT 1 FROM dual"));
+  }
+
+}
@@ -1,13 +1,17 @@
 package com.github.ferstl.spring.jdbc.oracle;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.Collections;
 import java.util.List;
 
@@ -15,6 +19,7 @@ import javax.sql.DataSource;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCreator;
@@ -22,6 +27,7 @@ import org.springframework.jdbc.core.SqlProvider;
 
 import oracle.jdbc.OracleConnection;
 import oracle.jdbc.OraclePreparedStatement;
+import oracle.jdbc.OracleStatement;
 
 public class CachedPreparedStatementCreatorTest {
 
@@ -93,4 +99,101 @@ public class CachedPreparedStatementCreatorTest {
     verify(preparedStatement, never()).close();
   }
 
+  @Test
+  public void restoreSettings() throws SQLException {
+    String key = "key";
+    String sql = "SELECT 1 FROM dual";
+
+    ResultSet resultSet = mock(ResultSet.class);
+    when(resultSet.next()).thenReturn(true, false);
+    when(resultSet.getInt(1)).thenReturn(1);
+
+    OraclePreparedStatement preparedStatement = mock(OraclePreparedStatement.class);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(preparedStatement);
+    when(preparedStatement.executeQuery()).thenReturn(resultSet);
+    when(preparedStatement.getFetchSize()).thenReturn(10);
+    when(preparedStatement.getMaxRows()).thenReturn(0);
+    when(preparedStatement.getQueryTimeout()).thenReturn(0);
+
+    when(this.connection.getStatementWithKey(key)).thenReturn(preparedStatement);
+
+    JdbcTemplate jdbcTemplate = (JdbcTemplate) this.jdbcOperations;
+    jdbcTemplate.setFetchSize(5000);
+    jdbcTemplate.setMaxRows(100);
+    jdbcTemplate.setQueryTimeout(30);
+
+    PreparedStatementCreator creator = new CachedPreparedStatementCreator(key, sql);
+    List<Integer> result = this.jdbcOperations.query(creator, (rs, i) -> rs.getInt(1));
+    assertEquals(Collections.singletonList(1), result);
+
+    InOrder inOrder = inOrder(preparedStatement);
+    inOrder.verify(preparedStatement).setFetchSize(5000);
+    inOrder.verify(preparedStatement).setFetchSize(10);
+    inOrder.verify(preparedStatement).closeWithKey(key);
+    verify(preparedStatement).setMaxRows(100);
+    verify(preparedStatement).setMaxRows(0);
+    verify(preparedStatement).setQueryTimeout(30);
+    verify(preparedStatement).setQueryTimeout(0);
+    verify(preparedStatement, never()).setMaxFieldSize(anyInt());
+    verify(preparedStatement, never()).close();
+  }
+
+  @Test
+  public void clearColumnDefines() throws SQLException {
+    String key = "key";
+    String sql = "SELECT val FROM test_table";
+
+    ResultSet resultSet = mock(ResultSet.class);
+    ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+    when(metaData.getColumnCount()).thenReturn(1);
+    when(metaData.getColumnType(1)).thenReturn(Types.VARCHAR);
+    when(metaData.getColumnLabel(1)).thenReturn("VAL");
+    when(metaData.getPrecision(1)).thenReturn(4000);
+
+    OraclePreparedStatement preparedStatement = mock(OraclePreparedStatement.class);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(preparedStatement);
+    when(preparedStatement.unwrap(OracleStatement.class)).thenReturn(preparedStatement);
+    when(preparedStatement.getMetaData()).thenReturn(metaData);
+    when(preparedStatement.executeQuery()).thenReturn(resultSet);
+
+    when(this.connection.getStatementWithKey(key)).thenReturn(preparedStatement);
+
+    ColumnDefineCache columnDefines = new ColumnDefineCache(Collections.singletonMap("VAL", 10));
+    PreparedStatementCreator creator = new CachedPreparedStatementCreator(key, sql, StatementCacheMetrics.NONE, columnDefines);
+    this.jdbcOperations.query(creator, (rs, i) -> rs.getString(1));
+
+    // the next user of the key must not truncate to the shortened length
+    InOrder inOrder = inOrder(preparedStatement);
+    inOrder.verify(preparedStatement).defineColumnType(1, Types.VARCHAR, 10, OraclePreparedStatement.FORM_CHAR);
+    inOrder.verify(preparedStatement).clearDefines();
+    inOrder.verify(preparedStatement).closeWithKey(key);
+  }
+
+  @Test
+  public void noSettingsChanged() throws SQLException {
+    String key = "key";
+    String sql = "SELECT 1 FROM dual";
+
+    ResultSet resultSet = mock(ResultSet.class);
+    when(resultSet.next()).thenReturn(true, false);
+    when(resultSet.getInt(1)).thenReturn(1);
+
+    OraclePreparedStatement preparedStatement = mock(OraclePreparedStatement.class);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(preparedStatement);
+    when(preparedStatement.executeQuery()).thenReturn(resultSet);
+
+    when(this.connection.getStatementWithKey(key)).thenReturn(preparedStatement);
+
+    PreparedStatementCreator creator = new CachedPreparedStatementCreator(key, sql);
+    this.jdbcOperations.query(creator, (rs, i) -> rs.getInt(1));
+
+    verify(preparedStatement).closeWithKey(key);
+    verify(preparedStatement, never()).getFetchSize();
+    verify(preparedStatement, never()).setFetchSize(anyInt());
+    verify(preparedStatement, never()).setMaxRows(anyInt());
+    verify(preparedStatement, never()).setQueryTimeout(anyInt());
+    verify(preparedStatement, never()).setMaxFieldSize(anyInt());
+    verify(preparedStatement, never()).clearDefines();
+  }
+
 }
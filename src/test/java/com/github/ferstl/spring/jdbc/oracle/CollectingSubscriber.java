@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Collects all items of a {@link Flow.Publisher}, requesting a fixed number
+ * of items at a time.
+ *
+ * @param <T> the type of the items
+ */
+public class CollectingSubscriber<T> implements Flow.Subscriber<T> {
+
+  private final long batchSize;
+
+  private final List<T> items;
+
+  private final CompletableFuture<List<T>> result;
+
+  private Flow.Subscription subscription;
+
+  private long outstanding;
+
+  public CollectingSubscriber(long batchSize) {
+    this.batchSize = batchSize;
+    this.items = new ArrayList<>();
+    this.result = new CompletableFuture<>();
+  }
+
+  public static <T> List<T> collect(Flow.Publisher<T> publisher) throws InterruptedException, ExecutionException, TimeoutException {
+    CollectingSubscriber<T> subscriber = new CollectingSubscriber<>(Long.MAX_VALUE);
+    publisher.subscribe(subscriber);
+    return subscriber.get();
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    this.subscription = subscription;
+    this.outstanding = this.batchSize;
+    subscription.request(this.batchSize);
+  }
+
+  @Override
+  public void onNext(T item) {
+    this.items.add(item);
+    this.outstanding -= 1;
+    if (this.outstanding == 0L) {
+      this.outstanding = this.batchSize;
+      this.subscription.request(this.batchSize);
+    }
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    this.result.completeExceptionally(throwable);
+  }
+
+  @Override
+  public void onComplete() {
+    this.result.complete(this.items);
+  }
+
+  public List<T> get() throws InterruptedException, ExecutionException, TimeoutException {
+    return this.result.get(10L, TimeUnit.SECONDS);
+  }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+public class CollectionTypeRegistryTest {
+
+  private OracleConnection oracleConnection;
+  private OraclePreparedStatement statement;
+  private Array array;
+
+  @BeforeEach
+  public void setUp() throws SQLException {
+    Connection connection = mock(Connection.class);
+    this.oracleConnection = mock(OracleConnection.class);
+    this.statement = mock(OraclePreparedStatement.class);
+    this.array = mock(Array.class);
+
+    when(this.statement.getConnection()).thenReturn(connection);
+    when(connection.unwrap(OracleConnection.class)).thenReturn(this.oracleConnection);
+    when(this.oracleConnection.createOracleArray(any(String.class), any(Object[].class))).thenReturn(this.array);
+  }
+
+  @Test
+  public void superclass() throws SQLException {
+    CollectionTypeRegistry registry = new CollectionTypeRegistry().register(Number.class, "NUMBER_TABLE");
+
+    registry.setValue(this.statement, "ids", Arrays.asList(null, BigDecimal.ONE), new StatementArrays());
+
+    verify(this.oracleConnection).createOracleArray("NUMBER_TABLE", new Object[] {null, BigDecimal.ONE});
+    verify(this.statement).setArrayAtName("ids", this.array);
+  }
+
+  @Test
+  public void interfaceType() throws SQLException {
+    CollectionTypeRegistry registry = new CollectionTypeRegistry().register(CharSequence.class, "VARCHAR_TABLE");
+
+    registry.setValue(this.statement, "names", Collections.singleton("name"), new StatementArrays());
+
+    verify(this.oracleConnection).createOracleArray("VARCHAR_TABLE", new Object[] {"name"});
+  }
+
+  @Test
+  public void uuid() throws SQLException {
+    CollectionTypeRegistry registry = new CollectionTypeRegistry().registerUuid("RAW16_TABLE");
+    UUID uuid = new UUID(0x0102030405060708L, 0x090A0B0C0D0E0F10L);
+
+    registry.setValue(this.statement, "ids", Collections.singletonList(uuid), new StatementArrays());
+
+    ArgumentCaptor<Object[]> elements = ArgumentCaptor.forClass(Object[].class);
+    verify(this.oracleConnection).createOracleArray(eq("RAW16_TABLE"), elements.capture());
+    assertArrayEquals(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16}, (byte[]) elements.getValue()[0]);
+  }
+
+  @Test
+  public void cleanup() throws SQLException {
+    CollectionTypeRegistry registry = new CollectionTypeRegistry().register(Long.class, "NUMBER_TABLE");
+
+    StatementArrays arrays = new StatementArrays();
+
+    registry.setValue(this.statement, "ids", Arrays.asList(1L, 2L), arrays);
+    verify(this.array, never()).free();
+
+    arrays.free();
+    verify(this.array).free();
+
+    // arrays are only freed once
+    arrays.free();
+    verify(this.array).free();
+  }
+
+  @Test
+  public void unregisteredType() {
+    CollectionTypeRegistry registry = new CollectionTypeRegistry().register(Long.class, "NUMBER_TABLE");
+
+    assertThrows(IllegalArgumentException.class, () -> registry.setValue(this.statement, "ids", Collections.singleton("1"), new StatementArrays()));
+  }
+
+  @Test
+  public void emptyCollection() throws SQLException {
+    CollectionTypeRegistry registry = new CollectionTypeRegistry().register(Long.class, "NUMBER_TABLE");
+
+    registry.setValue(this.statement, "ids", Collections.emptyList(), new StatementArrays());
+
+    verify(this.oracleConnection).createOracleArray("NUMBER_TABLE", new Object[0]);
+    verify(this.statement).setArrayAtName("ids", this.array);
+  }
+
+  @Test
+  public void emptyCollectionAfterSubtype() throws SQLException {
+    CollectionTypeRegistry registry = new CollectionTypeRegistry().register(Number.class, "NUMBER_TABLE");
+
+    // caches the collection type of the subtype
+    registry.setValue(this.statement, "ids", Collections.singleton(1L), new StatementArrays());
+    registry.setValue(this.statement, "ids", Collections.singletonList(null), new StatementArrays());
+
+    verify(this.oracleConnection).createOracleArray("NUMBER_TABLE", new Object[] {null});
+  }
+
+  @Test
+  public void emptyCollectionAmbiguous() {
+    CollectionTypeRegistry registry = new CollectionTypeRegistry()
+      .register(Long.class, "NUMBER_TABLE")
+      .register(String.class, "VARCHAR_TABLE");
+
+    assertThrows(IllegalArgumentException.class, () -> registry.setValue(this.statement, "ids", Collections.emptyList(), new StatementArrays()));
+  }
+
+  @Test
+  public void emptyCollectionTypeName() throws SQLException {
+    CollectionTypeRegistry registry = new CollectionTypeRegistry()
+      .register(Long.class, "NUMBER_TABLE")
+      .register(String.class, "VARCHAR_TABLE")
+      .setEmptyCollectionTypeName("VARCHAR_TABLE");
+
+    registry.setValue(this.statement, "names", Collections.emptySet(), new StatementArrays());
+
+    verify(this.oracleConnection).createOracleArray("VARCHAR_TABLE", new Object[0]);
+  }
+
+  @Test
+  public void emptyCollectionWithoutTypes() {
+    CollectionTypeRegistry registry = new CollectionTypeRegistry();
+
+    assertThrows(IllegalArgumentException.class, () -> registry.setValue(this.statement, "ids", Collections.emptyList(), new StatementArrays()));
+  }
+
+}
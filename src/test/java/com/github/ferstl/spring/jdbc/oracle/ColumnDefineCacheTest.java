@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import oracle.jdbc.OraclePreparedStatement;
+import oracle.jdbc.OracleStatement;
+
+/**
+ * JUnit tests for {@link ColumnDefineCache}.
+ */
+public class ColumnDefineCacheTest {
+
+  private static final String SQL = "SELECT id, val, description FROM test_table WHERE id = :id";
+
+  private OraclePreparedStatement statement;
+
+  private ResultSetMetaData metaData;
+
+  @BeforeEach
+  public void setUp() throws SQLException {
+    this.statement = mock(OraclePreparedStatement.class);
+    this.metaData = mock(ResultSetMetaData.class);
+    when(this.statement.unwrap(OracleStatement.class)).thenReturn(this.statement);
+    when(this.statement.getMetaData()).thenReturn(this.metaData);
+    when(this.metaData.getColumnCount()).thenReturn(3);
+    when(this.metaData.getColumnType(1)).thenReturn(Types.NUMERIC);
+    when(this.metaData.getColumnType(2)).thenReturn(Types.VARCHAR);
+    when(this.metaData.getColumnType(3)).thenReturn(Types.NVARCHAR);
+    when(this.metaData.getColumnLabel(2)).thenReturn("VAL");
+    when(this.metaData.getColumnLabel(3)).thenReturn("DESCRIPTION");
+    when(this.metaData.getPrecision(2)).thenReturn(50);
+    when(this.metaData.getPrecision(3)).thenReturn(4000);
+  }
+
+  @Test
+  public void describeOnce() throws SQLException {
+    ColumnDefineCache cache = new ColumnDefineCache(Collections.singletonMap("description", 100));
+
+    cache.defineColumns(SQL, this.statement);
+    cache.defineColumns(SQL, this.statement);
+
+    verify(this.statement, times(1)).getMetaData();
+    verify(this.statement, times(2)).defineColumnType(1, Types.NUMERIC);
+    verify(this.statement, times(2)).defineColumnType(2, Types.VARCHAR, 50, OraclePreparedStatement.FORM_CHAR);
+    verify(this.statement, times(2)).defineColumnType(3, Types.NVARCHAR, 100, OraclePreparedStatement.FORM_NCHAR);
+  }
+
+  @Test
+  public void maxLengthLargerThanPrecision() throws SQLException {
+    ColumnDefineCache cache = new ColumnDefineCache(Collections.singletonMap("VAL", 100));
+
+    cache.defineColumns(SQL, this.statement);
+
+    verify(this.statement).defineColumnType(2, Types.VARCHAR, 50, OraclePreparedStatement.FORM_CHAR);
+  }
+
+  @Test
+  public void clear() throws SQLException {
+    ColumnDefineCache cache = new ColumnDefineCache();
+
+    cache.defineColumns(SQL, this.statement);
+    cache.clear();
+    cache.defineColumns(SQL, this.statement);
+
+    verify(this.statement, times(2)).getMetaData();
+  }
+
+  @Test
+  public void unsupportedType() throws SQLException {
+    when(this.metaData.getColumnType(3)).thenReturn(Types.STRUCT);
+    ColumnDefineCache cache = new ColumnDefineCache();
+
+    cache.defineColumns(SQL, this.statement);
+
+    verify(this.statement, never()).defineColumnType(anyInt(), anyInt());
+    verify(this.statement, never()).defineColumnType(anyInt(), anyInt(), anyInt(), anyShort());
+  }
+
+  @Test
+  public void notAQuery() throws SQLException {
+    ColumnDefineCache cache = new ColumnDefineCache();
+
+    cache.defineColumns("UPDATE test_table SET val = :val WHERE id = :id", this.statement);
+
+    verify(this.statement, never()).getMetaData();
+    verify(this.statement, never()).defineColumnType(anyInt(), anyInt());
+  }
+
+  @Test
+  public void isQuery() {
+    assertTrue(ColumnDefineCache.isQuery("SELECT 1 FROM dual"));
+    assertTrue(ColumnDefineCache.isQuery("  select 1 from dual"));
+    assertTrue(ColumnDefineCache.isQuery("(SELECT 1 FROM dual) UNION ALL (SELECT 2 FROM dual)"));
+    assertTrue(ColumnDefineCache.isQuery("WITH t AS (SELECT 1 AS n FROM dual) SELECT n FROM t"));
+    assertFalse(ColumnDefineCache.isQuery("INSERT INTO test_table(id) SELECT 1 FROM dual"));
+    assertFalse(ColumnDefineCache.isQuery("BEGIN NULL; END;"));
+    assertFalse(ColumnDefineCache.isQuery("SEL"));
+  }
+
+  @Test
+  public void invalidMaxLength() {
+    assertThrows(IllegalArgumentException.class, () -> new ColumnDefineCache(Collections.singletonMap("VAL", 0)));
+  }
+
+}
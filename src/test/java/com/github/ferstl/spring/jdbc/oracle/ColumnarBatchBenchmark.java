@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import com.github.ferstl.spring.jdbc.oracle.dsconfig.DataSourceProfile;
+
+/**
+ * Compares {@link OracleNamedParameterJdbcTemplate#batchUpdate(String, SqlParameterSource[])}
+ * to {@link OracleNamedParameterJdbcTemplate#batchUpdateColumnar(String, SqlParameterSource[], Map, String)}
+ * for the single row update of {@link AbstractUpdateBatchingIntegrationTest}.
+ *
+ * <p>Every row is updated to the value it already has so that every
+ * invocation does the same work.</p>
+ *
+ * <p>Needs the database of the integration tests, see the README.</p>
+ *
+ * <p>Run with {@code java -cp target/test-classes:<test classpath> com.github.ferstl.spring.jdbc.oracle.ColumnarBatchBenchmark}.</p>
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ColumnarBatchBenchmark {
+
+  private static final String SINGLE_ROW_SQL = "UPDATE test_table t SET t.numval = :newval WHERE t.numval = :value";
+
+  private static final String TYPE_NAME = "TEST_NUMBER_ARRAY_TYPE";
+
+  @Param({"100", "10000"})
+  public int rowCount;
+
+  private AnnotationConfigApplicationContext applicationContext;
+
+  private OracleNamedParameterJdbcTemplate template;
+
+  private SqlParameterSource[] batchArgs;
+
+  private Map<String, String> arrayTypeNames;
+
+  @Setup
+  public void setUp() {
+    this.applicationContext = new AnnotationConfigApplicationContext();
+    this.applicationContext.getEnvironment().setActiveProfiles(DataSourceProfile.COMMONS_DBCP);
+    this.applicationContext.register(DatabaseConfiguration.class);
+    this.applicationContext.refresh();
+    this.template = this.applicationContext.getBean(OracleNamedParameterJdbcTemplate.class);
+
+    this.batchArgs = new SqlParameterSource[this.rowCount];
+    for (int i = 0; i < this.rowCount; i++) {
+      int value = i + 1;
+      this.batchArgs[i] = new MapSqlParameterSource("newval", value).addValue("value", value);
+    }
+    this.arrayTypeNames = new HashMap<>(4);
+    this.arrayTypeNames.put("newval", TYPE_NAME);
+    this.arrayTypeNames.put("value", TYPE_NAME);
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.applicationContext.close();
+  }
+
+  @Benchmark
+  public int[] batchUpdate() {
+    return this.template.batchUpdate(SINGLE_ROW_SQL, this.batchArgs);
+  }
+
+  @Benchmark
+  public int[] batchUpdateColumnar() {
+    return this.template.batchUpdateColumnar(SINGLE_ROW_SQL, this.batchArgs, this.arrayTypeNames, TYPE_NAME);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+            .include(ColumnarBatchBenchmark.class.getName())
+            .build();
+    new Runner(options).run();
+  }
+
+}
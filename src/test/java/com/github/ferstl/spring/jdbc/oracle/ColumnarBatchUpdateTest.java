@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import oracle.jdbc.OracleConnection;
+
+public class ColumnarBatchUpdateTest {
+
+  private static final String SQL = "UPDATE test_table t SET t.val = :val WHERE t.id = :id AND t.numval <> :id";
+
+  @Test
+  public void toForall() {
+    String plsql = ColumnarBatchUpdate.toForall(SQL + ";", new String[] {"val", "id"},
+            new String[] {"VARCHAR_TABLE", "NUMBER_TABLE"}, "NUMBER_TABLE", new String[0], new String[0]);
+
+    assertEquals("DECLARE\n"
+            + "  p$0 VARCHAR_TABLE := ?;\n"
+            + "  p$1 NUMBER_TABLE := ?;\n"
+            + "  row_counts$ NUMBER_TABLE := NUMBER_TABLE();\n"
+            + "BEGIN\n"
+            + "  FORALL i$ IN 1 .. p$0.COUNT\n"
+            + "    UPDATE test_table t SET t.val = p$0(i$) WHERE t.id = p$1(i$) AND t.numval <> p$1(i$);\n"
+            + "  row_counts$.EXTEND(p$0.COUNT);\n"
+            + "  FOR i$ IN 1 .. p$0.COUNT LOOP\n"
+            + "    row_counts$(i$) := SQL%BULK_ROWCOUNT(i$);\n"
+            + "  END LOOP;\n"
+            + "  ? := row_counts$;\n"
+            + "END;", plsql);
+  }
+
+  @Test
+  public void toForallReturning() {
+    String plsql = ColumnarBatchUpdate.toForall("INSERT INTO test_table(id, val, numval) VALUES(seq_test_table.nextval, :val, :numval)",
+            new String[] {"val", "numval"}, new String[] {"VARCHAR_TABLE", "NUMBER_TABLE"}, "NUMBER_TABLE",
+            new String[] {"id", "numval"}, new String[] {"NUMBER_TABLE", "NUMBER_TABLE"});
+
+    assertEquals("DECLARE\n"
+            + "  p$0 VARCHAR_TABLE := ?;\n"
+            + "  p$1 NUMBER_TABLE := ?;\n"
+            + "  row_counts$ NUMBER_TABLE := NUMBER_TABLE();\n"
+            + "  k$0 NUMBER_TABLE;\n"
+            + "  k$1 NUMBER_TABLE;\n"
+            + "BEGIN\n"
+            + "  FORALL i$ IN 1 .. p$0.COUNT\n"
+            + "    INSERT INTO test_table(id, val, numval) VALUES(seq_test_table.nextval, p$0(i$), p$1(i$))\n"
+            + "    RETURNING id, numval BULK COLLECT INTO k$0, k$1;\n"
+            + "  row_counts$.EXTEND(p$0.COUNT);\n"
+            + "  FOR i$ IN 1 .. p$0.COUNT LOOP\n"
+            + "    row_counts$(i$) := SQL%BULK_ROWCOUNT(i$);\n"
+            + "  END LOOP;\n"
+            + "  ? := row_counts$;\n"
+            + "  ? := k$0;\n"
+            + "  ? := k$1;\n"
+            + "END;", plsql);
+  }
+
+  @Test
+  public void execution() throws SQLException {
+    SqlParameterSource[] batchArgs = new SqlParameterSource[] {
+        new MapSqlParameterSource("val", "a").addValue("id", 1),
+        new MapSqlParameterSource("val", null).addValue("id", 2)
+    };
+    ColumnarBatchUpdate update = new ColumnarBatchUpdate(SQL, batchArgs, arrayTypeNames(), "NUMBER_TABLE");
+
+    CallableStatement callableStatement = mock(CallableStatement.class);
+    Connection connection = mock(Connection.class);
+    OracleConnection oracleConnection = mock(OracleConnection.class);
+    Array vals = mock(Array.class);
+    Array ids = mock(Array.class);
+    Array rowCounts = mock(Array.class);
+
+    when(callableStatement.getConnection()).thenReturn(connection);
+    when(connection.unwrap(OracleConnection.class)).thenReturn(oracleConnection);
+    when(oracleConnection.createOracleArray("VARCHAR_TABLE", new Object[] {"a", null})).thenReturn(vals);
+    when(oracleConnection.createOracleArray("NUMBER_TABLE", new Object[] {1, 2})).thenReturn(ids);
+    when(callableStatement.getArray(3)).thenReturn(rowCounts);
+    when(rowCounts.getArray()).thenReturn(new Object[] {BigDecimal.ONE, BigDecimal.ZERO});
+
+    int[] result = update.doInCallableStatement(callableStatement);
+
+    assertArrayEquals(new int[] {1, 0}, result);
+    verify(callableStatement).setArray(1, vals);
+    verify(callableStatement).setArray(2, ids);
+    verify(callableStatement).registerOutParameter(3, Types.ARRAY, "NUMBER_TABLE");
+    verify(vals).free();
+    verify(ids).free();
+    verify(rowCounts).free();
+  }
+
+  @Test
+  public void generatedKeys() throws SQLException {
+    SqlParameterSource[] batchArgs = new SqlParameterSource[] {
+        new MapSqlParameterSource("val", "a"),
+        new MapSqlParameterSource("val", "b")
+    };
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+    ColumnarBatchUpdate update = new ColumnarBatchUpdate("INSERT INTO test_table(id, val) VALUES(seq_test_table.nextval, :val)",
+            batchArgs, arrayTypeNames(), "NUMBER_TABLE", keyHolder, Collections.singletonMap("id", "NUMBER_TABLE"));
+
+    CallableStatement callableStatement = mock(CallableStatement.class);
+    Connection connection = mock(Connection.class);
+    OracleConnection oracleConnection = mock(OracleConnection.class);
+    Array rowCounts = mock(Array.class);
+    Array ids = mock(Array.class);
+
+    when(callableStatement.getConnection()).thenReturn(connection);
+    when(connection.unwrap(OracleConnection.class)).thenReturn(oracleConnection);
+    when(oracleConnection.createOracleArray("VARCHAR_TABLE", new Object[] {"a", "b"})).thenReturn(mock(Array.class));
+    when(callableStatement.getArray(2)).thenReturn(rowCounts);
+    when(callableStatement.getArray(3)).thenReturn(ids);
+    when(rowCounts.getArray()).thenReturn(new Object[] {BigDecimal.ONE, BigDecimal.ONE});
+    when(ids.getArray()).thenReturn(new Object[] {BigDecimal.valueOf(10L), BigDecimal.valueOf(11L)});
+
+    int[] result = update.doInCallableStatement(callableStatement);
+
+    assertArrayEquals(new int[] {1, 1}, result);
+    verify(callableStatement).registerOutParameter(3, Types.ARRAY, "NUMBER_TABLE");
+    assertEquals(2, keyHolder.getKeyList().size());
+    assertEquals(BigDecimal.valueOf(10L), keyHolder.getKeyList().get(0).get("id"));
+    assertEquals(BigDecimal.valueOf(11L), keyHolder.getKeyList().get(1).get("id"));
+    verify(ids).free();
+  }
+
+  @Test
+  public void utilDateConverted() throws SQLException {
+    java.util.Date date = new java.util.Date(1_000L);
+    SqlParameterSource[] batchArgs = new SqlParameterSource[] {
+        new MapSqlParameterSource("created", date),
+        new MapSqlParameterSource("created", null)
+    };
+    ColumnarBatchUpdate update = new ColumnarBatchUpdate("UPDATE test_table SET created = :created", batchArgs,
+            Collections.singletonMap("created", "TIMESTAMP_TABLE"), "NUMBER_TABLE");
+
+    CallableStatement callableStatement = mock(CallableStatement.class);
+    Connection connection = mock(Connection.class);
+    OracleConnection oracleConnection = mock(OracleConnection.class);
+    Array rowCounts = mock(Array.class);
+
+    when(callableStatement.getConnection()).thenReturn(connection);
+    when(connection.unwrap(OracleConnection.class)).thenReturn(oracleConnection);
+    when(oracleConnection.createOracleArray("TIMESTAMP_TABLE", new Object[] {new Timestamp(1_000L), null})).thenReturn(mock(Array.class));
+    when(callableStatement.getArray(2)).thenReturn(rowCounts);
+    when(rowCounts.getArray()).thenReturn(new Object[] {BigDecimal.ONE, BigDecimal.ONE});
+
+    update.doInCallableStatement(callableStatement);
+
+    ArgumentCaptor<Object[]> elements = ArgumentCaptor.forClass(Object[].class);
+    verify(oracleConnection).createOracleArray(eq("TIMESTAMP_TABLE"), elements.capture());
+    assertEquals(Timestamp.class, elements.getValue()[0].getClass());
+  }
+
+  @Test
+  public void invalidTypeName() {
+    Map<String, String> arrayTypeNames = arrayTypeNames();
+    arrayTypeNames.put("val", "VARCHAR_TABLE := ?; BEGIN NULL; END; --");
+    SqlParameterSource[] batchArgs = new SqlParameterSource[0];
+
+    assertThrows(IllegalArgumentException.class, () -> new ColumnarBatchUpdate(SQL, batchArgs, arrayTypeNames, "NUMBER_TABLE"));
+    assertThrows(IllegalArgumentException.class, () -> new ColumnarBatchUpdate(SQL, batchArgs, arrayTypeNames(), "NUMBER_TABLE()"));
+  }
+
+  @Test
+  public void invalidKeyColumnName() {
+    SqlParameterSource[] batchArgs = new SqlParameterSource[0];
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+
+    assertThrows(IllegalArgumentException.class, () -> new ColumnarBatchUpdate(SQL, batchArgs, arrayTypeNames(), "NUMBER_TABLE",
+            keyHolder, Collections.singletonMap("id INTO x; --", "NUMBER_TABLE")));
+  }
+
+  @Test
+  public void qualifiedSqlNames() {
+    assertEquals("APP.NUMBER_TABLE", ColumnarBatchUpdate.requireSqlName("APP.NUMBER_TABLE"));
+    assertEquals("\"app\".\"number table\"", ColumnarBatchUpdate.requireSqlName("\"app\".\"number table\""));
+    assertThrows(IllegalArgumentException.class, () -> ColumnarBatchUpdate.requireSqlName("\"a\"\"b\""));
+    assertThrows(IllegalArgumentException.class, () -> ColumnarBatchUpdate.requireSqlName("1_TABLE"));
+  }
+
+  @Test
+  public void missingArrayType() {
+    Map<String, String> arrayTypeNames = Collections.singletonMap("val", "VARCHAR_TABLE");
+    SqlParameterSource[] batchArgs = new SqlParameterSource[0];
+
+    assertThrows(IllegalArgumentException.class, () -> new ColumnarBatchUpdate(SQL, batchArgs, arrayTypeNames, "NUMBER_TABLE"));
+  }
+
+  @Test
+  public void noBindVariables() {
+    SqlParameterSource[] batchArgs = new SqlParameterSource[0];
+
+    assertThrows(IllegalArgumentException.class, () -> new ColumnarBatchUpdate("DELETE FROM test_table", batchArgs, arrayTypeNames(), "NUMBER_TABLE"));
+  }
+
+  private static Map<String, String> arrayTypeNames() {
+    Map<String, String> arrayTypeNames = new HashMap<>(4);
+    arrayTypeNames.put("val", "VARCHAR_TABLE");
+    arrayTypeNames.put("id", "NUMBER_TABLE");
+    return arrayTypeNames;
+  }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests for {@link FetchSizePolicy}.
+ */
+public class FetchSizePolicyTest {
+
+  private static final String SQL = "SELECT id, val FROM test_table WHERE id < :max";
+
+  private PreparedStatement statement;
+
+  private ResultSetMetaData metaData;
+
+  @BeforeEach
+  public void setUp() throws SQLException {
+    this.statement = mock(PreparedStatement.class);
+    this.metaData = mock(ResultSetMetaData.class);
+    when(this.statement.getMetaData()).thenReturn(this.metaData);
+    // 22 + 2 * 989 = 2000 bytes per row
+    when(this.metaData.getColumnCount()).thenReturn(2);
+    when(this.metaData.getColumnType(1)).thenReturn(Types.NUMERIC);
+    when(this.metaData.getColumnType(2)).thenReturn(Types.VARCHAR);
+    when(this.metaData.getPrecision(2)).thenReturn(989);
+  }
+
+  @Test
+  public void fromBudget() throws SQLException {
+    FetchSizePolicy policy = new FetchSizePolicy(200_000L);
+
+    policy.applyFetchSize(SQL, this.statement);
+    policy.applyFetchSize(SQL, this.statement);
+
+    verify(this.statement, times(1)).getMetaData();
+    verify(this.statement, times(2)).setFetchSize(100);
+  }
+
+  @Test
+  public void clampedToMinAndMax() throws SQLException {
+    assertEquals(10, new FetchSizePolicy(1_000L).computeFetchSize(this.metaData));
+    assertEquals(50, new FetchSizePolicy(1_000_000L, 10, 50).computeFetchSize(this.metaData));
+  }
+
+  @Test
+  public void adaptsToRowCount() throws SQLException {
+    FetchSizePolicy policy = new FetchSizePolicy(200_000L);
+    policy.applyFetchSize(SQL, this.statement);
+
+    policy.recordRowCount(SQL, 20);
+    policy.applyFetchSize(SQL, this.statement);
+    verify(this.statement).setFetchSize(21);
+
+    // grows again, up to the budget
+    policy.recordRowCount(SQL, 500);
+    policy.applyFetchSize(SQL, this.statement);
+    verify(this.statement, times(2)).setFetchSize(100);
+
+    // never below the minimum
+    FetchSizePolicy smallResults = new FetchSizePolicy(200_000L);
+    smallResults.applyFetchSize(SQL, this.statement);
+    smallResults.recordRowCount(SQL, 1);
+    smallResults.applyFetchSize(SQL, this.statement);
+    verify(this.statement).setFetchSize(10);
+  }
+
+  @Test
+  public void notAQuery() throws SQLException {
+    FetchSizePolicy policy = new FetchSizePolicy(200_000L);
+
+    policy.applyFetchSize("DELETE FROM test_table WHERE id < :max", this.statement);
+
+    verify(this.statement, never()).getMetaData();
+    verify(this.statement, never()).setFetchSize(anyInt());
+  }
+
+  @Test
+  public void columnWidth() {
+    assertEquals(100, FetchSizePolicy.getColumnWidth(Types.VARCHAR, 50));
+    assertEquals(50, FetchSizePolicy.getColumnWidth(Types.VARBINARY, 50));
+    assertEquals(22, FetchSizePolicy.getColumnWidth(Types.NUMERIC, 10));
+    assertEquals(8000, FetchSizePolicy.getColumnWidth(Types.VARCHAR, 0));
+  }
+
+  @Test
+  public void invalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new FetchSizePolicy(0L));
+    assertThrows(IllegalArgumentException.class, () -> new FetchSizePolicy(1000L, 0, 10));
+    assertThrows(IllegalArgumentException.class, () -> new FetchSizePolicy(1000L, 10, 5));
+  }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2013 by Stefan Ferstl <st.ferstl@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static net.bytebuddy.matcher.ElementMatchers.isAbstract;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.implementation.FixedValue;
+import net.bytebuddy.implementation.StubMethod;
+
+import oracle.jdbc.OraclePreparedStatement;
+
+/**
+ * Creates {@link OraclePreparedStatement}s that do nothing.
+ *
+ * <p>Unlike Mockito mocks these do not record invocations and therefore
+ * do not allocate, which makes them suitable for allocation tests and
+ * benchmarks.</p>
+ */
+final class NoOpOraclePreparedStatement {
+
+  private static final Class<? extends OraclePreparedStatement> STATEMENT_CLASS = new ByteBuddy()
+          .subclass(OraclePreparedStatement.class)
+          .method(isAbstract()).intercept(StubMethod.INSTANCE)
+          .method(named("unwrap")).intercept(FixedValue.self())
+          .make()
+          .load(NoOpOraclePreparedStatement.class.getClassLoader())
+          .getLoaded();
+
+  private NoOpOraclePreparedStatement() {
+    throw new AssertionError("Not instantiable");
+  }
+
+  static OraclePreparedStatement create() {
+    try {
+      return STATEMENT_CLASS.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("could not create statement", e);
+    }
+  }
+
+}
@@ -15,29 +15,66 @@
  */
 package com.github.ferstl.spring.jdbc.oracle;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.lang.management.ManagementFactory;
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.ParameterDisposer;
+import org.springframework.jdbc.core.PreparedStatementCallback;
 import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SqlTypeValue;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.support.SqlValue;
 
+import com.github.ferstl.spring.jdbc.oracle.OracleNamedParameterJdbcTemplate.NamedBatchPreparedStatementSetter;
+import com.github.ferstl.spring.jdbc.oracle.OracleNamedParameterJdbcTemplate.NamedPreparedStatementCreator;
+import com.sun.management.ThreadMXBean;
+
+import oracle.jdbc.OracleConnection;
 import oracle.jdbc.OraclePreparedStatement;
 
 /**
@@ -71,8 +108,8 @@ public class OracleNamedParameterJdbcTemplateTest {
 
     preparedStatementCreator.createPreparedStatement(connection);
 
-    verify(oracleStatement).setObjectAtName("ten", 10);
-    verify(oracleStatement).setObjectAtName("twenty", 20);
+    verify(oracleStatement).setIntAtName("ten", 10);
+    verify(oracleStatement).setIntAtName("twenty", 20);
   }
 
   @Test
@@ -93,10 +130,55 @@ public class OracleNamedParameterJdbcTemplateTest {
 
     preparedStatementCreator.createPreparedStatement(connection);
 
-    verify(oracleStatement).setObjectAtName("ten", 10);
+    verify(oracleStatement).setIntAtName("ten", 10);
     verify(oracleStatement).setNullAtName("twenty", Types.NULL);
   }
 
+  @Test
+  public void setNullLearnedType() throws SQLException {
+    String sql = "SELECT 1 FROM dual WHERE 1 = :ten or 20 = :twenty";
+    MapSqlParameterSource withValue = new MapSqlParameterSource();
+    withValue.addValue("ten", 10);
+    withValue.addValue("twenty", "20");
+    MapSqlParameterSource withNull = new MapSqlParameterSource();
+    withNull.addValue("ten", 10);
+    withNull.addValue("twenty", null);
+
+    Connection connection = mock(Connection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oracleStatement = mock(OraclePreparedStatement.class);
+
+    when(connection.prepareStatement(sql)).thenReturn(preparedStatement);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oracleStatement);
+
+    this.namedJdbcTemplate.getPreparedStatementCreator(sql, withValue).createPreparedStatement(connection);
+    this.namedJdbcTemplate.getPreparedStatementCreator(sql, withNull).createPreparedStatement(connection);
+
+    verify(oracleStatement).setStringAtName("twenty", "20");
+    verify(oracleStatement).setNullAtName("twenty", Types.VARCHAR);
+    verify(oracleStatement, never()).setNullAtName("twenty", Types.NULL);
+  }
+
+  @Test
+  public void setNullConfiguredType() throws SQLException {
+    String sql = "SELECT 1 FROM dual WHERE 1 = :ten or 20 = :twenty";
+    this.namedJdbcTemplate.setNullTypes(Collections.singletonMap(sql, Collections.singletonMap("twenty", Types.NUMERIC)));
+    MapSqlParameterSource source = new MapSqlParameterSource();
+    source.addValue("ten", 10);
+    source.addValue("twenty", null);
+
+    Connection connection = mock(Connection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oracleStatement = mock(OraclePreparedStatement.class);
+
+    when(connection.prepareStatement(sql)).thenReturn(preparedStatement);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oracleStatement);
+
+    this.namedJdbcTemplate.getPreparedStatementCreator(sql, source).createPreparedStatement(connection);
+
+    verify(oracleStatement).setNullAtName("twenty", Types.NUMERIC);
+  }
+
   @Test
   public void setWithType() throws SQLException {
     MapSqlParameterSource source = new MapSqlParameterSource(new HashMap<String, Object>(2));
@@ -115,7 +197,7 @@ public class OracleNamedParameterJdbcTemplateTest {
 
     preparedStatementCreator.createPreparedStatement(connection);
 
-    verify(oracleStatement).setObjectAtName("ten", 10, Types.NUMERIC);
+    verify(oracleStatement).setIntAtName("ten", 10);
     verify(oracleStatement).setNullAtName("twenty", Types.VARCHAR);
   }
 
@@ -137,8 +219,8 @@ public class OracleNamedParameterJdbcTemplateTest {
 
     preparedStatementCreator.createPreparedStatement(connection);
 
-    verify(oracleStatement).setObjectAtName("ten", 10);
-    verify(oracleStatement).setObjectAtName("twenty", 20);
+    verify(oracleStatement).setIntAtName("ten", 10);
+    verify(oracleStatement).setIntAtName("twenty", 20);
   }
 
   @Test
@@ -158,7 +240,7 @@ public class OracleNamedParameterJdbcTemplateTest {
 
     preparedStatementCreator.createPreparedStatement(connection);
 
-    verify(oracleStatement).setObjectAtName("ten", 10);
+    verify(oracleStatement).setIntAtName("ten", 10);
   }
 
   @Test
@@ -179,8 +261,8 @@ public class OracleNamedParameterJdbcTemplateTest {
 
     preparedStatementCreator.createPreparedStatement(connection);
 
-    verify(oracleStatement).setObjectAtName("arg", 10);
-    verify(oracleStatement).setObjectAtName("arg2", 20);
+    verify(oracleStatement).setIntAtName("arg", 10);
+    verify(oracleStatement).setIntAtName("arg2", 20);
   }
 
   @Test
@@ -204,6 +286,69 @@ public class OracleNamedParameterJdbcTemplateTest {
     assertThrows(IllegalArgumentException.class, () -> preparedStatementCreator.createPreparedStatement(connection), "connection is currently unsupported");
   }
   
+  @Test
+  public void collectionWithRegisteredType() throws SQLException {
+    this.namedJdbcTemplate.setCollectionTypes(new CollectionTypeRegistry().register(Integer.class, "NUMBER_TABLE"));
+    Map<String, Object> map = Collections.singletonMap("collection", Arrays.asList(1, 23, 42));
+    String sql = "SELECT 1 FROM dual WHERE 42 IN (SELECT column_value FROM TABLE(:collection))";
+    PreparedStatementCreator preparedStatementCreator = this.namedJdbcTemplate.getPreparedStatementCreator(
+            sql,
+            new MapSqlParameterSource(map));
+
+    Connection connection = mock(Connection.class);
+    OracleConnection oracleConnection = mock(OracleConnection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oraclePreparedStatement = mock(OraclePreparedStatement.class);
+    Array array = mock(Array.class);
+
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oraclePreparedStatement);
+    when(connection.prepareStatement(sql)).thenReturn(preparedStatement);
+    when(oraclePreparedStatement.getConnection()).thenReturn(connection);
+    when(connection.unwrap(OracleConnection.class)).thenReturn(oracleConnection);
+    when(oracleConnection.createOracleArray("NUMBER_TABLE", new Object[] {1, 23, 42})).thenReturn(array);
+
+    preparedStatementCreator.createPreparedStatement(connection);
+    verify(oraclePreparedStatement).setArrayAtName("collection", array);
+    verify(array, never()).free();
+
+    ((ParameterDisposer) preparedStatementCreator).cleanupParameters();
+    verify(array).free();
+  }
+
+  @Test
+  public void arrayValueOwnedByStatement() throws SQLException {
+    Object[] values = new Object[] {1L, 2L, 3L};
+    SqlOracleArrayValue ids = new SqlOracleArrayValue("NUMBER_TABLE", values);
+    String sql = "SELECT 1 FROM dual WHERE 42 IN (SELECT column_value FROM TABLE(:ids))";
+    MapSqlParameterSource parameterSource = new MapSqlParameterSource("ids", ids);
+    PreparedStatementCreator outerCreator = this.namedJdbcTemplate.getPreparedStatementCreator(sql, parameterSource);
+    PreparedStatementCreator nestedCreator = this.namedJdbcTemplate.getPreparedStatementCreator(sql, parameterSource);
+
+    Connection connection = mock(Connection.class);
+    OracleConnection oracleConnection = mock(OracleConnection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oraclePreparedStatement = mock(OraclePreparedStatement.class);
+    Array outerArray = mock(Array.class);
+    Array nestedArray = mock(Array.class);
+
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oraclePreparedStatement);
+    when(connection.prepareStatement(sql)).thenReturn(preparedStatement);
+    when(oraclePreparedStatement.getConnection()).thenReturn(connection);
+    when(connection.unwrap(OracleConnection.class)).thenReturn(oracleConnection);
+    when(oracleConnection.createOracleArray("NUMBER_TABLE", values)).thenReturn(outerArray, nestedArray);
+
+    // eg. a query executed while processing the rows of another query binding the same value
+    outerCreator.createPreparedStatement(connection);
+    nestedCreator.createPreparedStatement(connection);
+    ((ParameterDisposer) nestedCreator).cleanupParameters();
+
+    verify(nestedArray).free();
+    verify(outerArray, never()).free();
+
+    ((ParameterDisposer) outerCreator).cleanupParameters();
+    verify(outerArray).free();
+  }
+
   @Test
   public void sqlValueUnsupported() throws SQLException {
     Map<String, Object> map = Collections.singletonMap("collection", mock(SqlValue.class));
@@ -263,10 +408,479 @@ public class OracleNamedParameterJdbcTemplateTest {
     preparedStatementCreator.createPreparedStatement(connection);
     ((ParameterDisposer) preparedStatementCreator).cleanupParameters();
 
-    verify(oraclePreparedStatement).setObjectAtName("ten", 10);
-    verify(oraclePreparedStatement).setObjectAtName("twenty", 20);
+    verify(oraclePreparedStatement).setIntAtName("ten", 10);
+    verify(oraclePreparedStatement).setIntAtName("twenty", 20);
     verify(namedSqlValue).setValue(oraclePreparedStatement, "collection");
     verify(namedSqlValue).cleanup();
   }
 
+  @Test
+  public void queryByKeysParallel() {
+    JdbcOperations jdbcOperations = mock(JdbcOperations.class);
+    OracleNamedParameterJdbcTemplate template = new OracleNamedParameterJdbcTemplate(jdbcOperations);
+    template.setArrayLookupChunkSize(2);
+    template.setArrayLookupExecutor(Runnable::run);
+    AtomicInteger chunkIndex = new AtomicInteger();
+    when(jdbcOperations.query(any(PreparedStatementCreator.class), ArgumentMatchers.<RowMapper<Integer>>any()))
+      .thenAnswer(invocation -> Arrays.asList(chunkIndex.get(), chunkIndex.getAndIncrement()));
+
+    List<Integer> result = template.queryByKeys("SELECT 1 FROM dual WHERE 1 IN (SELECT column_value FROM TABLE(:ids))",
+            Collections.emptyMap(), "ids", "NUMBER_TABLE", Arrays.asList(1, 2, 3, 3, 4, 5), (rs, i) -> rs.getInt(1));
+
+    // 5 distinct keys in 3 chunks, merged in chunk order
+    assertEquals(Arrays.asList(0, 0, 1, 1, 2, 2), result);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void queryByKeysRecordsRowCounts() throws SQLException {
+    String sql = "SELECT 1 FROM dual WHERE 1 IN (SELECT column_value FROM TABLE(:ids))";
+    JdbcOperations jdbcOperations = mock(JdbcOperations.class);
+    OracleNamedParameterJdbcTemplate template = new OracleNamedParameterJdbcTemplate(jdbcOperations);
+    FetchSizePolicy fetchSizePolicy = new FetchSizePolicy(1_000_000L, 1, 100);
+    template.setFetchSizePolicy(fetchSizePolicy);
+    template.setArrayLookupChunkSize(2);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    fetchSizePolicy.applyFetchSize(sql, preparedStatement);
+    when(jdbcOperations.query(any(PreparedStatementCreator.class), any(ResultSetExtractor.class)))
+      .thenAnswer(invocation -> {
+        // two rows per chunk
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getInt(1)).thenReturn(1);
+        return invocation.getArgument(1, ResultSetExtractor.class).extractData(resultSet);
+      });
+
+    List<Integer> result = template.queryByKeys(sql, Collections.emptyMap(), "ids", "NUMBER_TABLE", Arrays.asList(1, 2, 3, 4), (rs, i) -> rs.getInt(1));
+    fetchSizePolicy.applyFetchSize(sql, preparedStatement);
+
+    assertEquals(4, result.size());
+    verify(preparedStatement).setFetchSize(100);
+    // one more than the rows of a chunk
+    verify(preparedStatement).setFetchSize(3);
+  }
+
+  @Test
+  public void queryByKeysEmpty() {
+    JdbcOperations jdbcOperations = mock(JdbcOperations.class);
+    OracleNamedParameterJdbcTemplate template = new OracleNamedParameterJdbcTemplate(jdbcOperations);
+
+    List<Integer> result = template.queryByKeys("SELECT 1 FROM dual WHERE 1 IN (SELECT column_value FROM TABLE(:ids))",
+            Collections.emptyMap(), "ids", "NUMBER_TABLE", Collections.singleton(null), (rs, i) -> rs.getInt(1));
+
+    assertTrue(result.isEmpty());
+    verifyNoInteractions(jdbcOperations);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void batchUpdateChunked() throws SQLException {
+    JdbcOperations jdbcOperations = mock(JdbcOperations.class);
+    OracleNamedParameterJdbcTemplate template = new OracleNamedParameterJdbcTemplate(jdbcOperations);
+    String sql = "UPDATE test_table SET numval = :numval WHERE id = :id";
+
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oracleStatement = mock(OraclePreparedStatement.class);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oracleStatement);
+    when(preparedStatement.executeLargeBatch()).thenReturn(new long[] {1L, 1L}, new long[] {1L, 1L}, new long[] {1L});
+    when(jdbcOperations.execute(eq(sql), any(PreparedStatementCallback.class)))
+      .thenAnswer(invocation -> invocation.getArgument(1, PreparedStatementCallback.class).doInPreparedStatement(preparedStatement));
+
+    List<long[]> chunks = new ArrayList<>();
+    long total = template.batchUpdate(sql, IntStream.rangeClosed(1, 5)
+            .mapToObj(i -> new MapSqlParameterSource("id", i).addValue("numval", i * 10)), 2, chunks::add);
+
+    assertEquals(5L, total);
+    assertEquals(3, chunks.size());
+    assertArrayEquals(new long[] {1L}, chunks.get(2));
+    verify(preparedStatement, times(5)).addBatch();
+    verify(preparedStatement, times(3)).executeLargeBatch();
+    verify(oracleStatement).setIntAtName("id", 5);
+    verify(oracleStatement).setIntAtName("numval", 50);
+  }
+
+  @Test
+  public void batchUpdateChunkedEmpty() {
+    JdbcOperations jdbcOperations = mock(JdbcOperations.class);
+    OracleNamedParameterJdbcTemplate template = new OracleNamedParameterJdbcTemplate(jdbcOperations);
+
+    long total = template.batchUpdate("UPDATE test_table SET numval = :numval", Collections.<SqlParameterSource>emptyIterator(), 100, null);
+
+    assertEquals(0L, total);
+    verifyNoInteractions(jdbcOperations);
+  }
+
+  @Test
+  public void batchUpdateChunkedInvalidChunkSize() {
+    assertThrows(IllegalArgumentException.class,
+        () -> this.namedJdbcTemplate.batchUpdate("UPDATE test_table SET numval = :numval", Stream.<SqlParameterSource>empty(), 0, null));
+  }
+
+  @Test
+  public void batchResolvesParameterNamesOnce() throws SQLException {
+    NamedSqlValue namedSqlValue = mock(NamedSqlValue.class);
+    SqlParameterSource[] batchArgs = new SqlParameterSource[3];
+    for (int i = 0; i < batchArgs.length; i++) {
+      MapSqlParameterSource source = new MapSqlParameterSource();
+      source.addValue("id", i);
+      source.addValue("ids", namedSqlValue);
+      batchArgs[i] = mock(SqlParameterSource.class, delegatesTo(source));
+    }
+
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oraclePreparedStatement = mock(OraclePreparedStatement.class);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oraclePreparedStatement);
+
+    NamedBatchPreparedStatementSetter setter = new NamedBatchPreparedStatementSetter("SELECT 1 FROM dual", batchArgs, new BoundedConcurrentCache<>(16), new NullBindTypes(), null);
+    for (int i = 0; i < setter.getBatchSize(); i++) {
+      setter.setValues(preparedStatement, i);
+    }
+    setter.cleanupParameters();
+
+    verify(batchArgs[0]).getParameterNames();
+    verify(batchArgs[1], never()).getParameterNames();
+    verify(batchArgs[2], never()).getParameterNames();
+    verify(preparedStatement).unwrap(OraclePreparedStatement.class);
+    for (int i = 0; i < batchArgs.length; i++) {
+      verify(oraclePreparedStatement).setIntAtName("id", i);
+    }
+    verify(namedSqlValue, times(3)).setValue(oraclePreparedStatement, "ids");
+    verify(namedSqlValue, times(3)).cleanup();
+  }
+
+  @Test
+  public void batchMixedParameterNames() throws SQLException {
+    NamedSqlValue namedSqlValue = mock(NamedSqlValue.class);
+    SqlParameterSource[] batchArgs = new SqlParameterSource[] {
+        new MapSqlParameterSource("id", 0).addValue("ids", namedSqlValue),
+        // missing a name
+        new MapSqlParameterSource("id", 1),
+        // additional name
+        new MapSqlParameterSource("id", 2).addValue("ids", namedSqlValue).addValue("numval", 20),
+        new MapSqlParameterSource("id", 3).addValue("ids", namedSqlValue)
+    };
+
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oraclePreparedStatement = mock(OraclePreparedStatement.class);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oraclePreparedStatement);
+
+    NamedBatchPreparedStatementSetter setter = new NamedBatchPreparedStatementSetter("SELECT 1 FROM dual", batchArgs, new BoundedConcurrentCache<>(16), new NullBindTypes(), null);
+    for (int i = 0; i < setter.getBatchSize(); i++) {
+      setter.setValues(preparedStatement, i);
+    }
+    setter.cleanupParameters();
+
+    for (int i = 0; i < batchArgs.length; i++) {
+      verify(oraclePreparedStatement).setIntAtName("id", i);
+    }
+    verify(oraclePreparedStatement).setIntAtName("numval", 20);
+    verify(namedSqlValue, times(3)).setValue(oraclePreparedStatement, "ids");
+    verify(namedSqlValue, times(3)).cleanup();
+  }
+
+  @Test
+  public void batchBindingDoesNotAllocate() throws SQLException {
+    ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+
+    int batchSize = 10_000;
+    SqlParameterSource[] batchArgs = new SqlParameterSource[batchSize];
+    for (int i = 0; i < batchSize; i++) {
+      MapSqlParameterSource source = new MapSqlParameterSource();
+      source.addValue("id", (long) i);
+      source.addValue("val", "Value_" + i);
+      source.addValue("numval", i, Types.NUMERIC);
+      source.addValue("nullval", null);
+      batchArgs[i] = source;
+    }
+    PreparedStatement preparedStatement = NoOpOraclePreparedStatement.create();
+
+    // warm up to exclude class loading and lazy initialization
+    NamedBatchPreparedStatementSetter setter = new NamedBatchPreparedStatementSetter("SELECT 1 FROM dual", batchArgs, new BoundedConcurrentCache<>(16), new NullBindTypes(), null);
+    for (int i = 0; i < batchSize; i++) {
+      setter.setValues(preparedStatement, i);
+    }
+
+    long threadId = Thread.currentThread().getId();
+    setter = new NamedBatchPreparedStatementSetter("SELECT 1 FROM dual", batchArgs, new BoundedConcurrentCache<>(16), new NullBindTypes(), null);
+    long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < batchSize; i++) {
+      setter.setValues(preparedStatement, i);
+    }
+    long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+    // allow for some constant overhead of the measurement but nothing per row
+    assertTrue(allocated < batchSize, () -> "allocated " + allocated + " bytes for " + batchSize + " rows");
+  }
+
+  @Test
+  public void compiledBeanProperties() throws SQLException {
+    String sql = "UPDATE test_table SET val = :val, numval = :numVal WHERE id = :id";
+    PreparedStatementCreator preparedStatementCreator = this.namedJdbcTemplate.getPreparedStatementCreator(
+            sql, new CompiledBeanPropertySqlParameterSource(new TestBean(1, "one", null)));
+
+    Connection connection = mock(Connection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oracleStatement = mock(OraclePreparedStatement.class);
+
+    when(connection.prepareStatement(sql)).thenReturn(preparedStatement);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oracleStatement);
+
+    preparedStatementCreator.createPreparedStatement(connection);
+
+    verify(oracleStatement).setIntAtName("id", 1);
+    verify(oracleStatement).setStringAtName("val", "one");
+    verify(oracleStatement).setNullAtName("numVal", Types.BIGINT);
+    verify(oracleStatement, never()).setObjectAtName(eq("class"), any());
+  }
+
+  @Test
+  public void compiledBeanPropertiesBatch() throws SQLException {
+    String sql = "UPDATE test_table SET val = :val WHERE id = :id";
+    SqlParameterSource[] batchArgs = CompiledBeanPropertySqlParameterSource.createBatch(Arrays.asList(
+            new TestBean(1, "one", 1L), new TestBean(2, "two", 2L)));
+
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oracleStatement = mock(OraclePreparedStatement.class);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oracleStatement);
+
+    BoundedConcurrentCache<BeanPropertyBinder.Key, BeanPropertyBinder> binders = new BoundedConcurrentCache<>(16);
+    NamedBatchPreparedStatementSetter setter = new NamedBatchPreparedStatementSetter(sql, batchArgs, binders, new NullBindTypes(), null);
+    for (int i = 0; i < setter.getBatchSize(); i++) {
+      setter.setValues(preparedStatement, i);
+    }
+    setter.cleanupParameters();
+
+    verify(oracleStatement).setIntAtName("id", 1);
+    verify(oracleStatement).setStringAtName("val", "one");
+    verify(oracleStatement).setIntAtName("id", 2);
+    verify(oracleStatement).setStringAtName("val", "two");
+    verify(oracleStatement, never()).setLongAtName(eq("numVal"), anyLong());
+    assertEquals(1, binders.size());
+  }
+
+  @Test
+  public void compiledBeanPropertiesCleanup() throws SQLException {
+    String sql = "SELECT 1 FROM dual WHERE id IN (SELECT column_value FROM TABLE(:ids))";
+    NamedSqlValue ids = mock(NamedSqlValue.class);
+    SqlValueBean bean = new SqlValueBean(ids);
+    PreparedStatementCreator preparedStatementCreator = this.namedJdbcTemplate.getPreparedStatementCreator(
+            sql, new CompiledBeanPropertySqlParameterSource(bean));
+
+    Connection connection = mock(Connection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oracleStatement = mock(OraclePreparedStatement.class);
+
+    when(connection.prepareStatement(sql)).thenReturn(preparedStatement);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oracleStatement);
+
+    preparedStatementCreator.createPreparedStatement(connection);
+    ((ParameterDisposer) preparedStatementCreator).cleanupParameters();
+
+    verify(ids).setValue(oracleStatement, "ids");
+    verify(ids).cleanup();
+    // the getter is not called again for cleaning up
+    assertEquals(1, bean.getIdsCount.get());
+  }
+
+  @Test
+  public void compiledBeanPropertiesMissingProperty() throws SQLException {
+    String sql = "SELECT 1 FROM dual WHERE 1 = :missing";
+    PreparedStatementCreator preparedStatementCreator = this.namedJdbcTemplate.getPreparedStatementCreator(
+            sql, new CompiledBeanPropertySqlParameterSource(new TestBean(1, "one", null)));
+
+    Connection connection = mock(Connection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oracleStatement = mock(OraclePreparedStatement.class);
+
+    when(connection.prepareStatement(sql)).thenReturn(preparedStatement);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oracleStatement);
+
+    assertThrows(InvalidDataAccessApiUsageException.class, () -> preparedStatementCreator.createPreparedStatement(connection));
+  }
+
+  @Test
+  public void explicitStatementCaching() throws SQLException {
+    String sql = "SELECT 1 FROM dual WHERE 1 = :ten";
+    this.namedJdbcTemplate.setStatementCacheKeyFunction(s -> "key");
+
+    OracleConnection connection = mock(OracleConnection.class);
+    OraclePreparedStatement oracleStatement = mock(OraclePreparedStatement.class);
+    when(connection.unwrap(OracleConnection.class)).thenReturn(connection);
+    when(connection.getStatementWithKey("key")).thenReturn(oracleStatement);
+    when(oracleStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oracleStatement);
+
+    PreparedStatementCreator preparedStatementCreator = this.namedJdbcTemplate.getPreparedStatementCreator(
+            sql, new MapSqlParameterSource("ten", 10));
+    PreparedStatement preparedStatement = preparedStatementCreator.createPreparedStatement(connection);
+    preparedStatement.close();
+
+    verify(oracleStatement).setIntAtName("ten", 10);
+    verify(oracleStatement).closeWithKey("key");
+    verify(oracleStatement, never()).close();
+    verify(connection, never()).prepareStatement(sql);
+  }
+
+  @Test
+  public void describeFailureClosesStatement() throws SQLException {
+    String sql = "SELECT 1 FROM dual WHERE 1 = :ten";
+    this.namedJdbcTemplate.setStatementCacheKeyFunction(s -> "key");
+    this.namedJdbcTemplate.setColumnDefineCache(new ColumnDefineCache());
+
+    OracleConnection connection = mock(OracleConnection.class);
+    OraclePreparedStatement oracleStatement = mock(OraclePreparedStatement.class);
+    SQLException failure = new SQLException("describe failed");
+    when(connection.unwrap(OracleConnection.class)).thenReturn(connection);
+    when(connection.getStatementWithKey("key")).thenReturn(oracleStatement);
+    when(oracleStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oracleStatement);
+    when(oracleStatement.getMetaData()).thenThrow(failure);
+
+    PreparedStatementCreator preparedStatementCreator = this.namedJdbcTemplate.getPreparedStatementCreator(
+            sql, new MapSqlParameterSource("ten", 10));
+    SQLException thrown = assertThrows(SQLException.class, () -> preparedStatementCreator.createPreparedStatement(connection));
+
+    assertSame(failure, thrown);
+    // returned to the cache
+    verify(oracleStatement).closeWithKey("key");
+    verify(oracleStatement, never()).close();
+  }
+
+  @Test
+  public void columnDefinesAndFetchSizeDescribeOnce() throws SQLException {
+    String sql = "SELECT 1 FROM dual WHERE 1 = :ten";
+    this.namedJdbcTemplate.setColumnDefineCache(new ColumnDefineCache());
+    this.namedJdbcTemplate.setFetchSizePolicy(new FetchSizePolicy(1_000_000L));
+
+    Connection connection = mock(Connection.class);
+    OraclePreparedStatement oracleStatement = mock(OraclePreparedStatement.class);
+    ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+    when(connection.prepareStatement(sql)).thenReturn(oracleStatement);
+    when(oracleStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oracleStatement);
+    when(oracleStatement.getMetaData()).thenReturn(metaData);
+
+    PreparedStatementCreator preparedStatementCreator = this.namedJdbcTemplate.getPreparedStatementCreator(
+            sql, new MapSqlParameterSource("ten", 10));
+    preparedStatementCreator.createPreparedStatement(connection);
+
+    verify(oracleStatement, times(1)).getMetaData();
+    verify(oracleStatement).setFetchSize(FetchSizePolicy.DEFAULT_MIN_FETCH_SIZE);
+  }
+
+  @Test
+  public void explicitStatementCachingBatch() throws SQLException {
+    String sql = "DELETE FROM test_table WHERE id = :id";
+    DataSource dataSource = mock(DataSource.class);
+    OracleConnection connection = mock(OracleConnection.class);
+    OraclePreparedStatement oracleStatement = mock(OraclePreparedStatement.class);
+    when(dataSource.getConnection()).thenReturn(connection);
+    when(connection.unwrap(OracleConnection.class)).thenReturn(connection);
+    when(connection.getStatementWithKey("key")).thenReturn(null);
+    when(connection.prepareStatement(sql)).thenReturn(oracleStatement);
+    when(oracleStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oracleStatement);
+    when(oracleStatement.executeBatch()).thenReturn(new int[] {1, 1});
+
+    OracleNamedParameterJdbcTemplate template = new OracleNamedParameterJdbcTemplate(dataSource);
+    template.setStatementCacheKeyFunction(s -> "key");
+    SqlParameterSource[] batchArgs = new SqlParameterSource[] {
+        new MapSqlParameterSource("id", 1),
+        new MapSqlParameterSource("id", 2)};
+    int[] result = template.batchUpdate(sql, batchArgs);
+
+    assertArrayEquals(new int[] {1, 1}, result);
+    verify(oracleStatement).setIntAtName("id", 1);
+    verify(oracleStatement).setIntAtName("id", 2);
+    verify(oracleStatement, times(2)).addBatch();
+    verify(oracleStatement).closeWithKey("key");
+    verify(oracleStatement, never()).close();
+  }
+
+  @Test
+  public void generatedKeysColumnNames() throws SQLException {
+    JdbcOperations jdbcOperations = mock(JdbcOperations.class);
+    OracleNamedParameterJdbcTemplate template = new OracleNamedParameterJdbcTemplate(jdbcOperations);
+    String sql = "INSERT INTO test_table(id, val) VALUES(seq_test_table.nextval, :val)";
+    String[] keyColumnNames = new String[] {"id"};
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+
+    template.update(sql, new MapSqlParameterSource("val", "a"), keyHolder, keyColumnNames);
+    ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+    verify(jdbcOperations).update(creator.capture(), eq(keyHolder));
+
+    Connection connection = mock(Connection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(mock(OraclePreparedStatement.class));
+    when(connection.prepareStatement(sql, keyColumnNames)).thenReturn(preparedStatement);
+
+    assertSame(preparedStatement, creator.getValue().createPreparedStatement(connection));
+  }
+
+  @Test
+  public void generatedKeysWithoutColumnNames() throws SQLException {
+    JdbcOperations jdbcOperations = mock(JdbcOperations.class);
+    OracleNamedParameterJdbcTemplate template = new OracleNamedParameterJdbcTemplate(jdbcOperations);
+    String sql = "INSERT INTO test_table(id, val) VALUES(seq_test_table.nextval, :val)";
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+
+    template.update(sql, new MapSqlParameterSource("val", "a"), keyHolder);
+    ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+    verify(jdbcOperations).update(creator.capture(), eq(keyHolder));
+
+    Connection connection = mock(Connection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(mock(OraclePreparedStatement.class));
+    when(connection.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)).thenReturn(preparedStatement);
+
+    assertSame(preparedStatement, creator.getValue().createPreparedStatement(connection));
+  }
+
+  @Test
+  public void explicitStatementCachingGeneratedKeys() {
+    assertEquals("key", NamedPreparedStatementCreator.getStatementCacheKey("key", false, null));
+    assertEquals("key#generatedKeys", NamedPreparedStatementCreator.getStatementCacheKey("key", true, null));
+    assertEquals("key#generatedKeys(ID,VERSION)",
+            NamedPreparedStatementCreator.getStatementCacheKey("key", true, new String[] {"ID", "VERSION"}));
+  }
+
+  public static final class TestBean {
+
+    private final Integer id;
+    private final String val;
+    private final Long numVal;
+
+    TestBean(Integer id, String val, Long numVal) {
+      this.id = id;
+      this.val = val;
+      this.numVal = numVal;
+    }
+
+    public Integer getId() {
+      return this.id;
+    }
+
+    public String getVal() {
+      return this.val;
+    }
+
+    public Long getNumVal() {
+      return this.numVal;
+    }
+
+  }
+
+  public static final class SqlValueBean {
+
+    private final NamedSqlValue ids;
+    final AtomicInteger getIdsCount = new AtomicInteger();
+
+    SqlValueBean(NamedSqlValue ids) {
+      this.ids = ids;
+    }
+
+    public NamedSqlValue getIds() {
+      this.getIdsCount.incrementAndGet();
+      return this.ids;
+    }
+
+  }
+
 }
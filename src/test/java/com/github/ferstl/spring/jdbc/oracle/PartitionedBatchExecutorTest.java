@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Statement;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.github.ferstl.spring.jdbc.oracle.PartitionedBatchExecutor.FailureMode;
+
+/**
+ * JUnit tests for {@link PartitionedBatchExecutor}.
+ */
+public class PartitionedBatchExecutorTest {
+
+  private static final String SQL = "UPDATE test_table SET numval = :numval WHERE id = :id";
+
+  private NamedParameterJdbcOperations jdbcOperations;
+
+  private TransactionOperations transactionOperations;
+
+  @BeforeEach
+  public void setUp() {
+    this.jdbcOperations = mock(NamedParameterJdbcOperations.class);
+    TransactionStatus status = mock(TransactionStatus.class);
+    this.transactionOperations = new TransactionOperations() {
+
+      @Override
+      public <T> T execute(TransactionCallback<T> action) {
+        return action.doInTransaction(status);
+      }
+
+    };
+  }
+
+  @Test
+  public void partitionRoundRobin() {
+    PartitionedBatchExecutor executor = this.executor(3, FailureMode.ABORT);
+
+    int[][] partitions = executor.partition(rows(7), null);
+
+    assertEquals(3, partitions.length);
+    assertArrayEquals(new int[] {0, 3, 6}, partitions[0]);
+    assertArrayEquals(new int[] {1, 4}, partitions[1]);
+    assertArrayEquals(new int[] {2, 5}, partitions[2]);
+  }
+
+  @Test
+  public void partitionByKey() {
+    PartitionedBatchExecutor executor = this.executor(4, FailureMode.ABORT);
+
+    // only even keys, partitions 1 and 3 stay empty
+    int[][] partitions = executor.partition(rows(6), row -> ((Integer) row.getValue("id")) % 2 * 2);
+
+    assertEquals(2, partitions.length);
+    assertArrayEquals(new int[] {0, 2, 4}, partitions[0]);
+    assertArrayEquals(new int[] {1, 3, 5}, partitions[1]);
+  }
+
+  @Test
+  public void partitionFewerRowsThanPartitions() {
+    PartitionedBatchExecutor executor = this.executor(8, FailureMode.ABORT);
+
+    assertEquals(2, executor.partition(rows(2), null).length);
+    assertEquals(0, executor.partition(rows(0), null).length);
+  }
+
+  @Test
+  public void rowCountsInInputOrder() {
+    when(this.jdbcOperations.batchUpdate(eq(SQL), any(SqlParameterSource[].class)))
+      .thenAnswer(invocation -> {
+        SqlParameterSource[] batchArgs = invocation.getArgument(1);
+        int[] rowCounts = new int[batchArgs.length];
+        for (int i = 0; i < batchArgs.length; i++) {
+          // use the id as row count to check the order
+          rowCounts[i] = (Integer) batchArgs[i].getValue("id");
+        }
+        return rowCounts;
+      });
+
+    PartitionedBatchResult result = this.executor(3, FailureMode.ABORT).batchUpdate(SQL, rows(5));
+
+    assertTrue(result.isSuccessful());
+    assertEquals(3, result.getPartitionCount());
+    assertArrayEquals(new int[] {0, 1, 2, 3, 4}, result.getRowCounts());
+    assertEquals(10L, result.getTotalRowCount());
+  }
+
+  @Test
+  public void continueOnFailure() {
+    DataIntegrityViolationException exception = new DataIntegrityViolationException("cannot insert NULL");
+    when(this.jdbcOperations.batchUpdate(eq(SQL), any(SqlParameterSource[].class)))
+      .thenAnswer(invocation -> {
+        SqlParameterSource[] batchArgs = invocation.getArgument(1);
+        if (batchArgs[0].getValue("id").equals(1)) {
+          throw exception;
+        }
+        return new int[] {1, 1};
+      });
+
+    PartitionedBatchResult result = this.executor(2, FailureMode.CONTINUE).batchUpdate(SQL, rows(4));
+
+    assertFalse(result.isSuccessful());
+    assertEquals(1, result.getFailures().size());
+    assertSame(exception, result.getFailures().get(0));
+    assertArrayEquals(new int[] {1, Statement.EXECUTE_FAILED, 1, Statement.EXECUTE_FAILED}, result.getRowCounts());
+    assertEquals(2L, result.getTotalRowCount());
+  }
+
+  @Test
+  public void abortOnFailure() {
+    DataIntegrityViolationException exception = new DataIntegrityViolationException("cannot insert NULL");
+    when(this.jdbcOperations.batchUpdate(eq(SQL), any(SqlParameterSource[].class))).thenThrow(exception);
+
+    RuntimeException thrown = assertThrows(RuntimeException.class, () -> this.executor(2, FailureMode.ABORT).batchUpdate(SQL, rows(4)));
+
+    assertSame(exception, thrown);
+  }
+
+  private PartitionedBatchExecutor executor(int partitionCount, FailureMode failureMode) {
+    return new PartitionedBatchExecutor(this.jdbcOperations, this.transactionOperations, Runnable::run, partitionCount, failureMode);
+  }
+
+  private static SqlParameterSource[] rows(int count) {
+    SqlParameterSource[] rows = new SqlParameterSource[count];
+    for (int i = 0; i < count; i++) {
+      rows[i] = new MapSqlParameterSource("id", i).addValue("numval", i * 10);
+    }
+    return rows;
+  }
+
+}
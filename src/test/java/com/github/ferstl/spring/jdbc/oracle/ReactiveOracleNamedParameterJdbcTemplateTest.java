@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+/**
+ * JUnit tests for {@link ReactiveOracleNamedParameterJdbcTemplate}.
+ */
+public class ReactiveOracleNamedParameterJdbcTemplateTest {
+
+  private static final String SQL = "UPDATE test_table SET numval = :numval WHERE id = :id";
+
+  private Connection connection;
+
+  private OraclePreparedStatement statement;
+
+  private ReactiveOracleNamedParameterJdbcTemplate reactiveTemplate;
+
+  @BeforeEach
+  public void setUp() throws SQLException {
+    DataSource dataSource = mock(DataSource.class);
+    this.connection = mock(Connection.class);
+    this.statement = mock(OraclePreparedStatement.class);
+    when(dataSource.getConnection()).thenReturn(this.connection);
+    when(this.connection.prepareStatement(SQL)).thenReturn(this.statement);
+    when(this.statement.unwrap(OraclePreparedStatement.class)).thenReturn(this.statement);
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    // avoid looking up the error codes from the mock
+    jdbcTemplate.setExceptionTranslator(new SQLStateSQLExceptionTranslator());
+    this.reactiveTemplate = new ReactiveOracleNamedParameterJdbcTemplate(new OracleNamedParameterJdbcTemplate(jdbcTemplate));
+  }
+
+  @Test
+  public void update() throws Exception {
+    when(this.statement.executeUpdateAsyncOracle()).thenReturn(just(1L));
+
+    Flow.Publisher<Long> publisher = this.reactiveTemplate.update(SQL, new MapSqlParameterSource("numval", 10).addValue("id", 1));
+    // cold, nothing happens before subscribing
+    verify(this.statement, never()).setIntAtName("numval", 10);
+
+    List<Long> rowCounts = CollectingSubscriber.collect(publisher);
+
+    assertEquals(Collections.singletonList(1L), rowCounts);
+    verify(this.statement).setIntAtName("numval", 10);
+    verify(this.statement).setIntAtName("id", 1);
+    verify(this.statement).close();
+    verify(this.connection).close();
+  }
+
+  @Test
+  public void arraysFreedByCompletingThread() throws Exception {
+    OracleConnection oracleConnection = mock(OracleConnection.class);
+    Array array = mock(Array.class);
+    Object[] values = new Object[] {1, 2};
+    when(this.statement.getConnection()).thenReturn(this.connection);
+    when(this.connection.unwrap(OracleConnection.class)).thenReturn(oracleConnection);
+    when(oracleConnection.createOracleArray("TEST_ARRAY", values)).thenReturn(array);
+    // the driver completes the statement on its own thread
+    when(this.statement.executeUpdateAsyncOracle()).thenReturn(justOnNewThread(2L));
+
+    Flow.Publisher<Long> publisher = this.reactiveTemplate.update(SQL, new MapSqlParameterSource("numval", new SqlOracleArrayValue("TEST_ARRAY", values)).addValue("id", 1));
+    List<Long> rowCounts = CollectingSubscriber.collect(publisher);
+
+    assertEquals(Collections.singletonList(2L), rowCounts);
+    verify(this.statement).setArrayAtName("numval", array);
+    verify(array).free();
+    verify(this.statement).close();
+  }
+
+  @Test
+  public void subscribeTwice() throws Exception {
+    OracleConnection oracleConnection = mock(OracleConnection.class);
+    Array firstArray = mock(Array.class);
+    Array secondArray = mock(Array.class);
+    Object[] values = new Object[] {1, 2};
+    when(this.statement.getConnection()).thenReturn(this.connection);
+    when(this.connection.unwrap(OracleConnection.class)).thenReturn(oracleConnection);
+    when(oracleConnection.createOracleArray("TEST_ARRAY", values)).thenReturn(firstArray, secondArray);
+    // the first execution only completes after the second one
+    AtomicReference<Flow.Subscriber<? super Long>> firstExecution = new AtomicReference<>();
+    Flow.Publisher<Long> deferred = firstExecution::set;
+    when(this.statement.executeUpdateAsyncOracle()).thenReturn(deferred, just(2L));
+
+    Flow.Publisher<Long> publisher = this.reactiveTemplate.update(SQL, new MapSqlParameterSource("numval", new SqlOracleArrayValue("TEST_ARRAY", values)).addValue("id", 1));
+    CollectingSubscriber<Long> first = new CollectingSubscriber<>(Long.MAX_VALUE);
+    publisher.subscribe(first);
+    List<Long> secondRowCounts = CollectingSubscriber.collect(publisher);
+
+    assertEquals(Collections.singletonList(2L), secondRowCounts);
+    verify(secondArray).free();
+    verify(firstArray, never()).free();
+
+    just(1L).subscribe(firstExecution.get());
+
+    assertEquals(Collections.singletonList(1L), first.get());
+    verify(firstArray).free();
+  }
+
+  @Test
+  public void executionFails() throws Exception {
+    when(this.statement.executeUpdateAsyncOracle()).thenThrow(new SQLException("closed", "08003"));
+
+    Flow.Publisher<Long> publisher = this.reactiveTemplate.update(SQL, new MapSqlParameterSource("numval", 10).addValue("id", 1));
+
+    ExecutionException exception = assertThrows(ExecutionException.class, () -> CollectingSubscriber.collect(publisher));
+    assertTrue(exception.getCause() instanceof DataAccessResourceFailureException);
+    verify(this.statement).close();
+    verify(this.connection).close();
+  }
+
+  @Test
+  public void noDataSource() {
+    OracleNamedParameterJdbcTemplate template = new OracleNamedParameterJdbcTemplate(new JdbcTemplate());
+
+    assertThrows(IllegalArgumentException.class, () -> new ReactiveOracleNamedParameterJdbcTemplate(template));
+  }
+
+  private static <T> Flow.Publisher<T> justOnNewThread(T item) {
+    Flow.Publisher<T> just = just(item);
+    return subscriber -> new Thread(() -> just.subscribe(subscriber), "completion").start();
+  }
+
+  private static <T> Flow.Publisher<T> just(T item) {
+    return subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+
+      private boolean done;
+
+      @Override
+      public void request(long n) {
+        if (!this.done) {
+          this.done = true;
+          subscriber.onNext(item);
+          subscriber.onComplete();
+        }
+      }
+
+      @Override
+      public void cancel() {
+        this.done = true;
+      }
+
+    });
+  }
+
+}
@@ -1,5 +1,7 @@
 package com.github.ferstl.spring.jdbc.oracle;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -47,4 +49,75 @@ public class SqlOracleArrayValueTest {
 
   }
 
+  @Test
+  public void primitiveArray() throws SQLException {
+    long[] values = new long[] {1L, 2L, 3L};
+    String typeName = "CUSTOM_ARRAY_TYPE";
+    NamedSqlValue value = new SqlOracleArrayValue(typeName, values);
+
+    Connection connection = mock(Connection.class);
+    OracleConnection oracleConnection = mock(OracleConnection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oraclePreparedStatement = mock(OraclePreparedStatement.class);
+    Array array = mock(Array.class);
+
+    when(connection.unwrap(OracleConnection.class)).thenReturn(oracleConnection);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oraclePreparedStatement);
+    when(preparedStatement.getConnection()).thenReturn(connection);
+
+    when(oracleConnection.createOracleArray(typeName, values)).thenReturn(array);
+
+    value.setValue(preparedStatement, "parameter1");
+
+    // the primitive array is passed through without boxing
+    verify(oracleConnection).createOracleArray(same(typeName), same(values));
+    verify(oraclePreparedStatement).setArrayAtName("parameter1", array);
+  }
+
+  @Test
+  public void testToString() {
+    assertEquals("[1, 2, 3]", new SqlOracleArrayValue("CUSTOM_ARRAY_TYPE", 1L, 2L, 3L).toString());
+    assertEquals("[1, 2, 3]", new SqlOracleArrayValue("CUSTOM_ARRAY_TYPE", new int[] {1, 2, 3}).toString());
+    assertEquals("[]", new SqlOracleArrayValue("CUSTOM_ARRAY_TYPE", new double[0]).toString());
+
+    long[] large = new long[100_000];
+    for (int i = 0; i < large.length; i++) {
+      large[i] = i;
+    }
+    assertEquals("[0, 1, 2, 3, 4, 5, 6, 7, 8, 9, ... (100000 elements)]", new SqlOracleArrayValue("CUSTOM_ARRAY_TYPE", large).toString());
+  }
+
+  @Test
+  public void bindMoreThanOnce() throws SQLException {
+    Object[] values = new Object[] {1L, 2L, 3L};
+    String typeName = "CUSTOM_ARRAY_TYPE";
+    NamedSqlValue value = new SqlOracleArrayValue(typeName, values);
+
+    Connection connection = mock(Connection.class);
+    OracleConnection oracleConnection = mock(OracleConnection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oraclePreparedStatement = mock(OraclePreparedStatement.class);
+    Array first = mock(Array.class);
+    Array second = mock(Array.class);
+
+    when(connection.unwrap(OracleConnection.class)).thenReturn(oracleConnection);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oraclePreparedStatement);
+    when(preparedStatement.getConnection()).thenReturn(connection);
+
+    when(oracleConnection.createOracleArray(typeName, values)).thenReturn(first, second);
+
+    // eg. two rows of a batch
+    value.setValue(preparedStatement, "parameter1");
+    value.setValue(preparedStatement, "parameter1");
+
+    verify(oraclePreparedStatement).setArrayAtName("parameter1", first);
+    verify(oraclePreparedStatement).setArrayAtName("parameter1", second);
+
+    value.cleanup();
+    value.cleanup();
+
+    verify(first).free();
+    verify(second).free();
+  }
+
 }
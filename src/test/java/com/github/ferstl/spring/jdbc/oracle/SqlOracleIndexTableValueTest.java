@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.Test;
+
+import oracle.jdbc.OraclePreparedStatement;
+import oracle.jdbc.OracleTypes;
+
+public class SqlOracleIndexTableValueTest {
+
+  @Test
+  public void primitiveArray() throws SQLException {
+    long[] values = new long[] {1L, 2L, 3L};
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oraclePreparedStatement = mock(OraclePreparedStatement.class);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oraclePreparedStatement);
+
+    new SqlOracleIndexTableValue(values).setValue(preparedStatement, 2);
+
+    // the primitive array is passed through without boxing
+    verify(oraclePreparedStatement).setPlsqlIndexTable(eq(2), same(values), eq(3), eq(3), eq(OracleTypes.NUMBER), eq(0));
+  }
+
+  @Test
+  public void strings() throws SQLException {
+    String[] values = new String[] {"a", null, "abc"};
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oraclePreparedStatement = mock(OraclePreparedStatement.class);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oraclePreparedStatement);
+
+    new SqlOracleIndexTableValue(values).setValue(preparedStatement, 1);
+
+    verify(oraclePreparedStatement).setPlsqlIndexTable(eq(1), same(values), eq(3), eq(3), eq(OracleTypes.VARCHAR), eq(3));
+  }
+
+  @Test
+  public void empty() throws SQLException {
+    int[] values = new int[0];
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oraclePreparedStatement = mock(OraclePreparedStatement.class);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oraclePreparedStatement);
+
+    new SqlOracleIndexTableValue(values).setValue(preparedStatement, 1);
+
+    verify(oraclePreparedStatement).setPlsqlIndexTable(eq(1), same(values), eq(1), eq(0), eq(OracleTypes.NUMBER), eq(0));
+  }
+
+}
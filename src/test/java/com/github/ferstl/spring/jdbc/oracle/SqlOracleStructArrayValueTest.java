@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Struct;
+import java.util.Arrays;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+public class SqlOracleStructArrayValueTest {
+
+  @Test
+  public void execution() throws SQLException {
+    NamedSqlValue value = new SqlOracleStructArrayValue<>("KEY_TABLE", "KEY_TYPE",
+            Arrays.asList(new Object[] {1, 10}, null, new Object[] {2, 20}), Function.identity());
+
+    Connection connection = mock(Connection.class);
+    OracleConnection oracleConnection = mock(OracleConnection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+    OraclePreparedStatement oraclePreparedStatement = mock(OraclePreparedStatement.class);
+    Struct first = mock(Struct.class);
+    Struct second = mock(Struct.class);
+    Array array = mock(Array.class);
+
+    when(connection.unwrap(OracleConnection.class)).thenReturn(oracleConnection);
+    when(preparedStatement.unwrap(OraclePreparedStatement.class)).thenReturn(oraclePreparedStatement);
+    when(preparedStatement.getConnection()).thenReturn(connection);
+
+    when(oracleConnection.createStruct("KEY_TYPE", new Object[] {1, 10})).thenReturn(first);
+    when(oracleConnection.createStruct("KEY_TYPE", new Object[] {2, 20})).thenReturn(second);
+    when(oracleConnection.createOracleArray("KEY_TABLE", new Object[] {first, null, second})).thenReturn(array);
+
+    value.setValue(preparedStatement, "keys");
+
+    verify(oraclePreparedStatement).setArrayAtName("keys", array);
+    verify(array, never()).free();
+
+    value.cleanup();
+
+    verify(array).free();
+  }
+
+  @Test
+  public void attributesExtractor() throws SQLException {
+    NamedSqlValue value = new SqlOracleStructArrayValue<>("KEY_TABLE", "KEY_TYPE",
+            Arrays.asList("a", "bc"), s -> new Object[] {s, s.length()});
+
+    Connection connection = mock(Connection.class);
+    OracleConnection oracleConnection = mock(OracleConnection.class);
+    PreparedStatement preparedStatement = mock(PreparedStatement.class);
+
+    when(connection.unwrap(OracleConnection.class)).thenReturn(oracleConnection);
+    when(preparedStatement.getConnection()).thenReturn(connection);
+    when(oracleConnection.createOracleArray(any(String.class), any(Object[].class))).thenReturn(mock(Array.class));
+
+    value.setValue(preparedStatement, 1);
+
+    verify(oracleConnection).createStruct("KEY_TYPE", new Object[] {"a", 1});
+    verify(oracleConnection).createStruct("KEY_TYPE", new Object[] {"bc", 2});
+  }
+
+  @Test
+  public void testToString() {
+    assertEquals("KEY_TABLE(2 elements)", new SqlOracleStructArrayValue<>("KEY_TABLE", "KEY_TYPE",
+            Arrays.asList("a", "b"), s -> new Object[] {s}).toString());
+  }
+
+}
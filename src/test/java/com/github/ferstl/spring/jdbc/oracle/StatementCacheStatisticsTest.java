@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2013 by Stefan Ferstl <st.ferstl@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+public class StatementCacheStatisticsTest {
+
+  @Test
+  public void countHitsMissesAndCloses() throws SQLException {
+    StatementCacheStatistics statistics = new StatementCacheStatistics();
+    OracleConnection connection = mock(OracleConnection.class);
+    OraclePreparedStatement statement = mock(OraclePreparedStatement.class);
+    when(connection.unwrap(OracleConnection.class)).thenReturn(connection);
+    when(connection.getStatementWithKey("key")).thenReturn(null, statement);
+    when(connection.prepareStatement("SELECT 1 FROM dual")).thenReturn(statement);
+    when(statement.unwrap(OraclePreparedStatement.class)).thenReturn(statement);
+
+    CachedPreparedStatementCreator creator = new CachedPreparedStatementCreator("key", "SELECT 1 FROM dual", statistics);
+    for (int i = 0; i < 3; i++) {
+      PreparedStatement preparedStatement = creator.createPreparedStatement(connection);
+      preparedStatement.close();
+    }
+
+    assertEquals(Collections.singleton("key"), statistics.getKeys());
+    assertEquals(2L, statistics.getHits("key"));
+    assertEquals(1L, statistics.getMisses("key"));
+    assertEquals(3L, statistics.getCloses("key"));
+    assertEquals(0L, statistics.getHits("other"));
+  }
+
+  @Test
+  public void meterBinder() {
+    StatementCacheStatistics statistics = new StatementCacheStatistics();
+    statistics.miss("first");
+    MeterRegistry registry = new SimpleMeterRegistry();
+    new StatementCacheMeterBinder(statistics).bindTo(registry);
+
+    statistics.hit("first");
+    statistics.hit("first");
+    // registered after binding
+    statistics.miss("second");
+
+    assertEquals(2.0d, registry.find(StatementCacheMeterBinder.HITS).tag("key", "first").functionCounter().count());
+    assertEquals(1.0d, registry.find(StatementCacheMeterBinder.MISSES).tag("key", "first").functionCounter().count());
+    assertEquals(1.0d, registry.find(StatementCacheMeterBinder.MISSES).tag("key", "second").functionCounter().count());
+  }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2013 by Stefan Ferstl <st.ferstl@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+public class StatementCacheWarmerTest {
+
+  private static final String SQL = "SELECT 1 FROM dual";
+
+  private StatementCacheWarmer warmer;
+
+  @BeforeEach
+  public void setUp() {
+    this.warmer = new StatementCacheWarmer(Collections.singletonList(new CachedPreparedStatementCreator("key", SQL)), 10);
+  }
+
+  @Test
+  public void warmNewConnection() throws SQLException {
+    OracleConnection connection = mockConnection(false);
+
+    assertTrue(this.warmer.warm(connection));
+
+    verify(connection).setStatementCacheSize(10);
+    verify(connection).setExplicitCachingEnabled(true);
+    OraclePreparedStatement statement = (OraclePreparedStatement) connection.prepareStatement(SQL);
+    verify(statement).closeWithKey("key");
+    verify(statement, never()).close();
+  }
+
+  @Test
+  public void warmingFails() throws SQLException {
+    OracleConnection connection = mockConnection(false);
+    OraclePreparedStatement statement = (OraclePreparedStatement) connection.prepareStatement(SQL);
+    SQLException failure = new SQLException("cache full");
+    doThrow(failure).when(statement).closeWithKey("key");
+
+    SQLException thrown = assertThrows(SQLException.class, () -> this.warmer.warm(connection));
+
+    assertSame(failure, thrown);
+    verify(statement).close();
+    // warmed again on the next checkout
+    verify(connection).setExplicitCachingEnabled(false);
+  }
+
+  @Test
+  public void warmingFailsWithExplicitCachingEnabled() throws SQLException {
+    OracleConnection connection = mockConnection(true);
+    OraclePreparedStatement statement = (OraclePreparedStatement) connection.prepareStatement(SQL);
+    SQLException failure = new SQLException("cache full");
+    doThrow(failure).when(statement).closeWithKey("key");
+
+    assertThrows(SQLException.class, () -> this.warmer.warm(connection));
+    doNothing().when(statement).closeWithKey("key");
+
+    // the cache of the pool is kept
+    verify(connection, never()).setExplicitCachingEnabled(false);
+    // warmed again on the next checkout
+    assertTrue(this.warmer.warm(connection));
+  }
+
+  @Test
+  public void doNotWarmTwice() throws SQLException {
+    OracleConnection connection = mockConnection(false);
+
+    assertTrue(this.warmer.warm(connection));
+    assertFalse(this.warmer.warm(connection));
+
+    verify(connection).setExplicitCachingEnabled(true);
+    verify(connection).getStatementWithKey("key");
+    verify(connection).prepareStatement(SQL);
+  }
+
+  @Test
+  public void warmConnectionWithExplicitCachingEnabled() throws SQLException {
+    OracleConnection connection = mockConnection(true);
+
+    assertTrue(this.warmer.warm(connection));
+
+    verify(connection, never()).setExplicitCachingEnabled(anyBoolean());
+    verify(connection, never()).setStatementCacheSize(anyInt());
+    OraclePreparedStatement statement = (OraclePreparedStatement) connection.prepareStatement(SQL);
+    verify(statement).closeWithKey("key");
+  }
+
+  @Test
+  public void doNotPrepareCachedStatements() throws SQLException {
+    OracleConnection connection = mockConnection(true);
+    OraclePreparedStatement cached = mock(OraclePreparedStatement.class);
+    when(cached.unwrap(OraclePreparedStatement.class)).thenReturn(cached);
+    when(connection.getStatementWithKey("key")).thenReturn(cached);
+
+    assertTrue(this.warmer.warm(connection));
+
+    // returned to the cache
+    verify(cached).closeWithKey("key");
+    verify(connection, never()).prepareStatement(anyString());
+  }
+
+  @Test
+  public void warmPoolInParallel() throws SQLException {
+    OracleConnection first = mockConnection(false);
+    OracleConnection second = mockConnection(false);
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getConnection()).thenReturn(first, second);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      assertEquals(2, this.warmer.warm(dataSource, 2, executor));
+    } finally {
+      executor.shutdown();
+    }
+
+    verify(first).setExplicitCachingEnabled(true);
+    verify(second).setExplicitCachingEnabled(true);
+    verify(first).close();
+    verify(second).close();
+  }
+
+  @Test
+  public void warmPoolFailureWaitsForOtherConnections() throws SQLException {
+    OracleConnection failing = mockConnection(false);
+    OracleConnection slow = mockConnection(false);
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getConnection()).thenReturn(failing, slow);
+
+    List<String> events = new CopyOnWriteArrayList<>();
+    CountDownLatch failed = new CountDownLatch(1);
+    RuntimeException failure = new IllegalStateException("cache full");
+    OraclePreparedStatement failingStatement = (OraclePreparedStatement) failing.prepareStatement(SQL);
+    doAnswer(invocation -> {
+      failed.countDown();
+      throw failure;
+    }).when(failingStatement).closeWithKey("key");
+    OraclePreparedStatement slowStatement = (OraclePreparedStatement) slow.prepareStatement(SQL);
+    doAnswer(invocation -> {
+      failed.await();
+      Thread.sleep(50L);
+      events.add("cached slow");
+      return null;
+    }).when(slowStatement).closeWithKey("key");
+    doAnswer(invocation -> {
+      events.add("closed failing");
+      return null;
+    }).when(failing).close();
+    doAnswer(invocation -> {
+      events.add("closed slow");
+      return null;
+    }).when(slow).close();
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      RuntimeException thrown = assertThrows(RuntimeException.class, () -> this.warmer.warm(dataSource, 2, executor));
+      assertSame(failure, thrown);
+    } finally {
+      executor.shutdown();
+    }
+
+    // no connection is returned to the pool while another one is still being warmed
+    assertEquals(Arrays.asList("cached slow", "closed failing", "closed slow"), events);
+  }
+
+  private static OracleConnection mockConnection(boolean explicitCachingEnabled) throws SQLException {
+    OracleConnection connection = mock(OracleConnection.class);
+    OraclePreparedStatement statement = mock(OraclePreparedStatement.class);
+    when(connection.unwrap(OracleConnection.class)).thenReturn(connection);
+    when(connection.getExplicitCachingEnabled()).thenReturn(explicitCachingEnabled);
+    when(connection.getStatementWithKey("key")).thenReturn(null);
+    when(connection.prepareStatement(SQL)).thenReturn(statement);
+    when(statement.unwrap(OraclePreparedStatement.class)).thenReturn(statement);
+    return connection;
+  }
+
+}
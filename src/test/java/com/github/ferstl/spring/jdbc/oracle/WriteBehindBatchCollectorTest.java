@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2019 by Philippe Marschall <philippe.marschall@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.ferstl.spring.jdbc.oracle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * JUnit tests for {@link WriteBehindBatchCollector}.
+ */
+public class WriteBehindBatchCollectorTest {
+
+  private static final String SQL = "INSERT INTO test_table(id, val, numval) VALUES(seq_test_table.nextval, :val, :numval)";
+
+  private NamedParameterJdbcOperations jdbcOperations;
+
+  private TransactionOperations transactionOperations;
+
+  @BeforeEach
+  public void setUp() {
+    this.jdbcOperations = mock(NamedParameterJdbcOperations.class);
+    TransactionStatus status = mock(TransactionStatus.class);
+    this.transactionOperations = new TransactionOperations() {
+
+      @Override
+      public <T> T execute(TransactionCallback<T> action) {
+        return action.doInTransaction(status);
+      }
+
+    };
+  }
+
+  @Test
+  public void flushOnBatchSize() throws Exception {
+    when(this.jdbcOperations.batchUpdate(eq(SQL), any(SqlParameterSource[].class))).thenReturn(new int[] {1, 1});
+
+    try (WriteBehindBatchCollector collector = new WriteBehindBatchCollector(this.jdbcOperations, this.transactionOperations,
+            SQL, 2, 1L, TimeUnit.HOURS)) {
+      CompletableFuture<Integer> first = collector.add(row(1));
+      CompletableFuture<Integer> second = collector.add(row(2));
+
+      assertEquals((Integer) 1, first.get(5L, TimeUnit.SECONDS));
+      assertEquals((Integer) 1, second.get(5L, TimeUnit.SECONDS));
+    }
+    verify(this.jdbcOperations, times(1)).batchUpdate(eq(SQL), any(SqlParameterSource[].class));
+  }
+
+  @Test
+  public void flushOnDelay() throws Exception {
+    when(this.jdbcOperations.batchUpdate(eq(SQL), any(SqlParameterSource[].class))).thenReturn(new int[] {1});
+
+    try (WriteBehindBatchCollector collector = new WriteBehindBatchCollector(this.jdbcOperations, this.transactionOperations,
+            SQL, 100, 10L, TimeUnit.MILLISECONDS)) {
+      assertEquals((Integer) 1, collector.add(row(1)).get(5L, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void flushOnClose() throws Exception {
+    when(this.jdbcOperations.batchUpdate(eq(SQL), any(SqlParameterSource[].class))).thenReturn(new int[] {1, 1, 1});
+
+    List<CompletableFuture<Integer>> futures = new ArrayList<>();
+    WriteBehindBatchCollector collector = new WriteBehindBatchCollector(this.jdbcOperations, this.transactionOperations,
+            SQL, 100, 1L, TimeUnit.HOURS);
+    for (int i = 0; i < 3; i++) {
+      futures.add(collector.add(row(i)));
+    }
+    collector.close();
+
+    ArgumentCaptor<SqlParameterSource[]> batchArgs = ArgumentCaptor.forClass(SqlParameterSource[].class);
+    verify(this.jdbcOperations).batchUpdate(eq(SQL), batchArgs.capture());
+    assertEquals(3, batchArgs.getValue().length);
+    assertEquals(2, batchArgs.getValue()[2].getValue("numval"));
+    for (CompletableFuture<Integer> future : futures) {
+      assertTrue(future.isDone());
+      assertEquals((Integer) 1, future.get());
+    }
+  }
+
+  @Test
+  public void failedBatch() {
+    DataIntegrityViolationException exception = new DataIntegrityViolationException("unique constraint violated");
+    when(this.jdbcOperations.batchUpdate(eq(SQL), any(SqlParameterSource[].class))).thenThrow(exception);
+
+    try (WriteBehindBatchCollector collector = new WriteBehindBatchCollector(this.jdbcOperations, this.transactionOperations,
+            SQL, 2, 1L, TimeUnit.HOURS)) {
+      CompletableFuture<Integer> first = collector.add(row(1));
+      CompletableFuture<Integer> second = collector.add(row(2));
+
+      ExecutionException firstFailure = assertThrows(ExecutionException.class, () -> first.get(5L, TimeUnit.SECONDS));
+      assertSame(exception, firstFailure.getCause());
+      ExecutionException secondFailure = assertThrows(ExecutionException.class, () -> second.get(5L, TimeUnit.SECONDS));
+      assertSame(exception, secondFailure.getCause());
+    }
+  }
+
+  @Test
+  public void errorDoesNotStopFlushing() throws Exception {
+    AssertionError error = new AssertionError("out of memory");
+    when(this.jdbcOperations.batchUpdate(eq(SQL), any(SqlParameterSource[].class)))
+      .thenThrow(error)
+      .thenReturn(new int[] {1, 1});
+
+    try (WriteBehindBatchCollector collector = new WriteBehindBatchCollector(this.jdbcOperations, this.transactionOperations,
+            SQL, 2, 1L, TimeUnit.HOURS)) {
+      CompletableFuture<Integer> first = collector.add(row(1));
+      CompletableFuture<Integer> second = collector.add(row(2));
+      ExecutionException firstFailure = assertThrows(ExecutionException.class, () -> first.get(5L, TimeUnit.SECONDS));
+      assertSame(error, firstFailure.getCause());
+      ExecutionException secondFailure = assertThrows(ExecutionException.class, () -> second.get(5L, TimeUnit.SECONDS));
+      assertSame(error, secondFailure.getCause());
+
+      // the background thread is still running
+      CompletableFuture<Integer> third = collector.add(row(3));
+      CompletableFuture<Integer> fourth = collector.add(row(4));
+      assertEquals((Integer) 1, third.get(5L, TimeUnit.SECONDS));
+      assertEquals((Integer) 1, fourth.get(5L, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void completionExecutor() throws Exception {
+    when(this.jdbcOperations.batchUpdate(eq(SQL), any(SqlParameterSource[].class))).thenReturn(new int[] {1});
+    ExecutorService completionExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "completion"));
+
+    try (WriteBehindBatchCollector collector = new WriteBehindBatchCollector(this.jdbcOperations, this.transactionOperations,
+            SQL, 1, 1L, TimeUnit.HOURS, completionExecutor)) {
+      CompletableFuture<String> threadName = collector.add(row(1))
+        .thenApply(rowCount -> Thread.currentThread().getName());
+
+      assertEquals("completion", threadName.get(5L, TimeUnit.SECONDS));
+    } finally {
+      completionExecutor.shutdown();
+    }
+  }
+
+  @Test
+  public void closeOnBackgroundThread() throws Exception {
+    when(this.jdbcOperations.batchUpdate(eq(SQL), any(SqlParameterSource[].class))).thenReturn(new int[] {1});
+
+    WriteBehindBatchCollector collector = new WriteBehindBatchCollector(this.jdbcOperations, this.transactionOperations,
+            SQL, 1, 1L, TimeUnit.HOURS);
+    CompletableFuture<Void> closed = collector.add(row(1)).thenRun(collector::close);
+
+    // does not wait for itself
+    closed.get(5L, TimeUnit.SECONDS);
+    assertThrows(IllegalStateException.class, () -> collector.add(row(2)));
+  }
+
+  @Test
+  public void errorDoesNotStopPeriodicFlushing() throws Exception {
+    AssertionError error = new AssertionError("out of memory");
+    when(this.jdbcOperations.batchUpdate(eq(SQL), any(SqlParameterSource[].class)))
+      .thenThrow(error)
+      .thenReturn(new int[] {1});
+
+    try (WriteBehindBatchCollector collector = new WriteBehindBatchCollector(this.jdbcOperations, this.transactionOperations,
+            SQL, 100, 10L, TimeUnit.MILLISECONDS)) {
+      CompletableFuture<Integer> first = collector.add(row(1));
+      ExecutionException failure = assertThrows(ExecutionException.class, () -> first.get(5L, TimeUnit.SECONDS));
+      assertSame(error, failure.getCause());
+
+      // below the batch size, only written by the timer
+      assertEquals((Integer) 1, collector.add(row(2)).get(5L, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void noRowCounts() {
+    // the mock returns null
+    try (WriteBehindBatchCollector collector = new WriteBehindBatchCollector(this.jdbcOperations, this.transactionOperations,
+            SQL, 1, 1L, TimeUnit.HOURS)) {
+      CompletableFuture<Integer> future = collector.add(row(1));
+
+      ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(5L, TimeUnit.SECONDS));
+      assertTrue(failure.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  @Test
+  public void addAfterClose() {
+    WriteBehindBatchCollector collector = new WriteBehindBatchCollector(this.jdbcOperations, this.transactionOperations,
+            SQL, 2, 1L, TimeUnit.HOURS);
+    collector.close();
+
+    assertThrows(IllegalStateException.class, () -> collector.add(row(1)));
+  }
+
+  private static SqlParameterSource row(int i) {
+    return new MapSqlParameterSource("val", "Value" + i).addValue("numval", i);
+  }
+
+}
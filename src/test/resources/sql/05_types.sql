@@ -4,5 +4,13 @@ ALTER SESSION SET CURRENT_SCHEMA = spring_jdbc_oracle;
 
 BEGIN
   EXECUTE IMMEDIATE 'CREATE OR REPLACE TYPE test_array_type IS TABLE OF NUMBER(5)';
+  EXECUTE IMMEDIATE 'CREATE OR REPLACE TYPE test_number_array_type IS TABLE OF NUMBER';
+  EXECUTE IMMEDIATE 'CREATE OR REPLACE TYPE test_varchar_array_type IS TABLE OF VARCHAR2(50)';
+END;
+/
+
+BEGIN
+  EXECUTE IMMEDIATE 'CREATE OR REPLACE TYPE test_key_type AS OBJECT (id NUMBER(5), numval NUMBER(10))';
+  EXECUTE IMMEDIATE 'CREATE OR REPLACE TYPE test_key_table_type IS TABLE OF test_key_type';
 END;
 /
@@ -3,7 +3,12 @@ ALTER SESSION SET CONTAINER = ORCLPDB1;
 ALTER SESSION SET CURRENT_SCHEMA = spring_jdbc_oracle;
 
 CREATE OR REPLACE PACKAGE spring_jdbc_oracle AS
+   TYPE t_numval_table IS TABLE OF NUMBER(10) INDEX BY PLS_INTEGER;
+   TYPE t_val_table IS TABLE OF VARCHAR2(50) INDEX BY PLS_INTEGER;
+
    PROCEDURE reset_seq_test_table;
+
+   PROCEDURE insert_test_table(p_vals t_val_table, p_numvals t_numval_table);
 END spring_jdbc_oracle; 
 /
 
@@ -25,6 +30,13 @@ CREATE OR REPLACE PACKAGE BODY spring_jdbc_oracle AS
        EXECUTE IMMEDIATE 'ALTER SEQUENCE seq_test_table INCREMENT BY 1';
    END;
 
+   PROCEDURE insert_test_table(p_vals t_val_table, p_numvals t_numval_table) AS
+   BEGIN
+       FORALL i IN 1 .. p_vals.COUNT
+         INSERT INTO test_table(id, val, numval)
+         VALUES(seq_test_table.nextval, p_vals(i), p_numvals(i));
+   END;
+
 END spring_jdbc_oracle; 
 /
 